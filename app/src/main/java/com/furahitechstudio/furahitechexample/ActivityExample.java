@@ -14,7 +14,6 @@ import java.util.HashMap;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.MODE_MOBILE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentEnvironment.SANDBOX;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.REQUEST_CODE_PAYMENT_STATUS;
-import static com.furahitechstudio.furahitechpay.utils.Furahitech.RESULT_PAYMENT_STATUS;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_TIGOPESA;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentEnvironment.LIVE;
@@ -26,41 +25,41 @@ public class ActivityExample extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_example);
 
-        PaymentRequest request=new PaymentRequest();
-
-        /*For mobile (tigopesa) merchant credentials */
-        request.setTigoMerchantKey("");
-        request.setTigoMerchantSecret("");
-        request.setTigoMerchantPin("");
-        request.setTigoMerchantNumber("");
-        request.setTigoMerchantName("");
-
-        /*For mobile (mpesa) merchant credentials */
-        request.setWazoHubClientID("");
-        request.setWazoHubClientSecret("");
-
-        /*For card merchant credentials */
-        request.setCardMerchantKey("");
-        request.setCardMerchantSecret("");
-
-       /*Customer details*/
-        request.setCustomerEmailAddress("info@furahitech.co.tz");
-        request.setCustomerFirstName("Furahitech");
-        request.setCustomerLastName("Studio");
-
-        /*Transaction other details*/
-        request.setTransactionAmount(100);
-        request.setTransactionFee(0);
-        request.setPaymentDesc("Payment for demonstration");
-
-        /*HTTP request endPoints*/
-        request.setPaymentRequestEndPoint("");
-        request.setPaymentLogsEndPoint("");
-
         /*Passing extra param*/
         HashMap<String,String> extras=new HashMap<>();
         extras.put("id_key","id_value");
-        request.setPaymentExtraParam(extras);
+
+        PaymentRequest request=new PaymentRequest.Builder()
+                /*For mobile (tigopesa) merchant credentials */
+                .setTigoMerchantKey("")
+                .setTigoMerchantSecret("")
+                .setTigoMerchantPin("")
+                .setTigoMerchantNumber("")
+                .setTigoMerchantName("")
+
+                /*For mobile (mpesa) merchant credentials */
+                .setWazoHubClientID("")
+                .setWazoHubClientSecret("")
+
+                /*For card merchant credentials */
+                .setCardMerchantKey("")
+                .setCardMerchantSecret("")
+
+                /*Customer details*/
+                .setCustomerEmailAddress("info@furahitech.co.tz")
+                .setCustomerFirstName("Furahitech")
+                .setCustomerLastName("Studio")
+
+                /*Transaction other details*/
+                .setTransactionAmount(100)
+                .setTransactionFee(0)
+                .setPaymentDesc("Payment for demonstration")
+
+                /*HTTP request endPoints*/
+                .setPaymentRequestEndPoint("")
+                .setPaymentLogsEndPoint("")
+                .setPaymentExtraParam(extras)
+                .build();
 
         FurahitechPay.getInstance()
                 .with(this)
@@ -76,7 +75,7 @@ public class ActivityExample extends AppCompatActivity {
         if(resultCode==RESULT_OK){
             switch (requestCode){
                 case REQUEST_CODE_PAYMENT_STATUS:
-                    PaymentStatus status= (PaymentStatus) data.getSerializableExtra(RESULT_PAYMENT_STATUS);
+                    PaymentStatus status= FurahitechPay.getPaymentStatus(data);
                     Log.d("TAG",String.valueOf(status.isPaidSuccessfully()));
                     break;
             }
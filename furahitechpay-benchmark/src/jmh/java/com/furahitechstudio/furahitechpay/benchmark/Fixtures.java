@@ -0,0 +1,76 @@
+package com.furahitechstudio.furahitechpay.benchmark;
+
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>Fixtures</h1>
+ * <p>
+ *     Fixtures holds payment request and server responses shared by benchmarks, values are shaped like production traffic.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+final class Fixtures {
+
+    static final String STRIPE_JSON ="{\"status\":\"succeeded\",\"reason\":null,\"risk\":\"normal\","
+            +"\"message\":\"Payment complete.\",\"type\":\"authorized\",\"paid\":true,\"id\":\"ch_1BxKp2LkdIwHu7ixK0eO3Vrn\","
+            +"\"card\":\"Visa\",\"amount\":1250000,\"created\":1519045586,\"country\":\"TZ\"}";
+
+    static final String WAZOHUB_AUTH_JSON ="{\"token_type\":\"Bearer\",\"expires_in\":3600,"
+            +"\"access_token\":\"eyJ0eXAiOiJKV1QiLCJhbGciOiJSUzI1NiJ9.eyJhdWQiOiIzIiwianRpIjoiNGE3ZTQ2\"}";
+
+    static final String WAZOHUB_TRANSACTION_JSON ="{\"uid\":\"2f4c1a9e-6b1d-4c2e-9f3a-8d7e5b6a4c21\",\"code\":\"0\","
+            +"\"desc\":\"Request processed successfully\",\"extra\":{\"redirectUri\":\"https://secure.tigo.co.tz/v1/payment/2f4c1a9e\"}}";
+
+    static final String PARTIAL_JSON ="{\"status\":\"RECEIVED\",\"refId\":\"A7K2M9Q4X1ZP\",\"refUID\":\"2f4c1a9e-6b1d-4c2e-9f3a-8d7e5b6a4c21\","
+            +"\"logged_timestamp\":\"1519045586\",\"callback\":\"received\",\"callback_timestamp\":\"1519045611\"}";
+
+    private Fixtures(){}
+
+    static PaymentRequest paymentRequest(){
+        return new PaymentRequest.Builder()
+                .setTransactionID("A7K2M9Q4X1ZP")
+                .setTransactionAmount(12500)
+                .setTransactionTax(180)
+                .setTransactionFee(250)
+                .setDefaultCurrency("TZS")
+                .setDefaultLanguage("en")
+                .setDefaultCountryCode("TZ")
+                .setDefaultCountryName("Tanzania")
+                .setCustomerPhone("754321987")
+                .setCustomerFirstName("Amani")
+                .setCustomerLastName("Mushi")
+                .setCustomerEmailAddress("amani.mushi@example.com")
+                .setPaymentDesc("Order #10023")
+                .setCardMerchantSecret("sk_test_4eC39HqLyjWDarjtT1zdp7dc")
+                .setTigoMerchantKey("tigo-merchant-key")
+                .setTigoMerchantSecret("tigo-merchant-secret")
+                .setTigoMerchantName("furahitech")
+                .setTigoMerchantNumber("255713000000")
+                .setTigoMerchantPin("1234")
+                .setWazoHubClientID("wazo-client-id")
+                .setWazoHubClientSecret("wazo-client-secret")
+                .setPaymentRequestEndPoint("https://pay.example.com/")
+                .setPaymentLogsEndPoint("https://logs.example.com/")
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package com.furahitechstudio.furahitechpay.benchmark;
+
+import com.furahitechstudio.furahitechpay.logging.FurahitechLogger;
+import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.utils.Furahitech;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_NONE;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.formatPrice;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.generateRefCode;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getCardPayment;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getPartialLogData;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getPaymentMNO;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getTigoPesaParam;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getWazoPushParam;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechUtilsBenchmark</h1>
+ * <p>
+ *     FurahitechUtilsBenchmark measures helpers which run on every payment: reference code generation,
+ *     MNO detection, price formatting and request parameter building.
+ *     Request parameters are cached on the immutable PaymentRequest, so parameter benchmarks build a fresh request
+ *     and read its parameters once, which is what every payment pays.
+ *     Every benchmark runs with logging off and with debug logging to show what logging adds to the path.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+@State(Scope.Thread)
+public class FurahitechUtilsBenchmark {
+
+    private static final String [] PHONES ={"712345678","754321987","653219876","769876543","687654321","621234567"};
+
+    @Param({"OFF","DEBUG"})
+    public String logLevel;
+
+    private PaymentRequest paymentRequest;
+
+    private PaymentRequest.Builder requestBuilder;
+
+    private ModelWazoHub.TransactionResponse transactionResponse;
+
+    private int phoneIndex;
+
+    @Setup
+    public void setUp(){
+        FurahitechLogger.getInstance().setLevel(FurahitechLogger.Level.valueOf(logLevel));
+        paymentRequest=Fixtures.paymentRequest();
+        requestBuilder=paymentRequest.toBuilder();
+        transactionResponse=new Gson().fromJson(Fixtures.WAZOHUB_TRANSACTION_JSON,ModelWazoHub.TransactionResponse.class);
+    }
+
+    @Benchmark
+    public String generateReferenceCode(){
+        return generateRefCode(null,GATEWAY_NONE);
+    }
+
+    @Benchmark
+    public Furahitech.PaymentConstant detectPaymentMNO(){
+        phoneIndex=(phoneIndex+1)%PHONES.length;
+        return getPaymentMNO(PHONES[phoneIndex]);
+    }
+
+    @Benchmark
+    public String formatPaymentPrice(){
+        return formatPrice(paymentRequest.getTransactionAmount(),paymentRequest.getDefaultCurrency());
+    }
+
+    @Benchmark
+    public Map<String,String> buildCardPaymentParam(){
+        return getCardPayment(requestBuilder.build());
+    }
+
+    @Benchmark
+    public Map<String,String> buildTigoPesaParam(){
+        return getTigoPesaParam(requestBuilder.build(),Furahitech.PaymentEnvironment.SANDBOX);
+    }
+
+    @Benchmark
+    public Map<String,String> buildWazoPushParam(){
+        return getWazoPushParam(GATEWAY_MPESA,requestBuilder.build());
+    }
+
+    @Benchmark
+    public HashMap<String,String> buildPartialLogData(){
+        return getPartialLogData(GATEWAY_MPESA,paymentRequest,transactionResponse);
+    }
+}
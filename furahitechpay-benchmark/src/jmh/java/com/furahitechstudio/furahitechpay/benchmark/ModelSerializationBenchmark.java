@@ -0,0 +1,94 @@
+package com.furahitechstudio.furahitechpay.benchmark;
+
+import com.furahitechstudio.furahitechpay.models.ModelPartial;
+import com.furahitechstudio.furahitechpay.models.ModelStripe;
+import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
+import com.google.gson.Gson;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>ModelSerializationBenchmark</h1>
+ * <p>
+ *     ModelSerializationBenchmark measures Gson conversion of server responses the way the shared converter does it,
+ *     one Gson instance is reused across all conversions.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+@State(Scope.Benchmark)
+public class ModelSerializationBenchmark {
+
+    private Gson gson;
+
+    private ModelStripe stripe;
+
+    private ModelWazoHub.TransactionResponse transactionResponse;
+
+    private ModelPartial partial;
+
+    @Setup
+    public void setUp(){
+        gson=new Gson();
+        stripe=gson.fromJson(Fixtures.STRIPE_JSON,ModelStripe.class);
+        transactionResponse=gson.fromJson(Fixtures.WAZOHUB_TRANSACTION_JSON,ModelWazoHub.TransactionResponse.class);
+        partial=gson.fromJson(Fixtures.PARTIAL_JSON,ModelPartial.class);
+    }
+
+    @Benchmark
+    public ModelStripe readStripe(){
+        return gson.fromJson(Fixtures.STRIPE_JSON,ModelStripe.class);
+    }
+
+    @Benchmark
+    public String writeStripe(){
+        return gson.toJson(stripe);
+    }
+
+    @Benchmark
+    public ModelWazoHub.AuthenticationResponse readWazoHubAuth(){
+        return gson.fromJson(Fixtures.WAZOHUB_AUTH_JSON,ModelWazoHub.AuthenticationResponse.class);
+    }
+
+    @Benchmark
+    public ModelWazoHub.TransactionResponse readWazoHubTransaction(){
+        return gson.fromJson(Fixtures.WAZOHUB_TRANSACTION_JSON,ModelWazoHub.TransactionResponse.class);
+    }
+
+    @Benchmark
+    public String writeWazoHubTransaction(){
+        return gson.toJson(transactionResponse);
+    }
+
+    @Benchmark
+    public ModelPartial readPartial(){
+        return gson.fromJson(Fixtures.PARTIAL_JSON,ModelPartial.class);
+    }
+
+    @Benchmark
+    public String writePartial(){
+        return gson.toJson(partial);
+    }
+}
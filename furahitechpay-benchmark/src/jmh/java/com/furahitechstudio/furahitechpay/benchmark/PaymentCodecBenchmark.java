@@ -0,0 +1,139 @@
+package com.furahitechstudio.furahitechpay.benchmark;
+
+import com.furahitechstudio.furahitechpay.models.PaymentCodec;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.models.PaymentStatus;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>PaymentCodecBenchmark</h1>
+ * <p>
+ *     PaymentCodecBenchmark compares PaymentCodec with Java serialization for payment request and payment status,
+ *     which are passed between screens on every payment. Encoded size of both formats is printed on setup.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+@State(Scope.Benchmark)
+public class PaymentCodecBenchmark {
+
+    private PaymentRequest paymentRequest;
+
+    private PaymentStatus paymentStatus;
+
+    private byte[] encodedRequest, serializedRequest, encodedStatus, serializedStatus;
+
+    @Setup
+    public void setUp() throws IOException {
+        HashMap<String,String> extraParam=new HashMap<>();
+        extraParam.put("orderId","10023");
+        extraParam.put("channel","mobile-app");
+        paymentRequest=Fixtures.paymentRequest().toBuilder().setPaymentExtraParam(extraParam).build();
+
+        paymentStatus=new PaymentStatus();
+        paymentStatus.setPaymentRefId(paymentRequest.getTransactionID());
+        paymentStatus.setPaymentCustomerId(paymentRequest.getCustomerEmailAddress());
+        paymentStatus.setPaymentRiskLevel("normal");
+        paymentStatus.setPaymentGateWay("GATEWAY_MPESA");
+        paymentStatus.setPaymentAmount(12930);
+        paymentStatus.setPaymentTimeStamp(1519045611);
+        paymentStatus.setPaymentStatus(STATUS_SUCCESS);
+        paymentStatus.setPaymentExtraParam(extraParam);
+
+        encodedRequest=PaymentCodec.encode(paymentRequest);
+        serializedRequest=serialize(paymentRequest);
+        encodedStatus=PaymentCodec.encode(paymentStatus);
+        serializedStatus=serialize(paymentStatus);
+        System.out.println("PaymentRequest: codec "+encodedRequest.length+" bytes, serialization "+serializedRequest.length+" bytes");
+        System.out.println("PaymentStatus: codec "+encodedStatus.length+" bytes, serialization "+serializedStatus.length+" bytes");
+    }
+
+    @Benchmark
+    public byte[] encodeRequest(){
+        return PaymentCodec.encode(paymentRequest);
+    }
+
+    @Benchmark
+    public PaymentRequest decodeRequest(){
+        return PaymentCodec.decodePaymentRequest(encodedRequest);
+    }
+
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return serialize(paymentRequest);
+    }
+
+    @Benchmark
+    public Object deserializeRequest() throws IOException, ClassNotFoundException {
+        return deserialize(serializedRequest);
+    }
+
+    @Benchmark
+    public byte[] encodeStatus(){
+        return PaymentCodec.encode(paymentStatus);
+    }
+
+    @Benchmark
+    public PaymentStatus decodeStatus(){
+        return PaymentCodec.decodePaymentStatus(encodedStatus);
+    }
+
+    @Benchmark
+    public byte[] serializeStatus() throws IOException {
+        return serialize(paymentStatus);
+    }
+
+    @Benchmark
+    public Object deserializeStatus() throws IOException, ClassNotFoundException {
+        return deserialize(serializedStatus);
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes=new ByteArrayOutputStream(512);
+        ObjectOutputStream output=new ObjectOutputStream(bytes);
+        output.writeObject(value);
+        output.close();
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] data) throws IOException, ClassNotFoundException {
+        ObjectInputStream input=new ObjectInputStream(new ByteArrayInputStream(data));
+        try{
+            return input.readObject();
+        }finally {
+            input.close();
+        }
+    }
+}
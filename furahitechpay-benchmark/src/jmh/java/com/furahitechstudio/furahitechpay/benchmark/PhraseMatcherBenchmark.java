@@ -0,0 +1,91 @@
+package com.furahitechstudio.furahitechpay.benchmark;
+
+import com.furahitechstudio.furahitechpay.utils.Furahitech;
+import com.furahitechstudio.furahitechpay.utils.PhraseMatcher;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_FAILURE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>PhraseMatcherBenchmark</h1>
+ * <p>
+ *     PhraseMatcherBenchmark measures outcome detection of the Tigo Pesa secure page, which runs on every page load.
+ *     Lowercase and contains check of every phrase is compared with a single pass of PhraseMatcher.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+@State(Scope.Thread)
+public class PhraseMatcherBenchmark {
+
+    private static final String [] SUCCESS_PHRASES ={"Muamala umefanikiwa","Transaction processed successfully"};
+
+    private static final String [] FAILURE_PHRASES ={"Muamala Haujaruhusiwa","Huduma ya malipo haipatikani","Has not been",
+            "Haujaruhusiwa","Akaunti yako ya tigo Pesa haipo","Muamala wako umekwisha muda wake","Huna salio la kutosha",
+            "Your session will be terminated shortly"};
+
+    @Param({"16","256"})
+    public int pageKiloBytes;
+
+    private String html;
+
+    private PhraseMatcher<Furahitech.PaymentConstant> matcher;
+
+    @Setup
+    public void setUp(){
+        StringBuilder page=new StringBuilder("<head><body><form id=\"tigo-pay\">");
+        while(page.length()<pageKiloBytes*1024){
+            page.append("<div class=\"row\"><span>Weka namba yako ya siri ili kulipia muamala</span></div>");
+        }
+        html=page.append("<p>").append(FAILURE_PHRASES[FAILURE_PHRASES.length-1]).append("</p></form></body></head>").toString();
+        matcher=PhraseMatcher.<Furahitech.PaymentConstant>builder()
+                .add(STATUS_SUCCESS,SUCCESS_PHRASES)
+                .add(STATUS_FAILURE,FAILURE_PHRASES)
+                .build();
+    }
+
+    @Benchmark
+    public Furahitech.PaymentConstant lowerCaseContains(){
+        for(String phrase:SUCCESS_PHRASES){
+            if(html.toLowerCase().contains(phrase.toLowerCase())){
+                return STATUS_SUCCESS;
+            }
+        }
+        for(String phrase:FAILURE_PHRASES){
+            if(html.toLowerCase().contains(phrase.toLowerCase())){
+                return STATUS_FAILURE;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Furahitech.PaymentConstant phraseMatcher(){
+        return matcher.match(html);
+    }
+}
@@ -0,0 +1,243 @@
+package com.furahitechstudio.furahitechpay.async;
+
+import com.furahitechstudio.furahitechpay.listeners.CallBackListener;
+import com.furahitechstudio.furahitechpay.listeners.FurahitechBaseListener;
+import com.furahitechstudio.furahitechpay.listeners.PartialLogListener;
+import com.furahitechstudio.furahitechpay.listeners.PushMenuListener;
+import com.furahitechstudio.furahitechpay.listeners.RedirectionListener;
+import com.furahitechstudio.furahitechpay.listeners.TokenListener;
+import com.furahitechstudio.furahitechpay.models.ModelPartial;
+import com.furahitechstudio.furahitechpay.models.ModelTigoPesa;
+import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.models.PaymentStatus;
+import com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall;
+import com.furahitechstudio.furahitechpay.sessions.PaymentSession;
+import com.furahitechstudio.furahitechpay.utils.FurahitechException;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallbackState.STATE_RECEIVED;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>FurahitechAsyncCall</h1>
+ * <p>
+ *     FurahitechAsyncCall exposes network calls of FurahitechNetworkCall as FurahitechFuture so that payment steps can be
+ *     composed, bounded by timeouts and run at the same time, i.e
+ *     <pre>
+ *     FurahitechAsyncCall.requestToken(request,scope,GATEWAY_MPESA).then(...).withTimeout(30000)
+ *     </pre>
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechFuture
+ */
+public class FurahitechAsyncCall {
+
+    /**
+     * Session results are handled on the thread which delivers them
+     */
+    private static final Executor directExecutor =new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private FurahitechAsyncCall(){}
+
+    /**
+     * Responsible for requesting WazoHub authentication token
+     * @param paymentRequest Payment request with WazoHub credentials
+     * @param wazoScope WazoHub scope
+     * @param gateway Gateway type (GATEWAY_MPESA)
+     * @return FurahitechFuture of authentication response
+     */
+    public static FurahitechFuture<ModelWazoHub.AuthenticationResponse> requestToken(PaymentRequest paymentRequest, String wazoScope, Enum gateway){
+        final FurahitechFuture<ModelWazoHub.AuthenticationResponse> future=new FurahitechFuture<>();
+        FurahitechNetworkCall.initiateWazoHubPayments(paymentRequest, wazoScope, gateway, new TokenListener() {
+            @Override
+            public void onTokenReceived(ModelWazoHub.AuthenticationResponse response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onFailed() {
+                future.fail(new FurahitechException("Authentication token request failed",null));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Responsible for sending push menu request to the customer
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway type (GATEWAY_MPESA)
+     * @param authToken WazoHub authentication token
+     * @return FurahitechFuture of transaction response
+     */
+    public static FurahitechFuture<ModelWazoHub.TransactionResponse> push(PaymentRequest paymentRequest, Enum gateway, String authToken){
+        final FurahitechFuture<ModelWazoHub.TransactionResponse> future=new FurahitechFuture<>();
+        FurahitechNetworkCall.payWithWazoHub(paymentRequest, gateway, authToken, new PushMenuListener() {
+            @Override
+            public void onPushInitiated(ModelWazoHub.TransactionResponse response) {
+                future.complete(response);
+            }
+
+            @Override
+            public void onPushFailed() {
+                future.fail(new FurahitechException("Push menu request failed",null));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Responsible for logging partial payment to own server
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway type (GATEWAY_MPESA)
+     * @param transaction Transaction response from WazoHub
+     * @return FurahitechFuture of log state
+     */
+    public static FurahitechFuture<Boolean> logPartialPayment(PaymentRequest paymentRequest, Enum gateway, ModelWazoHub.TransactionResponse transaction){
+        final FurahitechFuture<Boolean> future=new FurahitechFuture<>();
+        FurahitechNetworkCall.logPartialPaymentForCallback(paymentRequest, gateway, transaction, new PartialLogListener() {
+            @Override
+            public void onPartialPaymentLogged(boolean isLogged) {
+                future.complete(isLogged);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Responsible for waiting callback of the transaction, session is cancelled when the future is cancelled.
+     * Session deadline completes the future with TIMEOUT status.
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway type (GATEWAY_MPESA)
+     * @param transactionUUID Transaction UUID as received from aggregator
+     * @return FurahitechFuture of received callback
+     */
+    public static FurahitechFuture<ModelPartial> awaitCallback(PaymentRequest paymentRequest, Enum gateway, String transactionUUID){
+        final FurahitechFuture<ModelPartial> future=new FurahitechFuture<>();
+        final PaymentSession session=new PaymentSession(paymentRequest, gateway, transactionUUID, new CallBackListener() {
+            @Override
+            public void onReceived(boolean isSuccess, ModelPartial partialCheck) {
+                if(isSuccess && partialCheck!=null && STATE_RECEIVED.equalsIgnoreCase(partialCheck.getCallback())){
+                    future.complete(partialCheck);
+                }
+            }
+        }, directExecutor);
+        future.addCallback(new FurahitechFuture.Callback<ModelPartial>() {
+            @Override
+            public void onSuccess(ModelPartial result) {
+                session.cancel();
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                session.cancel();
+            }
+        });
+        if(!future.isDone()){
+            session.start();
+            if(future.isDone()){
+                //Cancelled while the session was starting
+                session.cancel();
+            }
+        }
+        return future;
+    }
+
+    /**
+     * Responsible for running WazoHub payment: token, push menu and callback. Partial log and callback waiting run
+     * at the same time so the first status check isn't delayed by the log.
+     * @param paymentRequest Payment request of the transaction
+     * @param wazoScope WazoHub scope
+     * @param gateway Gateway type (GATEWAY_MPESA)
+     * @return FurahitechFuture of received callback
+     */
+    public static FurahitechFuture<ModelPartial> payWithWazoHub(final PaymentRequest paymentRequest, String wazoScope, final Enum gateway){
+        return requestToken(paymentRequest, wazoScope, gateway)
+                .then(new FurahitechFuture.Continuation<ModelWazoHub.AuthenticationResponse, ModelWazoHub.TransactionResponse>() {
+                    @Override
+                    public FurahitechFuture<ModelWazoHub.TransactionResponse> then(ModelWazoHub.AuthenticationResponse token) {
+                        return push(paymentRequest, gateway, token.getAccess_token());
+                    }
+                })
+                .then(new FurahitechFuture.Continuation<ModelWazoHub.TransactionResponse, List<Object>>() {
+                    @Override
+                    public FurahitechFuture<List<Object>> then(ModelWazoHub.TransactionResponse transaction) {
+                        return FurahitechFuture.all(awaitCallback(paymentRequest, gateway, transaction.getUid()),
+                                logPartialPayment(paymentRequest, gateway, transaction));
+                    }
+                })
+                .map(new FurahitechFuture.Transformation<List<Object>, ModelPartial>() {
+                    @Override
+                    public ModelPartial apply(List<Object> results) {
+                        return (ModelPartial) results.get(0);
+                    }
+                });
+    }
+
+    /**
+     * Responsible for paying with card
+     * @param paymentRequest Payment request of the transaction
+     * @return FurahitechFuture of payment status
+     */
+    public static FurahitechFuture<PaymentStatus> payWithCard(PaymentRequest paymentRequest){
+        final FurahitechFuture<PaymentStatus> future=new FurahitechFuture<>();
+        FurahitechNetworkCall.payWithCard(paymentRequest, new FurahitechBaseListener() {
+            @Override
+            public void onPaymentCompleted(PaymentStatus status) {
+                future.complete(status);
+            }
+
+            @Override
+            public void onPaymentFailed() {
+                future.fail(new FurahitechException("Card payment failed",null));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Responsible for requesting TigoPesa redirection
+     * @param paymentRequest Payment request of the transaction
+     * @return FurahitechFuture of redirection
+     */
+    public static FurahitechFuture<ModelTigoPesa> payWithTigoPesa(PaymentRequest paymentRequest){
+        final FurahitechFuture<ModelTigoPesa> future=new FurahitechFuture<>();
+        FurahitechNetworkCall.payWithTigoPesa(paymentRequest, new RedirectionListener() {
+            @Override
+            public void onRedirection(ModelTigoPesa redirection) {
+                if(redirection!=null){
+                    future.complete(redirection);
+                }else{
+                    future.fail(new FurahitechException("TigoPesa redirection request failed",null));
+                }
+            }
+        });
+        return future;
+    }
+}
@@ -0,0 +1,412 @@
+package com.furahitechstudio.furahitechpay.async;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>FurahitechFuture</h1>
+ * <p>
+ *     FurahitechFuture is result of an asynchronous payment step which can be chained with the next step, transformed,
+ *     bounded by a timeout and combined with steps running at the same time. Callbacks run on the thread which completes
+ *     the future or on the calling thread when the future is already done. Cancelling a future cancels the step behind it.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechAsyncCall
+ */
+public class FurahitechFuture<T> implements Future<T> {
+
+    /**
+     * Listener of future result
+     */
+    public interface Callback<T>{
+        void onSuccess(T result);
+        void onFailure(Throwable error);
+    }
+
+    /**
+     * Next step which is started with the result of the previous one
+     */
+    public interface Continuation<T,R>{
+        FurahitechFuture<R> then(T result) throws Exception;
+    }
+
+    /**
+     * Conversion of a result
+     */
+    public interface Transformation<T,R>{
+        R apply(T result) throws Exception;
+    }
+
+    private static final int PENDING =0, SUCCEEDED =1, FAILED =2, CANCELLED =3;
+
+    private static ScheduledExecutorService timer;
+
+    private final CountDownLatch doneLatch =new CountDownLatch(1);
+    private final List<Callback<? super T>> callbacks =new ArrayList<>();
+    private final List<Runnable> cancelActions =new ArrayList<>();
+    private int state =PENDING;
+    private T result;
+    private Throwable error;
+
+    /**
+     * Get future which is already completed
+     * @param result Result
+     * @return FurahitechFuture object
+     */
+    public static <T> FurahitechFuture<T> completed(T result){
+        FurahitechFuture<T> future=new FurahitechFuture<>();
+        future.complete(result);
+        return future;
+    }
+
+    /**
+     * Get future which has already failed
+     * @param error Failure cause
+     * @return FurahitechFuture object
+     */
+    public static <T> FurahitechFuture<T> failed(Throwable error){
+        FurahitechFuture<T> future=new FurahitechFuture<>();
+        future.fail(error);
+        return future;
+    }
+
+    /**
+     * Responsible for completing future with result
+     * @param result Result
+     * @return boolean: TRUE when completed, FALSE when future was already done
+     */
+    public boolean complete(T result){
+        List<Callback<? super T>> listeners;
+        synchronized (this){
+            if(state!=PENDING){
+                return false;
+            }
+            this.result=result;
+            state=SUCCEEDED;
+            listeners=drainCallbacks();
+        }
+        for(Callback<? super T> callback:listeners){
+            callback.onSuccess(result);
+        }
+        return true;
+    }
+
+    /**
+     * Responsible for completing future with failure
+     * @param error Failure cause
+     * @return boolean: TRUE when completed, FALSE when future was already done
+     */
+    public boolean fail(Throwable error){
+        return finish(FAILED,error);
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return finish(CANCELLED,new CancellationException("Payment step cancelled"));
+    }
+
+    private boolean finish(int finalState, Throwable cause){
+        List<Callback<? super T>> listeners;
+        List<Runnable> actions=Collections.emptyList();
+        synchronized (this){
+            if(state!=PENDING){
+                return false;
+            }
+            this.error=cause;
+            state=finalState;
+            if(finalState==CANCELLED){
+                actions=new ArrayList<>(cancelActions);
+            }
+            listeners=drainCallbacks();
+        }
+        for(Runnable action:actions){
+            action.run();
+        }
+        for(Callback<? super T> callback:listeners){
+            callback.onFailure(cause);
+        }
+        return true;
+    }
+
+    private List<Callback<? super T>> drainCallbacks(){
+        List<Callback<? super T>> listeners=new ArrayList<>(callbacks);
+        callbacks.clear();
+        cancelActions.clear();
+        doneLatch.countDown();
+        return listeners;
+    }
+
+    /**
+     * Responsible for adding result listener
+     * @param callback Result listener
+     * @return FurahitechFuture object
+     */
+    public FurahitechFuture<T> addCallback(Callback<? super T> callback){
+        int currentState;
+        synchronized (this){
+            currentState=state;
+            if(currentState==PENDING){
+                callbacks.add(callback);
+                return this;
+            }
+        }
+        if(currentState==SUCCEEDED){
+            callback.onSuccess(result);
+        }else{
+            callback.onFailure(error);
+        }
+        return this;
+    }
+
+    /**
+     * Responsible for adding action which stops the work behind this future once it is cancelled
+     * @param action Cancel action
+     * @return FurahitechFuture object
+     */
+    public FurahitechFuture<T> whenCancelled(Runnable action){
+        boolean isCancelled;
+        synchronized (this){
+            isCancelled=state==CANCELLED;
+            if(state==PENDING){
+                cancelActions.add(action);
+            }
+        }
+        if(isCancelled){
+            action.run();
+        }
+        return this;
+    }
+
+    /**
+     * Responsible for starting next step once this one succeeds, failure is passed on without starting it
+     * @param continuation Next step
+     * @return FurahitechFuture of the next step
+     */
+    public <R> FurahitechFuture<R> then(final Continuation<? super T,R> continuation){
+        final FurahitechFuture<R> next=new FurahitechFuture<>();
+        next.whenCancelled(cancelAction(this));
+        addCallback(new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                try{
+                    FurahitechFuture<R> step=continuation.then(value);
+                    next.whenCancelled(cancelAction(step));
+                    step.addCallback(forwardTo(next));
+                }catch (Exception e){
+                    next.fail(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+                next.fail(cause);
+            }
+        });
+        return next;
+    }
+
+    /**
+     * Responsible for converting result once this step succeeds
+     * @param transformation Result conversion
+     * @return FurahitechFuture of converted result
+     */
+    public <R> FurahitechFuture<R> map(final Transformation<? super T,? extends R> transformation){
+        final FurahitechFuture<R> next=new FurahitechFuture<>();
+        next.whenCancelled(cancelAction(this));
+        addCallback(new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                R converted;
+                try{
+                    converted=transformation.apply(value);
+                }catch (Exception e){
+                    next.fail(e);
+                    return;
+                }
+                next.complete(converted);
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+                next.fail(cause);
+            }
+        });
+        return next;
+    }
+
+    /**
+     * Responsible for failing with TimeoutException when this step isn't done in time, the step is cancelled
+     * @param timeout Timeout in milliseconds
+     * @return FurahitechFuture object bounded by the timeout
+     */
+    public FurahitechFuture<T> withTimeout(final long timeout){
+        final FurahitechFuture<T> bounded=new FurahitechFuture<>();
+        bounded.whenCancelled(cancelAction(this));
+        final ScheduledFuture<?> timeoutTask=getTimer().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if(bounded.fail(new TimeoutException("Payment step timed out after "+timeout+"ms"))){
+                    cancel(false);
+                }
+            }
+        },timeout,TimeUnit.MILLISECONDS);
+        addCallback(new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                timeoutTask.cancel(false);
+                bounded.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+                timeoutTask.cancel(false);
+                bounded.fail(cause);
+            }
+        });
+        return bounded;
+    }
+
+    /**
+     * Get future which succeeds when all steps succeed, first failure fails it and cancels the other steps
+     * @param futures Steps running at the same time
+     * @return FurahitechFuture of results in the order of steps
+     */
+    public static FurahitechFuture<List<Object>> all(final FurahitechFuture<?>... futures){
+        final FurahitechFuture<List<Object>> combined=new FurahitechFuture<>();
+        final Object [] results=new Object[futures.length];
+        final AtomicInteger remaining=new AtomicInteger(futures.length);
+        if(futures.length==0){
+            combined.complete(Collections.emptyList());
+            return combined;
+        }
+        for(FurahitechFuture<?> future:futures){
+            combined.whenCancelled(cancelAction(future));
+        }
+        for(int index=0;index<futures.length;index++){
+            final int position=index;
+            futures[index].addCallback(new Callback<Object>() {
+                @Override
+                public void onSuccess(Object value) {
+                    results[position]=value;
+                    if(remaining.decrementAndGet()==0){
+                        combined.complete(Collections.unmodifiableList(Arrays.asList(results)));
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable cause) {
+                    if(combined.fail(cause)){
+                        for(FurahitechFuture<?> other:futures){
+                            other.cancel(false);
+                        }
+                    }
+                }
+            });
+        }
+        return combined;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return state==CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return state!=PENDING;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        doneLatch.await();
+        return getResult();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if(!doneLatch.await(timeout,unit)){
+            throw new TimeoutException("Payment step is not done after "+unit.toMillis(timeout)+"ms");
+        }
+        return getResult();
+    }
+
+    private synchronized T getResult() throws ExecutionException {
+        if(state==CANCELLED){
+            throw (CancellationException) error;
+        }
+        if(state==FAILED){
+            throw new ExecutionException(error);
+        }
+        return result;
+    }
+
+    private static <T> Callback<T> forwardTo(final FurahitechFuture<T> target){
+        return new Callback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                target.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable cause) {
+                target.fail(cause);
+            }
+        };
+    }
+
+    private static Runnable cancelAction(final FurahitechFuture<?> future){
+        return new Runnable() {
+            @Override
+            public void run() {
+                future.cancel(false);
+            }
+        };
+    }
+
+    private static synchronized ScheduledExecutorService getTimer(){
+        if(timer==null){
+            timer=Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread=new Thread(runnable,"FurahitechPay Future Timer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,320 @@
+package com.furahitechstudio.furahitechpay.bulk;
+
+import com.furahitechstudio.furahitechpay.async.FurahitechAsyncCall;
+import com.furahitechstudio.furahitechpay.async.FurahitechFuture;
+import com.furahitechstudio.furahitechpay.listeners.BulkPaymentListener;
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
+import com.furahitechstudio.furahitechpay.models.ModelPartial;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.models.PaymentStatus;
+import com.furahitechstudio.furahitechpay.networks.FurahitechTimeouts;
+import com.furahitechstudio.furahitechpay.tracing.FurahitechTracer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallBackStatus.RECEIVED;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallBackStatus.TIMEOUT;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_STRIPE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_CANCELLED;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_FAILURE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_TIMEOUT;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>BulkPaymentHandle</h1>
+ * <p>
+ *     BulkPaymentHandle runs payments of a bulk submission and tracks their results. Payments are started on a background
+ *     thread which waits for a free slot and for the gateway rate limit before starting the next one, so the aggregator
+ *     never sees more than the configured number of payments at a time.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechBulkPayment
+ */
+public class BulkPaymentHandle {
+
+    private static final AtomicInteger threadCount=new AtomicInteger();
+
+    private final Enum gateway;
+    private final String wazoScope;
+    private final List<PaymentRequest> requests;
+    private final PaymentStatus [] statuses;
+    private final BulkPaymentListener listener;
+    private final Semaphore slots;
+    private final CountDownLatch completed;
+    private final AtomicInteger completedCount=new AtomicInteger();
+    private final Set<BulkItem> inFlight=Collections.newSetFromMap(new ConcurrentHashMap<BulkItem,Boolean>());
+    private final Thread dispatcher;
+    private volatile boolean cancelled=false;
+
+    BulkPaymentHandle(Enum gateway, String wazoScope, List<PaymentRequest> requests, int maxConcurrentPayments, BulkPaymentListener listener){
+        this.gateway=gateway;
+        this.wazoScope=wazoScope;
+        this.requests=requests;
+        this.statuses=new PaymentStatus[requests.size()];
+        this.listener=listener;
+        this.slots=new Semaphore(maxConcurrentPayments);
+        this.completed=new CountDownLatch(requests.size());
+        this.dispatcher=new Thread(new Runnable() {
+            @Override
+            public void run() {
+                dispatch();
+            }
+        },"FurahitechPay Bulk-"+threadCount.incrementAndGet());
+        this.dispatcher.setDaemon(true);
+    }
+
+    void start(){
+        if(requests.isEmpty()){
+            listener.onBulkCompleted(Collections.<PaymentStatus>emptyList());
+            return;
+        }
+        dispatcher.start();
+    }
+
+    private void dispatch(){
+        for(int index=0;index<requests.size();index++){
+            BulkItem item=new BulkItem(index,requests.get(index));
+            if(cancelled || !acquireSlot()){
+                complete(item,statusOf(item.request,STATUS_CANCELLED));
+                continue;
+            }
+            item.started=true;
+            inFlight.add(item);
+            if(cancelled){
+                complete(item,statusOf(item.request,STATUS_CANCELLED));
+                continue;
+            }
+            if(gateway==GATEWAY_STRIPE){
+                payWithCard(item);
+            }else{
+                payWithWazoHub(item);
+            }
+        }
+    }
+
+    /**
+     * Wait for a free slot and for the gateway rate limit
+     * @return boolean: TRUE when payment can be started, FALSE when interrupted by cancel
+     */
+    private boolean acquireSlot(){
+        try{
+            slots.acquire();
+            GatewayRateLimiter rateLimiter=FurahitechBulkPayment.getRateLimiter(gateway);
+            if(rateLimiter!=null){
+                try{
+                    rateLimiter.acquire();
+                }catch (InterruptedException e){
+                    slots.release();
+                    throw e;
+                }
+            }
+            return true;
+        }catch (InterruptedException e){
+            return false;
+        }
+    }
+
+    private void payWithCard(final BulkItem item){
+        track(item,FurahitechAsyncCall.payWithCard(item.request), new FurahitechFuture.Callback<PaymentStatus>() {
+            @Override
+            public void onSuccess(PaymentStatus status) {
+                complete(item,status);
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                complete(item,statusOf(item.request,STATUS_FAILURE));
+            }
+        });
+    }
+
+    private void payWithWazoHub(final BulkItem item){
+        track(item,FurahitechAsyncCall.payWithWazoHub(item.request, wazoScope, gateway), new FurahitechFuture.Callback<ModelPartial>() {
+            @Override
+            public void onSuccess(ModelPartial partial) {
+                complete(item,statusOf(item.request,partial));
+            }
+
+            @Override
+            public void onFailure(Throwable error) {
+                complete(item,statusOf(item.request,STATUS_FAILURE));
+            }
+        });
+    }
+
+    private <T> void track(BulkItem item, FurahitechFuture<T> future, FurahitechFuture.Callback<T> callback){
+        item.future=future;
+        future.addCallback(callback);
+        if(item.isDone()){
+            //Cancelled while the payment was starting
+            future.cancel(false);
+        }
+    }
+
+    private void complete(BulkItem item, PaymentStatus status){
+        if(!item.done.compareAndSet(false,true)){
+            return;
+        }
+        statuses[item.index]=status;
+        FurahitechFuture<?> future=item.future;
+        if(future!=null){
+            future.cancel(false);
+        }
+        if(item.started){
+            inFlight.remove(item);
+            slots.release();
+            FurahitechMetrics.getInstance().recordOutcome(gateway,FurahitechMetrics.Outcome.of(status.getPaymentStatus()));
+            FurahitechTracer.getInstance().endTrace(item.request,status.isPaidSuccessfully() ? null:status.getPaymentStatus().name());
+            FurahitechTimeouts.getInstance().endDeadline(item.request);
+        }
+        listener.onPaymentCompleted(item.request,status);
+        if(completedCount.incrementAndGet()==statuses.length){
+            logEvent(false,gateway,"Bulk payment completed: size={}",statuses.length);
+            listener.onBulkCompleted(Collections.unmodifiableList(Arrays.asList(statuses)));
+        }
+        completed.countDown();
+    }
+
+    /**
+     * Responsible for cancelling bulk payment, payments which were not started and payments waiting for callback are
+     * reported as cancelled. Payments already sent to the gateway may still be charged.
+     */
+    public void cancel(){
+        if(cancelled){
+            return;
+        }
+        cancelled=true;
+        dispatcher.interrupt();
+        for(BulkItem item:inFlight){
+            complete(item,statusOf(item.request,STATUS_CANCELLED));
+        }
+    }
+
+    /**
+     * Wait until all payments have completed
+     * @param timeout Maximum time to wait in milliseconds
+     * @return boolean: TRUE when all payments have completed, FALSE when timed out
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public boolean await(long timeout) throws InterruptedException {
+        return completed.await(timeout,TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get payment statuses in submission order
+     * @return List of statuses, null for payments which are still running
+     */
+    public List<PaymentStatus> getStatuses(){
+        return Arrays.asList(statuses.clone());
+    }
+
+    /**
+     * Get number of submitted payments
+     * @return int: bulk size
+     */
+    public int getSize(){
+        return statuses.length;
+    }
+
+    /**
+     * Get number of completed payments
+     * @return int: completed payments
+     */
+    public int getCompletedCount(){
+        return completedCount.get();
+    }
+
+    /**
+     * Get number of payments which are currently in flight
+     * @return int: payments in flight
+     */
+    public int getInFlightCount(){
+        return inFlight.size();
+    }
+
+    /**
+     * Check if all payments have completed
+     * @return boolean: TRUE when completed, FALSE otherwise
+     */
+    public boolean isDone(){
+        return completedCount.get()==statuses.length;
+    }
+
+    public boolean isCancelled(){
+        return cancelled;
+    }
+
+    private PaymentStatus statusOf(PaymentRequest request, ModelPartial partial){
+        PaymentStatus status=statusOf(request,RECEIVED.equals(partial.getStatus()) ? STATUS_SUCCESS
+                :(TIMEOUT.equals(partial.getStatus()) ? STATUS_TIMEOUT:STATUS_FAILURE));
+        status.setPaymentRefId(partial.getRefuid());
+        try{
+            status.setPaymentTimeStamp(Integer.parseInt(partial.getCallbackTimestamp()));
+        }catch (NumberFormatException e){
+            logEvent(true,gateway,"Invalid callback timestamp: {}",partial.getCallbackTimestamp());
+        }
+        return status;
+    }
+
+    private PaymentStatus statusOf(PaymentRequest request, Enum paymentStatus){
+        PaymentStatus status=new PaymentStatus();
+        status.setPaymentAmount(request.getTransactionAmount());
+        status.setPaymentCustomerId(request.getCustomerEmailAddress());
+        status.setPaymentRefId(request.getTransactionID());
+        status.setPaymentStatus(paymentStatus);
+        status.setPaymentTimeStamp((int) (System.currentTimeMillis()/1000));
+        status.setPaymentRiskLevel("normal");
+        status.setPaymentGateWay(gateway==GATEWAY_STRIPE ? "Stripe":"M-Pesa");
+        return status;
+    }
+
+    /**
+     * Payment of the bulk and its progress
+     */
+    private static class BulkItem{
+        private final int index;
+        private final PaymentRequest request;
+        private final AtomicBoolean done=new AtomicBoolean();
+        private volatile boolean started=false;
+        private volatile FurahitechFuture<?> future;
+
+        BulkItem(int index, PaymentRequest request){
+            this.index=index;
+            this.request=request;
+        }
+
+        boolean isDone(){
+            return done.get();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.furahitechstudio.furahitechpay.bulk;
+
+import com.furahitechstudio.furahitechpay.listeners.BulkPaymentListener;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_STRIPE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.WazoScopes.SCOPE_MPESA;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>FurahitechBulkPayment</h1>
+ * <p>
+ *     FurahitechBulkPayment runs many payment requests of one gateway without UI, e.g. collecting subscription renewals.
+ *     At most the configured number of payments are in flight at a time and the next payment is started only when one completes,
+ *     payments to a gateway are started no faster than its rate limit. Auth tokens and connections are shared by all payments.
+ * </p>
+ *
+ * <pre>
+ *     BulkPaymentHandle handle=FurahitechBulkPayment.with(GATEWAY_MPESA)
+ *             .setMaxConcurrentPayments(32)
+ *             .submit(requests, listener);
+ * </pre>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see BulkPaymentHandle
+ * @see GatewayRateLimiter
+ */
+public class FurahitechBulkPayment {
+
+    /**
+     * Default number of payments which are in flight at a time
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_PAYMENTS =16;
+
+    /**
+     * Rate limiters shared by all bulk payments, keyed by gateway
+     */
+    private static final ConcurrentMap<Enum,GatewayRateLimiter> rateLimiters =new ConcurrentHashMap<>();
+
+    private final Enum gateway;
+    private int maxConcurrentPayments =DEFAULT_MAX_CONCURRENT_PAYMENTS;
+    private String wazoScope =SCOPE_MPESA;
+
+    private FurahitechBulkPayment(Enum gateway){
+        this.gateway=gateway;
+    }
+
+    /**
+     * Responsible for creating bulk payment of the gateway
+     * @param gateway Gateway as indicated on PaymentConstant, M-Pesa push and card payments are supported
+     * @return FurahitechBulkPayment object
+     */
+    public static FurahitechBulkPayment with(Enum gateway){
+        if(gateway!=GATEWAY_MPESA && gateway!=GATEWAY_STRIPE){
+            //Tigo Pesa payments are authorized by the customer on the secure page
+            throw new IllegalArgumentException("Bulk payments are not supported on "+gateway);
+        }
+        return new FurahitechBulkPayment(gateway);
+    }
+
+    /**
+     * Responsible for limiting how many payments are started per second on the gateway, limit is shared by all bulk payments
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param permitsPerSecond Payments started per second, no limit when 0 or less
+     */
+    public static void setRateLimit(Enum gateway, double permitsPerSecond){
+        if(permitsPerSecond>0){
+            rateLimiters.put(gateway,new GatewayRateLimiter(permitsPerSecond));
+        }else{
+            rateLimiters.remove(gateway);
+        }
+    }
+
+    /**
+     * Get rate limiter of the gateway
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @return GatewayRateLimiter or null when gateway is not limited
+     */
+    public static GatewayRateLimiter getRateLimiter(Enum gateway){
+        return rateLimiters.get(gateway);
+    }
+
+    /**
+     * Responsible for setting up number of payments which are in flight at a time
+     * @param maxConcurrentPayments Payments in flight
+     * @return FurahitechBulkPayment object
+     */
+    public FurahitechBulkPayment setMaxConcurrentPayments(int maxConcurrentPayments){
+        this.maxConcurrentPayments =Math.max(1,maxConcurrentPayments);
+        return this;
+    }
+
+    /**
+     * Responsible for setting up WazoHub scope used to request auth token
+     * @param wazoScope WazoHub scope, SCOPE_MPESA by default
+     * @return FurahitechBulkPayment object
+     */
+    public FurahitechBulkPayment setWazoScope(String wazoScope){
+        this.wazoScope=wazoScope;
+        return this;
+    }
+
+    /**
+     * Responsible for submitting payment requests, payments are started in the background in submission order
+     * @param requests Payment requests
+     * @param listener Listener of payment results, called on library worker threads
+     * @return BulkPaymentHandle to follow or cancel the bulk payment
+     */
+    public BulkPaymentHandle submit(Collection<PaymentRequest> requests, BulkPaymentListener listener){
+        BulkPaymentHandle handle=new BulkPaymentHandle(gateway,wazoScope,new ArrayList<>(requests),maxConcurrentPayments,listener);
+        logEvent(false,gateway,"Bulk payment: size={}, concurrency={}",requests.size(),maxConcurrentPayments);
+        handle.start();
+        return handle;
+    }
+}
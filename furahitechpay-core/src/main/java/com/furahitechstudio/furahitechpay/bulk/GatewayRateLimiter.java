@@ -0,0 +1,75 @@
+package com.furahitechstudio.furahitechpay.bulk;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>GatewayRateLimiter</h1>
+ * <p>
+ *     GatewayRateLimiter spaces out requests to a gateway so that no more than the configured number of requests
+ *     per second are started, callers which are early wait for their turn.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechBulkPayment
+ */
+public class GatewayRateLimiter {
+
+    private final long interval;
+
+    private long nextPermitAt =System.nanoTime();
+
+    /**
+     * GatewayRateLimiter constructor
+     * @param permitsPerSecond Number of requests allowed per second
+     */
+    public GatewayRateLimiter(double permitsPerSecond){
+        if(permitsPerSecond<=0){
+            throw new IllegalArgumentException("Rate limit must be positive: "+permitsPerSecond);
+        }
+        this.interval=(long) (TimeUnit.SECONDS.toNanos(1)/permitsPerSecond);
+    }
+
+    /**
+     * Wait until the next request is allowed
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        long waitTime;
+        synchronized (this){
+            long now=System.nanoTime();
+            long permitAt=Math.max(now, nextPermitAt);
+            nextPermitAt =permitAt+interval;
+            waitTime=permitAt-now;
+        }
+        if(waitTime>0){
+            TimeUnit.NANOSECONDS.sleep(waitTime);
+        }
+    }
+
+    /**
+     * Get number of requests allowed per second
+     * @return double: requests per second
+     */
+    public double getRate(){
+        return (double) TimeUnit.SECONDS.toNanos(1)/interval;
+    }
+}
@@ -0,0 +1,344 @@
+package com.furahitechstudio.furahitechpay.journal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_NONE;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechJournal</h1>
+ * <p>
+ *     FurahitechJournal is an append-only on-device log of payment state transitions so that a payment
+ *     interrupted by process death can be resumed and reconciled.
+ *     Records are written in compact binary form by a background writer which syncs every batch to disk once,
+ *     payment flow only hands records over and never waits for the disk.
+ *     On open the journal is replayed, torn tail is dropped and the file is compacted to pending payments only.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see JournalRecord
+ */
+public final class FurahitechJournal {
+
+    private static final String JOURNAL_FILE ="furahitechpay.journal", COMPACT_FILE ="furahitechpay.journal.tmp";
+
+    /**
+     * Pending payments older than this are dropped on compaction
+     */
+    private static final long MAX_PENDING_AGE =TimeUnit.DAYS.toMillis(1);
+
+    /**
+     * Records bigger than this are treated as corruption
+     */
+    private static final int MAX_RECORD_SIZE =16*1024;
+
+    private static final FurahitechJournal journal =new FurahitechJournal();
+
+    private final ExecutorService writer;
+
+    private final LinkedBlockingQueue<JournalRecord> pendingWrites =new LinkedBlockingQueue<>();
+
+    private final AtomicBoolean isFlushScheduled =new AtomicBoolean(false);
+
+    /**
+     * Latest state of every payment known to the journal, keyed by journal key
+     */
+    private final Map<String,JournalRecord> payments =new LinkedHashMap<>();
+
+    /**
+     * Guards journal output so that disk sync never blocks payment flow
+     */
+    private final Object writeLock =new Object();
+
+    private File journalFile;
+
+    private FileOutputStream fileOutput;
+
+    private DataOutputStream journalOutput;
+
+    private FurahitechJournal(){
+        writer=new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread=new Thread(runnable,"FurahitechPay Journal");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Get transaction journal as singleton
+     * @return FurahitechJournal object
+     */
+    public static FurahitechJournal getInstance(){
+        return journal;
+    }
+
+    /**
+     * Open journal in the directory, replay its records and compact it. Journal which is already open is kept.
+     * @param directory Directory which holds the journal file (application files directory)
+     */
+    public synchronized void open(File directory){
+        if(journalFile!=null){
+            return;
+        }
+        File file=new File(directory,JOURNAL_FILE);
+        try{
+            payments.clear();
+            replay(file);
+            compact(directory,file);
+            synchronized (writeLock){
+                fileOutput=new FileOutputStream(file,true);
+                journalOutput=new DataOutputStream(new BufferedOutputStream(fileOutput));
+            }
+            journalFile=file;
+            logEvent(false,GATEWAY_NONE,"Journal opened: pending payments={}",payments.size());
+        }catch (IOException e){
+            logEvent(true,GATEWAY_NONE,"Journal can't be opened: {}",e.getLocalizedMessage());
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Check if journal is open and recording
+     * @return boolean: TRUE when open, FALSE otherwise
+     */
+    public synchronized boolean isOpen(){
+        return journalFile!=null;
+    }
+
+    /**
+     * Record payment state transition, record is written to disk in background.
+     * Ignored when journal is not open.
+     * @param record Journal record
+     */
+    public void append(JournalRecord record){
+        String key=record.getKey();
+        synchronized (this){
+            if(journalFile==null || key==null){
+                return;
+            }
+            JournalRecord merged=record.mergeWith(payments.get(key));
+            if(merged.isCompleted()){
+                payments.remove(key);
+            }else{
+                payments.put(key,merged);
+            }
+            //Queued with the merge so that disk order matches in-memory order
+            pendingWrites.add(record);
+        }
+        if(isFlushScheduled.compareAndSet(false,true)){
+            writer.execute(new Runnable() {
+                @Override
+                public void run() {
+                    isFlushScheduled.set(false);
+                    flush();
+                }
+            });
+        }
+    }
+
+    /**
+     * Get latest state of payments which were not completed
+     * @return List of journal records
+     */
+    public synchronized List<JournalRecord> getPendingPayments(){
+        return new ArrayList<>(payments.values());
+    }
+
+    /**
+     * Close the journal, records handed over before are written first
+     */
+    public void close(){
+        synchronized (this){
+            if(journalFile==null){
+                return;
+            }
+        }
+        flush();
+        synchronized (this){
+            closeQuietly();
+        }
+    }
+
+    /**
+     * Write all handed over records and sync them to disk once, records arriving meanwhile join the next batch
+     */
+    private void flush(){
+        synchronized (writeLock){
+            //Drained under the lock, batches of background writer and close() are never written out of order
+            List<JournalRecord> batch=new ArrayList<>();
+            pendingWrites.drainTo(batch);
+            if(batch.isEmpty() || journalOutput==null){
+                return;
+            }
+            try{
+                for(JournalRecord record:batch){
+                    writeRecord(journalOutput,record);
+                }
+                journalOutput.flush();
+                fileOutput.getFD().sync();
+            }catch (IOException e){
+                logEvent(true,GATEWAY_NONE,"Journal write failed: {}",e.getLocalizedMessage());
+            }
+        }
+    }
+
+    /**
+     * Read all records of the journal file, reading stops at the first torn or corrupt record
+     * @param file Journal file
+     */
+    private void replay(File file) throws IOException {
+        if(!file.exists()){
+            return;
+        }
+        DataInputStream input=new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try{
+            CRC32 crc32=new CRC32();
+            while (true){
+                int length;
+                try{
+                    length=input.readInt();
+                }catch (EOFException e){
+                    break;
+                }
+                if(length<=0 || length>MAX_RECORD_SIZE){
+                    logEvent(true,GATEWAY_NONE,"Journal is corrupt, remaining records are dropped");
+                    break;
+                }
+                byte [] payload=new byte[length];
+                long checksum;
+                try{
+                    input.readFully(payload);
+                    checksum=input.readLong();
+                }catch (EOFException e){
+                    logEvent(true,GATEWAY_NONE,"Journal has torn record, it is dropped");
+                    break;
+                }
+                crc32.reset();
+                crc32.update(payload,0,payload.length);
+                if(crc32.getValue()!=checksum){
+                    logEvent(true,GATEWAY_NONE,"Journal record checksum mismatch, remaining records are dropped");
+                    break;
+                }
+                JournalRecord record=JournalRecord.readFrom(new DataInputStream(new ByteArrayInputStream(payload)));
+                String key=record.getKey();
+                if(key==null){
+                    continue;
+                }
+                JournalRecord merged=record.mergeWith(payments.get(key));
+                if(merged.isCompleted()){
+                    payments.remove(key);
+                }else{
+                    payments.put(key,merged);
+                }
+            }
+        }finally {
+            input.close();
+        }
+    }
+
+    /**
+     * Rewrite journal file with pending payments only
+     * @param directory Journal directory
+     * @param file Journal file
+     */
+    private void compact(File directory, File file) throws IOException {
+        long oldest=System.currentTimeMillis()-MAX_PENDING_AGE;
+        List<String> expired=new ArrayList<>();
+        for(Map.Entry<String,JournalRecord> entry:payments.entrySet()){
+            if(entry.getValue().getTimestamp()<oldest){
+                expired.add(entry.getKey());
+            }
+        }
+        for(String key:expired){
+            payments.remove(key);
+        }
+        File compactFile=new File(directory,COMPACT_FILE);
+        FileOutputStream compactOutput=new FileOutputStream(compactFile,false);
+        try{
+            DataOutputStream output=new DataOutputStream(new BufferedOutputStream(compactOutput));
+            for(JournalRecord record:payments.values()){
+                writeRecord(output,record);
+            }
+            output.flush();
+            compactOutput.getFD().sync();
+        }finally {
+            compactOutput.close();
+        }
+        if(!compactFile.renameTo(file)){
+            throw new IOException("Journal can't be compacted");
+        }
+    }
+
+    /**
+     * Write record as [length][payload][crc32]
+     */
+    private static void writeRecord(DataOutputStream output, JournalRecord record) throws IOException {
+        ByteArrayOutputStream payload=new ByteArrayOutputStream(64);
+        record.writeTo(new DataOutputStream(payload));
+        byte [] bytes=payload.toByteArray();
+        CRC32 crc32=new CRC32();
+        crc32.update(bytes,0,bytes.length);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        output.writeLong(crc32.getValue());
+    }
+
+    private void closeQuietly(){
+        synchronized (writeLock){
+            try{
+                if(journalOutput!=null){
+                    journalOutput.close();
+                }
+            }catch (IOException e){
+                logEvent(true,GATEWAY_NONE,"Journal can't be closed: {}",e.getLocalizedMessage());
+            }
+            journalOutput=null;
+            fileOutput=null;
+        }
+        journalFile=null;
+    }
+}
@@ -0,0 +1,210 @@
+package com.furahitechstudio.furahitechpay.journal;
+
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>JournalRecord</h1>
+ * <p>
+ *     JournalRecord is one state transition of a payment as written to the transaction journal.
+ *     Only what is needed to reconcile the payment is recorded, merchant credentials are never written.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechJournal
+ */
+public final class JournalRecord {
+
+    /**
+     * Payment state transitions in the order they happen
+     */
+    public enum State{
+        REQUESTED,
+        TOKEN,
+        PUSHED,
+        PARTIAL_LOGGED,
+        POLLED,
+        COMPLETED
+    }
+
+    private static final byte FORMAT_VERSION =1;
+
+    private final State state;
+    private final long timestamp;
+    private final String transactionID;
+    private final String gateway;
+    private final String transactionUUID;
+    private final String paymentLogsEndPoint;
+    private final int transactionAmount;
+    private final String detail;
+
+    JournalRecord(State state, long timestamp, String transactionID, String gateway, String transactionUUID,
+                  String paymentLogsEndPoint, int transactionAmount, String detail){
+        this.state=state;
+        this.timestamp=timestamp;
+        this.transactionID=transactionID;
+        this.gateway=gateway;
+        this.transactionUUID=transactionUUID;
+        this.paymentLogsEndPoint=paymentLogsEndPoint;
+        this.transactionAmount=transactionAmount;
+        this.detail=detail;
+    }
+
+    /**
+     * Create record of the payment state transition
+     * @param state Payment state
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param transactionUUID Transaction UUID, null when not yet received
+     * @param detail Extra information like callback status, may be null
+     * @return JournalRecord object
+     */
+    public static JournalRecord of(State state, PaymentRequest paymentRequest, Enum gateway, String transactionUUID, String detail){
+        return new JournalRecord(state,System.currentTimeMillis(),
+                paymentRequest==null ? null:paymentRequest.getTransactionID(),
+                gateway==null ? null:gateway.name(),
+                transactionUUID,
+                paymentRequest==null ? null:paymentRequest.getPaymentLogsEndPoint(),
+                paymentRequest==null ? 0:paymentRequest.getTransactionAmount(),
+                detail);
+    }
+
+    /**
+     * Get journal key of the payment, transaction ID when set otherwise transaction UUID
+     * @return String: key or null when record can't be matched to a payment
+     */
+    String getKey(){
+        return transactionID!=null ? transactionID:transactionUUID;
+    }
+
+    /**
+     * Merge this record onto the previous state of the same payment, fields unknown to this record are kept
+     * @param previous Previous state of the payment, may be null
+     * @return JournalRecord object
+     */
+    JournalRecord mergeWith(JournalRecord previous){
+        if(previous==null){
+            return this;
+        }
+        return new JournalRecord(state,timestamp,
+                transactionID!=null ? transactionID:previous.transactionID,
+                gateway!=null ? gateway:previous.gateway,
+                transactionUUID!=null ? transactionUUID:previous.transactionUUID,
+                paymentLogsEndPoint!=null ? paymentLogsEndPoint:previous.paymentLogsEndPoint,
+                transactionAmount!=0 ? transactionAmount:previous.transactionAmount,
+                detail!=null ? detail:previous.detail);
+    }
+
+    void writeTo(DataOutput output) throws IOException {
+        output.writeByte(FORMAT_VERSION);
+        output.writeByte(state.ordinal());
+        output.writeLong(timestamp);
+        output.writeInt(transactionAmount);
+        writeString(output,transactionID);
+        writeString(output,gateway);
+        writeString(output,transactionUUID);
+        writeString(output,paymentLogsEndPoint);
+        writeString(output,detail);
+    }
+
+    static JournalRecord readFrom(DataInput input) throws IOException {
+        byte version=input.readByte();
+        if(version!=FORMAT_VERSION){
+            throw new IOException("Unknown journal record version "+version);
+        }
+        int stateIndex=input.readByte();
+        if(stateIndex<0 || stateIndex>=State.values().length){
+            throw new IOException("Unknown journal record state "+stateIndex);
+        }
+        long timestamp=input.readLong();
+        int transactionAmount=input.readInt();
+        return new JournalRecord(State.values()[stateIndex],timestamp,readString(input),readString(input),
+                readString(input),readString(input),transactionAmount,readString(input));
+    }
+
+    private static void writeString(DataOutput output, String value) throws IOException {
+        output.writeBoolean(value!=null);
+        if(value!=null){
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF():null;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Get time the state transition happened
+     * @return long: time in milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getTransactionID() {
+        return transactionID;
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+
+    public String getTransactionUUID() {
+        return transactionUUID;
+    }
+
+    public String getPaymentLogsEndPoint() {
+        return paymentLogsEndPoint;
+    }
+
+    public int getTransactionAmount() {
+        return transactionAmount;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * Check if payment was completed
+     * @return boolean: TRUE when completed, FALSE otherwise
+     */
+    public boolean isCompleted(){
+        return state==State.COMPLETED;
+    }
+
+    /**
+     * Check if payment can be resumed by polling its callback status
+     * @return boolean: TRUE when resumable, FALSE otherwise
+     */
+    public boolean isResumable(){
+        return !isCompleted() && transactionUUID!=null && paymentLogsEndPoint!=null && gateway!=null;
+    }
+}
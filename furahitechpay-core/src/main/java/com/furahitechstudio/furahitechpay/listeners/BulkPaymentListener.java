@@ -0,0 +1,50 @@
+package com.furahitechstudio.furahitechpay.listeners;
+
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.models.PaymentStatus;
+
+import java.util.List;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>BulkPaymentListener</h1>
+ * <p>
+ *     BulkPaymentListener is responsible for listening results of a bulk payment, results are delivered as soon as
+ *     every payment completes and once more when all payments have completed.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ */
+public interface BulkPaymentListener {
+    /**
+     * Invoked when one payment of the bulk has completed
+     * @param request Payment request
+     * @param status Payment status
+     * @see PaymentStatus
+     */
+    void onPaymentCompleted(PaymentRequest request, PaymentStatus status);
+
+    /**
+     * Invoked when all payments of the bulk have completed
+     * @param statuses Payment statuses in submission order
+     */
+    void onBulkCompleted(List<PaymentStatus> statuses);
+}
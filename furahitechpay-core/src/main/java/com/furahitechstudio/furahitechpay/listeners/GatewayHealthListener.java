@@ -0,0 +1,40 @@
+package com.furahitechstudio.furahitechpay.listeners;
+
+import com.furahitechstudio.furahitechpay.networks.CircuitBreaker;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>GatewayHealthListener</h1>
+ * <p>
+ *     GatewayHealthListener is an interface to listen for circuit state of gateway endpoints, i.e
+ *     to steer customers to another gateway while one is down
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ */
+public interface GatewayHealthListener {
+    /**
+     * Invoked when circuit of the endpoint changes its state
+     * @param endPoint Endpoint as scheme://host:port
+     * @param state New circuit state
+     */
+    void onGatewayStateChanged(String endPoint, CircuitBreaker.State state);
+}
@@ -29,8 +29,8 @@ package com.furahitechstudio.furahitechpay.listeners;
  */
 public interface PartialLogListener {
     /**
-     * Invoke when partial paymment details are logged into a file on the server
-     * @param isLogged TRUE when logged, FALSE otherwise
+     * Invoke when partial paymment details are queued for logging into a file on the server
+     * @param isLogged TRUE when queued, FALSE otherwise
      */
     void onPartialPaymentLogged(boolean isLogged);
 }
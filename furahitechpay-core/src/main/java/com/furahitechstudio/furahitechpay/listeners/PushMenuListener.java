@@ -38,4 +38,9 @@ public interface PushMenuListener {
      * @see ModelWazoHub.TransactionResponse
      */
     void onPushInitiated(ModelWazoHub.TransactionResponse response);
+
+    /**
+     * Invoked when push request was rejected or WazoHub couldn't be reached
+     */
+    void onPushFailed();
 }
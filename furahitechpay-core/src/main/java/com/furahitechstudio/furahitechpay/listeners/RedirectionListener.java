@@ -32,7 +32,7 @@ import com.furahitechstudio.furahitechpay.models.ModelTigoPesa;
 public interface RedirectionListener {
     /**
      * Invoked when redirection to tigopesa secure page is received
-     * @param redirection Tigo pesa redirect
+     * @param redirection Tigo pesa redirect, null when the request has failed
      * @see ModelTigoPesa
      */
     void onRedirection(ModelTigoPesa redirection);
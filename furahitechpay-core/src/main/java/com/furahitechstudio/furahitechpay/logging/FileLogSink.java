@@ -0,0 +1,117 @@
+package com.furahitechstudio.furahitechpay.logging;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FileLogSink</h1>
+ * <p>
+ *     FileLogSink appends log lines to a file, the file is rolled over to a single backup once it grows past its limit.
+ *     Output is buffered and written whenever the logger has nothing more to drain.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class FileLogSink implements LogSink {
+
+    private final File logFile;
+
+    private final long maxFileSize;
+
+    private final SimpleDateFormat dateFormat =new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+
+    private final Date date =new Date();
+
+    private Writer writer;
+
+    private long fileSize;
+
+    /**
+     * FileLogSink constructor
+     * @param logFile File log lines are appended to
+     * @param maxFileSize Size in bytes after which file is rolled over
+     */
+    public FileLogSink(File logFile, long maxFileSize){
+        this.logFile=logFile;
+        this.maxFileSize=maxFileSize;
+    }
+
+    @Override
+    public void write(FurahitechLogger.Level level, long timestamp, String tag, String message) {
+        try{
+            if(writer==null){
+                fileSize=logFile.length();
+                writer=new BufferedWriter(new OutputStreamWriter(new FileOutputStream(logFile,true),"UTF-8"));
+            }
+            date.setTime(timestamp);
+            String line=dateFormat.format(date)+" "+level+" "+tag+": "+message+"\n";
+            writer.write(line);
+            fileSize+=line.length();
+            if(fileSize>=maxFileSize){
+                rollOver();
+            }
+        }catch (IOException e){
+            close();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if(writer!=null){
+            try{
+                writer.flush();
+            }catch (IOException e){
+                close();
+            }
+        }
+    }
+
+    private void rollOver() throws IOException {
+        writer.close();
+        writer=null;
+        File backup=new File(logFile.getPath()+".1");
+        if(backup.exists() && !backup.delete()){
+            throw new IOException("Old log backup can't be removed");
+        }
+        if(!logFile.renameTo(backup)){
+            throw new IOException("Log file can't be rolled over");
+        }
+    }
+
+    private void close(){
+        if(writer!=null){
+            try{
+                writer.close();
+            }catch (IOException ignored){
+                //Nothing to do, sink reopens the file on next write
+            }
+            writer=null;
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package com.furahitechstudio.furahitechpay.logging;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechLogger</h1>
+ * <p>
+ *     FurahitechLogger is the logging subsystem of the library. Level is checked before anything is built,
+ *     messages are templates with {} placeholders which are formatted on the background drain thread.
+ *     Log entries are handed over through a pre-allocated lock-free ring buffer, entries which find the buffer full
+ *     are dropped and counted instead of blocking the caller.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see LogSink
+ */
+public final class FurahitechLogger {
+
+    /**
+     * Log levels in increasing severity, OFF disables logging entirely
+     */
+    public enum Level{
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR,
+        OFF
+    }
+
+    /**
+     * Ring buffer capacity, power of two
+     */
+    private static final int BUFFER_CAPACITY =1024;
+
+    private static final int BUFFER_MASK =BUFFER_CAPACITY-1;
+
+    /**
+     * Longest time the drain thread sleeps when there is nothing to drain
+     */
+    private static final long IDLE_PARK_TIME =TimeUnit.MILLISECONDS.toNanos(250);
+
+    private static final FurahitechLogger logger =new FurahitechLogger();
+
+    private final LogEntry [] entries =new LogEntry[BUFFER_CAPACITY];
+
+    /**
+     * Next sequence to be claimed by a producer
+     */
+    private final AtomicLong tail =new AtomicLong();
+
+    /**
+     * Next sequence to be drained, written by the drain thread only
+     */
+    private volatile long head =0;
+
+    private final AtomicLong droppedCount =new AtomicLong();
+
+    private final List<LogSink> sinks =new CopyOnWriteArrayList<>();
+
+    private volatile int minLevel =Level.DEBUG.ordinal();
+
+    private volatile Thread drainThread;
+
+    private volatile boolean isDrainerWaiting =false;
+
+    private FurahitechLogger(){
+        for(int index=0;index<BUFFER_CAPACITY;index++){
+            entries[index]=new LogEntry(index-BUFFER_CAPACITY);
+        }
+    }
+
+    /**
+     * Get logger as singleton
+     * @return FurahitechLogger object
+     */
+    public static FurahitechLogger getInstance(){
+        return logger;
+    }
+
+    /**
+     * Responsible for setting up the lowest level which is logged
+     * @param level Log level, OFF to disable logging
+     */
+    public void setLevel(Level level){
+        this.minLevel =level.ordinal();
+    }
+
+    public Level getLevel(){
+        return Level.values()[minLevel];
+    }
+
+    /**
+     * Check if messages of the level are logged, use before building expensive arguments
+     * @param level Log level
+     * @return boolean: TRUE when logged, FALSE otherwise
+     */
+    public boolean isLoggable(Level level){
+        return level.ordinal()>=minLevel && level!=Level.OFF;
+    }
+
+    /**
+     * Responsible for adding log sink
+     * @param sink Log sink
+     */
+    public void addSink(LogSink sink){
+        sinks.add(sink);
+    }
+
+    /**
+     * Responsible for removing log sink
+     * @param sink Log sink
+     */
+    public void removeSink(LogSink sink){
+        sinks.remove(sink);
+    }
+
+    /**
+     * Remove all log sinks
+     */
+    public void clearSinks(){
+        sinks.clear();
+    }
+
+    /**
+     * Get number of entries dropped because the buffer was full
+     * @return long: dropped entries
+     */
+    public long getDroppedCount(){
+        return droppedCount.get();
+    }
+
+    /**
+     * Log message template with up to three arguments, nothing is allocated when the level is not logged
+     * @param level Log level
+     * @param tag Message tag (gateway name)
+     * @param template Message template, every {} is replaced by the next argument
+     * @param arg1 First argument, may be null
+     * @param arg2 Second argument, may be null
+     * @param arg3 Third argument, may be null
+     */
+    public void log(Level level, String tag, String template, Object arg1, Object arg2, Object arg3){
+        log(level,tag,template,arg1,arg2,arg3,null);
+    }
+
+    /**
+     * Log message template with up to four arguments, nothing is allocated when the level is not logged
+     * @param level Log level
+     * @param tag Message tag (gateway name)
+     * @param template Message template, every {} is replaced by the next argument
+     * @param arg1 First argument, may be null
+     * @param arg2 Second argument, may be null
+     * @param arg3 Third argument, may be null
+     * @param arg4 Fourth argument, may be null
+     */
+    public void log(Level level, String tag, String template, Object arg1, Object arg2, Object arg3, Object arg4){
+        if(level.ordinal()<minLevel || level==Level.OFF){
+            return;
+        }
+        long sequence;
+        do{
+            sequence=tail.get();
+            if(sequence-head>=BUFFER_CAPACITY){
+                droppedCount.incrementAndGet();
+                return;
+            }
+        }while (!tail.compareAndSet(sequence,sequence+1));
+        LogEntry entry=entries[(int) (sequence & BUFFER_MASK)];
+        entry.level=level;
+        entry.timestamp=System.currentTimeMillis();
+        entry.tag=tag;
+        entry.template=template;
+        entry.arg1=arg1;
+        entry.arg2=arg2;
+        entry.arg3=arg3;
+        entry.arg4=arg4;
+        entry.published=sequence;
+        Thread drainer=drainThread;
+        if(drainer==null){
+            startDrainThread();
+        }else if(isDrainerWaiting){
+            LockSupport.unpark(drainer);
+        }
+    }
+
+    /**
+     * Wait until all logged entries are written to sinks
+     * @param timeout Longest time to wait in milliseconds
+     * @return boolean: TRUE when drained, FALSE when timeout passed
+     */
+    public boolean flush(long timeout){
+        long target=tail.get();
+        long deadline=System.nanoTime()+TimeUnit.MILLISECONDS.toNanos(timeout);
+        while (head<target){
+            Thread drainer=drainThread;
+            if(drainer!=null){
+                LockSupport.unpark(drainer);
+            }
+            if(System.nanoTime()>=deadline){
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    private synchronized void startDrainThread(){
+        if(drainThread!=null){
+            return;
+        }
+        Thread thread=new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        },"FurahitechPay Logger");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        drainThread=thread;
+        thread.start();
+    }
+
+    private void drain(){
+        while (true){
+            long sequence=head;
+            LogEntry entry=entries[(int) (sequence & BUFFER_MASK)];
+            if(entry.published!=sequence){
+                flushSinks();
+                isDrainerWaiting=true;
+                if(entry.published!=sequence){
+                    LockSupport.parkNanos(IDLE_PARK_TIME);
+                }
+                isDrainerWaiting=false;
+                continue;
+            }
+            Level level=entry.level;
+            long timestamp=entry.timestamp;
+            String tag=entry.tag;
+            String message=format(entry.template,entry.arg1,entry.arg2,entry.arg3,entry.arg4);
+            entry.tag=null;
+            entry.template=null;
+            entry.arg1=null;
+            entry.arg2=null;
+            entry.arg3=null;
+            entry.arg4=null;
+            for(LogSink sink:sinks){
+                try{
+                    sink.write(level,timestamp,tag,message);
+                }catch (RuntimeException e){
+                    //Faulty sink must not stop the others
+                }
+            }
+            //Advanced after sinks got the entry, flush() waits for head and must not return before that
+            head=sequence+1;
+        }
+    }
+
+    private void flushSinks(){
+        for(LogSink sink:sinks){
+            try{
+                sink.flush();
+            }catch (RuntimeException e){
+                //Faulty sink must not stop the others
+            }
+        }
+    }
+
+    /**
+     * Replace {} placeholders of the template with arguments in order
+     */
+    static String format(String template, Object arg1, Object arg2, Object arg3, Object arg4){
+        if(template==null){
+            return "null";
+        }
+        int placeholder=template.indexOf("{}");
+        if(placeholder<0){
+            return template;
+        }
+        Object [] args={arg1,arg2,arg3,arg4};
+        StringBuilder builder=new StringBuilder(template.length()+32);
+        int start=0, argIndex=0;
+        while (placeholder>=0 && argIndex<args.length){
+            builder.append(template,start,placeholder).append(String.valueOf(args[argIndex++]));
+            start=placeholder+2;
+            placeholder=template.indexOf("{}",start);
+        }
+        return builder.append(template,start,template.length()).toString();
+    }
+
+    /**
+     * Pre-allocated ring buffer slot
+     */
+    private static class LogEntry{
+        private volatile long published;
+        private Level level;
+        private long timestamp;
+        private String tag;
+        private String template;
+        private Object arg1, arg2, arg3, arg4;
+
+        LogEntry(long published){
+            this.published=published;
+        }
+    }
+}
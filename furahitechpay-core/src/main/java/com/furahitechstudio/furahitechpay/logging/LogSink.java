@@ -0,0 +1,46 @@
+package com.furahitechstudio.furahitechpay.logging;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>LogSink</h1>
+ * <p>
+ *     LogSink receives formatted log entries from the logger drain thread, it is never called from payment flow threads.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechLogger
+ */
+public interface LogSink {
+    /**
+     * Invoked for every log entry
+     * @param level Log level
+     * @param timestamp Time entry was logged in milliseconds since epoch
+     * @param tag Message tag (gateway name)
+     * @param message Formatted message
+     */
+    void write(FurahitechLogger.Level level, long timestamp, String tag, String message);
+
+    /**
+     * Invoked when there are no more entries to drain for now, buffered output should be written
+     */
+    void flush();
+}
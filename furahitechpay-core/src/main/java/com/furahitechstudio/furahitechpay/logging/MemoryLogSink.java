@@ -0,0 +1,74 @@
+package com.furahitechstudio.furahitechpay.logging;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>MemoryLogSink</h1>
+ * <p>
+ *     MemoryLogSink keeps the latest log lines in memory, useful to attach recent logs to a support report.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class MemoryLogSink implements LogSink {
+
+    private final int capacity;
+
+    private final ArrayDeque<String> lines;
+
+    /**
+     * MemoryLogSink constructor
+     * @param capacity Number of latest lines kept
+     */
+    public MemoryLogSink(int capacity){
+        this.capacity=Math.max(1,capacity);
+        this.lines=new ArrayDeque<>(this.capacity);
+    }
+
+    @Override
+    public synchronized void write(FurahitechLogger.Level level, long timestamp, String tag, String message) {
+        if(lines.size()==capacity){
+            lines.pollFirst();
+        }
+        lines.addLast(timestamp+" "+level+" "+tag+": "+message);
+    }
+
+    @Override
+    public void flush() {}
+
+    /**
+     * Get kept log lines, oldest first
+     * @return List of log lines
+     */
+    public synchronized List<String> getLines(){
+        return new ArrayList<>(lines);
+    }
+
+    /**
+     * Remove all kept lines
+     */
+    public synchronized void clear(){
+        lines.clear();
+    }
+}
@@ -0,0 +1,201 @@
+package com.furahitechstudio.furahitechpay.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_CANCELLED;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_TIMEOUT;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechMetrics</h1>
+ * <p>
+ *     FurahitechMetrics records latency of every payment stage and payment outcomes per gateway,
+ *     recording is lock-free so it can stay on in production. Use {@link #snapshot()} to read or export the numbers.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see LatencyHistogram
+ * @see MetricsSnapshot
+ */
+public final class FurahitechMetrics {
+
+    /**
+     * Payment pipeline stages which latency is recorded
+     */
+    public enum Stage{
+        TOKEN_ACQUISITION,
+        WAZOHUB_PUSH,
+        TIGOPESA_REDIRECT,
+        STRIPE_TOKENIZATION,
+        STRIPE_CHARGE,
+        PARTIAL_LOGGING,
+        STATUS_POLL
+    }
+
+    /**
+     * Final outcomes of a payment
+     */
+    public enum Outcome{
+        SUCCESS,
+        FAILURE,
+        TIMEOUT,
+        CANCEL;
+
+        /**
+         * Get outcome of the payment status
+         * @param paymentStatus Payment status as indicated on PaymentConstant
+         * @return Outcome object
+         */
+        public static Outcome of(Enum paymentStatus){
+            if(paymentStatus==STATUS_SUCCESS){
+                return SUCCESS;
+            }else if(paymentStatus==STATUS_TIMEOUT){
+                return TIMEOUT;
+            }else if(paymentStatus==STATUS_CANCELLED){
+                return CANCEL;
+            }
+            return FAILURE;
+        }
+    }
+
+    private static final FurahitechMetrics metrics =new FurahitechMetrics();
+
+    private final ConcurrentMap<Enum,GatewayMetrics> gateways =new ConcurrentHashMap<>();
+
+    private volatile boolean isEnabled =true;
+
+    private FurahitechMetrics(){}
+
+    /**
+     * Get metrics registry as singleton
+     * @return FurahitechMetrics object
+     */
+    public static FurahitechMetrics getInstance(){
+        return metrics;
+    }
+
+    /**
+     * Responsible for enabling metrics recording, enabled by default
+     * @param enabled TRUE to record, FALSE to ignore all records
+     */
+    public void setEnabled(boolean enabled){
+        this.isEnabled =enabled;
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Get start mark of the stage
+     * @return long: start time to pass to {@link #recordLatency(Enum, Stage, long)}
+     */
+    public static long startTimer(){
+        return System.nanoTime();
+    }
+
+    /**
+     * Record latency of the stage from its start mark until now
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param stage Payment stage
+     * @param startedAt Start mark as returned by {@link #startTimer()}
+     */
+    public void recordLatency(Enum gateway, Stage stage, long startedAt){
+        if(isEnabled && gateway!=null){
+            getGateway(gateway).latencies[stage.ordinal()]
+                    .record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime()-startedAt));
+        }
+    }
+
+    /**
+     * Count payment outcome
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param outcome Payment outcome
+     */
+    public void recordOutcome(Enum gateway, Outcome outcome){
+        if(isEnabled && gateway!=null){
+            getGateway(gateway).outcomes.incrementAndGet(outcome.ordinal());
+        }
+    }
+
+    /**
+     * Get copy of all recorded metrics
+     * @return MetricsSnapshot object
+     */
+    public MetricsSnapshot snapshot(){
+        MetricsSnapshot snapshot=new MetricsSnapshot(System.currentTimeMillis());
+        for(Map.Entry<Enum,GatewayMetrics> entry:gateways.entrySet()){
+            GatewayMetrics gatewayMetrics=entry.getValue();
+            for(Stage stage:Stage.values()){
+                LatencyHistogram histogram=gatewayMetrics.latencies[stage.ordinal()];
+                if(histogram.getCount()>0){
+                    snapshot.addLatency(entry.getKey(),stage,histogram.snapshot());
+                }
+            }
+            for(Outcome outcome:Outcome.values()){
+                long count=gatewayMetrics.outcomes.get(outcome.ordinal());
+                if(count>0){
+                    snapshot.addOutcome(entry.getKey(),outcome,count);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Remove all recorded metrics
+     */
+    public void reset(){
+        gateways.clear();
+    }
+
+    private GatewayMetrics getGateway(Enum gateway){
+        GatewayMetrics gatewayMetrics=gateways.get(gateway);
+        if(gatewayMetrics==null){
+            GatewayMetrics created=new GatewayMetrics();
+            gatewayMetrics=gateways.putIfAbsent(gateway,created);
+            if(gatewayMetrics==null){
+                gatewayMetrics=created;
+            }
+        }
+        return gatewayMetrics;
+    }
+
+    /**
+     * Class which holds metrics of one gateway
+     */
+    private static class GatewayMetrics{
+        private final LatencyHistogram [] latencies =new LatencyHistogram[Stage.values().length];
+        private final AtomicLongArray outcomes =new AtomicLongArray(Outcome.values().length);
+
+        GatewayMetrics(){
+            for(int index=0;index<latencies.length;index++){
+                latencies[index]=new LatencyHistogram();
+            }
+        }
+    }
+}
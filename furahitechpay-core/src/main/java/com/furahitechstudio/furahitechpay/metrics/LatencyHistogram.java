@@ -0,0 +1,166 @@
+package com.furahitechstudio.furahitechpay.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>LatencyHistogram</h1>
+ * <p>
+ *     LatencyHistogram counts latencies in log-linear buckets (HDR style): values below 16 have their own bucket,
+ *     larger values share a bucket with others within 1/8 (12.5%) of them. Recording is lock-free and allocation free,
+ *     one bucket array covers microseconds up to days.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR_BUCKETS =16, SUB_BUCKETS =8, SUB_BUCKET_BITS =3;
+
+    /**
+     * Enough buckets for values up to 2^47 microseconds
+     */
+    private static final int BUCKET_COUNT =LINEAR_BUCKETS+44*SUB_BUCKETS;
+
+    private final AtomicLongArray counts =new AtomicLongArray(BUCKET_COUNT);
+
+    private final AtomicLong totalCount =new AtomicLong();
+
+    private final AtomicLong totalValue =new AtomicLong();
+
+    private final AtomicLong maxValue =new AtomicLong();
+
+    /**
+     * Record one latency value
+     * @param value Latency in microseconds, negative values are recorded as 0
+     */
+    public void record(long value){
+        long latency=Math.max(0,value);
+        counts.incrementAndGet(bucketOf(latency));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(latency);
+        long max;
+        do{
+            max=maxValue.get();
+        }while (latency>max && !maxValue.compareAndSet(max,latency));
+    }
+
+    /**
+     * Get consistent enough copy of the histogram, recording may continue meanwhile
+     * @return Snapshot object
+     */
+    public Snapshot snapshot(){
+        long [] bucketCounts=new long[BUCKET_COUNT];
+        long count=0;
+        for(int index=0;index<BUCKET_COUNT;index++){
+            bucketCounts[index]=counts.get(index);
+            count+=bucketCounts[index];
+        }
+        return new Snapshot(bucketCounts,count,totalValue.get(),maxValue.get());
+    }
+
+    /**
+     * Remove all recorded values
+     */
+    public void reset(){
+        for(int index=0;index<BUCKET_COUNT;index++){
+            counts.set(index,0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        maxValue.set(0);
+    }
+
+    public long getCount(){
+        return totalCount.get();
+    }
+
+    static int bucketOf(long value){
+        if(value<LINEAR_BUCKETS){
+            return (int) value;
+        }
+        int shift=63-Long.numberOfLeadingZeros(value)-SUB_BUCKET_BITS;
+        int index=LINEAR_BUCKETS+(shift-1)*SUB_BUCKETS+(int) ((value>>>shift)-SUB_BUCKETS);
+        return Math.min(index,BUCKET_COUNT-1);
+    }
+
+    static long upperBoundOf(int bucket){
+        if(bucket<LINEAR_BUCKETS){
+            return bucket;
+        }
+        int offset=bucket-LINEAR_BUCKETS;
+        int shift=offset/SUB_BUCKETS+1;
+        long mantissa=offset%SUB_BUCKETS+SUB_BUCKETS;
+        return ((mantissa+1)<<shift)-1;
+    }
+
+    /**
+     * Immutable copy of the histogram
+     */
+    public static final class Snapshot{
+        private final long [] bucketCounts;
+        private final long count, total, max;
+
+        Snapshot(long [] bucketCounts, long count, long total, long max){
+            this.bucketCounts=bucketCounts;
+            this.count=count;
+            this.total=total;
+            this.max=max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * Get mean latency
+         * @return double: mean in microseconds, 0 when nothing recorded
+         */
+        public double getMean(){
+            return count==0 ? 0:(double) total/count;
+        }
+
+        /**
+         * Get latency below which the given share of values fall
+         * @param percentile Percentile between 0 and 100
+         * @return long: upper bound of the bucket in microseconds, never above recorded max
+         */
+        public long getPercentile(double percentile){
+            if(count==0){
+                return 0;
+            }
+            long rank=(long) Math.ceil(Math.min(100,Math.max(0,percentile))/100*count);
+            long seen=0;
+            for(int index=0;index<bucketCounts.length;index++){
+                seen+=bucketCounts[index];
+                if(seen>=Math.max(1,rank)){
+                    return Math.min(max,upperBoundOf(index));
+                }
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.furahitechstudio.furahitechpay.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>MetricsSnapshot</h1>
+ * <p>
+ *     MetricsSnapshot is a copy of recorded metrics grouped by gateway: latency summary of every stage and outcome counters.
+ *     Latencies are in microseconds. It can be exported as JSON for dashboards or support reports.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechMetrics
+ */
+public final class MetricsSnapshot {
+
+    @SerializedName("timestamp")
+    private final long timestamp;
+
+    @SerializedName("latencies")
+    private final Map<String,Map<String,StageLatency>> latencies =new TreeMap<>();
+
+    @SerializedName("outcomes")
+    private final Map<String,Map<String,Long>> outcomes =new TreeMap<>();
+
+    MetricsSnapshot(long timestamp){
+        this.timestamp=timestamp;
+    }
+
+    void addLatency(Enum gateway, FurahitechMetrics.Stage stage, LatencyHistogram.Snapshot histogram){
+        Map<String,StageLatency> stages=latencies.get(gateway.name());
+        if(stages==null){
+            stages=new TreeMap<>();
+            latencies.put(gateway.name(),stages);
+        }
+        stages.put(stage.name(),new StageLatency(histogram));
+    }
+
+    void addOutcome(Enum gateway, FurahitechMetrics.Outcome outcome, long count){
+        Map<String,Long> counters=outcomes.get(gateway.name());
+        if(counters==null){
+            counters=new TreeMap<>();
+            outcomes.put(gateway.name(),counters);
+        }
+        counters.put(outcome.name(),count);
+    }
+
+    /**
+     * Get time the snapshot was taken
+     * @return long: time in milliseconds since epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Get latency summary of the stage
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param stage Payment stage
+     * @return StageLatency or null when nothing was recorded
+     */
+    public StageLatency getLatency(Enum gateway, FurahitechMetrics.Stage stage){
+        Map<String,StageLatency> stages=latencies.get(gateway.name());
+        return stages==null ? null:stages.get(stage.name());
+    }
+
+    /**
+     * Get number of payments which ended with the outcome
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param outcome Payment outcome
+     * @return long: count
+     */
+    public long getOutcomeCount(Enum gateway, FurahitechMetrics.Outcome outcome){
+        Map<String,Long> counters=outcomes.get(gateway.name());
+        Long count=counters==null ? null:counters.get(outcome.name());
+        return count==null ? 0:count;
+    }
+
+    /**
+     * Export snapshot as JSON
+     * @return String: JSON document
+     */
+    public String toJson(){
+        return new Gson().toJson(this);
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    /**
+     * Latency summary of one stage in microseconds
+     */
+    public static final class StageLatency{
+        @SerializedName("count")
+        private final long count;
+        @SerializedName("mean")
+        private final long mean;
+        @SerializedName("p50")
+        private final long p50;
+        @SerializedName("p90")
+        private final long p90;
+        @SerializedName("p99")
+        private final long p99;
+        @SerializedName("max")
+        private final long max;
+
+        StageLatency(LatencyHistogram.Snapshot histogram){
+            this.count=histogram.getCount();
+            this.mean=Math.round(histogram.getMean());
+            this.p50=histogram.getPercentile(50);
+            this.p90=histogram.getPercentile(90);
+            this.p99=histogram.getPercentile(99);
+            this.max=histogram.getMax();
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMean() {
+            return mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public long getP90() {
+            return p90;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
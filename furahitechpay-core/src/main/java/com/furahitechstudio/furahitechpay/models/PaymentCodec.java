@@ -0,0 +1,296 @@
+package com.furahitechstudio.furahitechpay.models;
+
+import com.furahitechstudio.furahitechpay.utils.Furahitech;
+import com.furahitechstudio.furahitechpay.utils.FurahitechException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>PaymentCodec</h1>
+ * <p>
+ *     PaymentCodec writes PaymentRequest and PaymentStatus to compact bytes which are passed between screens instead of
+ *     Java serialization. Fields are written in a fixed order without names or class descriptors, one bit mask tells which
+ *     strings are set so missing fields take no space. Strings are written as length prefixed UTF-8 so values of any size fit.
+ *     Bytes start with format version, unknown versions are rejected.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public final class PaymentCodec {
+
+    private static final byte FORMAT_VERSION =2;
+
+    private static final byte ENUM_NONE =0, ENUM_PAYMENT_CONSTANT =1;
+
+    private static final Charset UTF_8 =Charset.forName("UTF-8");
+
+    private PaymentCodec(){}
+
+    /**
+     * Responsible for encoding payment request
+     * @param request PaymentRequest object
+     * @return byte[]: encoded request
+     */
+    public static byte[] encode(PaymentRequest request){
+        try{
+            ByteArrayOutputStream bytes=new ByteArrayOutputStream(512);
+            DataOutputStream output=new DataOutputStream(bytes);
+            output.writeByte(FORMAT_VERSION);
+            writeStrings(output,request.getTigoMerchantNumber(),request.getTigoMerchantKey(),request.getTigoMerchantSecret(),
+                    request.getTigoMerchantName(),request.getTigoMerchantPin(),request.getCardMerchantKey(),
+                    request.getCardMerchantSecret(),request.getWazoHubClientID(),request.getWazoHubClientSecret(),
+                    request.getTransactionID(),request.getPaymentType(),request.getPaymentDesc(),request.getDefaultLanguage(),
+                    request.getDefaultCountryCode(),request.getDefaultCountryName(),request.getDefaultCurrency(),
+                    request.getCustomerPhone(),request.getCustomerCard(),request.getCustomerFirstName(),
+                    request.getCustomerLastName(),request.getCustomerEmailAddress(),request.getPaymentRequestEndPoint(),
+                    request.getPaymentLogsEndPoint());
+            output.writeInt(request.getTransactionFee());
+            output.writeInt(request.getTransactionTax());
+            output.writeInt(request.getTransactionAmount());
+            writeMap(output,request.getPaymentExtraParam());
+            output.flush();
+            return bytes.toByteArray();
+        }catch (IOException e){
+            throw new FurahitechException("Payment request can't be encoded",e);
+        }
+    }
+
+    /**
+     * Responsible for decoding payment request
+     * @param data Bytes produced by encode(PaymentRequest)
+     * @return PaymentRequest object
+     * @throws FurahitechException when bytes are not a payment request of known format
+     */
+    public static PaymentRequest decodePaymentRequest(byte[] data){
+        try{
+            DataInputStream input=openVersioned(data);
+            String [] values=readStrings(input,23);
+            return new PaymentRequest.Builder()
+                    .setTigoMerchantNumber(values[0])
+                    .setTigoMerchantKey(values[1])
+                    .setTigoMerchantSecret(values[2])
+                    .setTigoMerchantName(values[3])
+                    .setTigoMerchantPin(values[4])
+                    .setCardMerchantKey(values[5])
+                    .setCardMerchantSecret(values[6])
+                    .setWazoHubClientID(values[7])
+                    .setWazoHubClientSecret(values[8])
+                    .setTransactionID(values[9])
+                    .setPaymentType(values[10])
+                    .setPaymentDesc(values[11])
+                    .setDefaultLanguage(values[12])
+                    .setDefaultCountryCode(values[13])
+                    .setDefaultCountryName(values[14])
+                    .setDefaultCurrency(values[15])
+                    .setCustomerPhone(values[16])
+                    .setCustomerCard(values[17])
+                    .setCustomerFirstName(values[18])
+                    .setCustomerLastName(values[19])
+                    .setCustomerEmailAddress(values[20])
+                    .setPaymentRequestEndPoint(values[21])
+                    .setPaymentLogsEndPoint(values[22])
+                    .setTransactionFee(input.readInt())
+                    .setTransactionTax(input.readInt())
+                    .setTransactionAmount(input.readInt())
+                    .setPaymentExtraParam(readMap(input))
+                    .build();
+        }catch (IOException e){
+            throw new FurahitechException("Payment request can't be decoded",e);
+        }
+    }
+
+    /**
+     * Responsible for encoding payment status
+     * @param status PaymentStatus object
+     * @return byte[]: encoded status
+     */
+    public static byte[] encode(PaymentStatus status){
+        try{
+            ByteArrayOutputStream bytes=new ByteArrayOutputStream(128);
+            DataOutputStream output=new DataOutputStream(bytes);
+            output.writeByte(FORMAT_VERSION);
+            writeStrings(output,status.getPaymentRefId(),status.getPaymentCustomerId(),status.getPaymentRiskLevel(),
+                    status.getPaymentGateWay());
+            output.writeInt(status.getPaymentAmount());
+            output.writeInt(status.getPaymentTimeStamp());
+            writeEnum(output,status.getPaymentStatus());
+            writeMap(output,status.getPaymentExtraParam());
+            output.flush();
+            return bytes.toByteArray();
+        }catch (IOException e){
+            throw new FurahitechException("Payment status can't be encoded",e);
+        }
+    }
+
+    /**
+     * Responsible for decoding payment status
+     * @param data Bytes produced by encode(PaymentStatus)
+     * @return PaymentStatus object
+     * @throws FurahitechException when bytes are not a payment status of known format
+     */
+    public static PaymentStatus decodePaymentStatus(byte[] data){
+        try{
+            DataInputStream input=openVersioned(data);
+            String [] values=readStrings(input,4);
+            PaymentStatus status=new PaymentStatus();
+            status.setPaymentRefId(values[0]);
+            status.setPaymentCustomerId(values[1]);
+            status.setPaymentRiskLevel(values[2]);
+            status.setPaymentGateWay(values[3]);
+            status.setPaymentAmount(input.readInt());
+            status.setPaymentTimeStamp(input.readInt());
+            status.setPaymentStatus(readEnum(input));
+            status.setPaymentExtraParam(readMap(input));
+            return status;
+        }catch (IOException e){
+            throw new FurahitechException("Payment status can't be decoded",e);
+        }
+    }
+
+    private static DataInputStream openVersioned(byte[] data) throws IOException {
+        if(data==null || data.length==0){
+            throw new IOException("No data");
+        }
+        DataInputStream input=new DataInputStream(new ByteArrayInputStream(data));
+        byte version=input.readByte();
+        if(version!=FORMAT_VERSION){
+            throw new IOException("Unknown payment format version "+version);
+        }
+        return input;
+    }
+
+    private static void writeStrings(DataOutput output, String... values) throws IOException {
+        int mask=0;
+        for(int index=0; index<values.length; index++){
+            if(values[index]!=null){
+                mask|=1<<index;
+            }
+        }
+        output.writeInt(mask);
+        for(String value:values){
+            if(value!=null){
+                writeUTF8(output,value);
+            }
+        }
+    }
+
+    private static String[] readStrings(DataInputStream input, int count) throws IOException {
+        int mask=input.readInt();
+        String [] values=new String[count];
+        for(int index=0; index<count; index++){
+            if((mask & (1<<index))!=0){
+                values[index]=readUTF8(input);
+            }
+        }
+        return values;
+    }
+
+    private static void writeString(DataOutput output, String value) throws IOException {
+        output.writeBoolean(value!=null);
+        if(value!=null){
+            writeUTF8(output,value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? readUTF8(input):null;
+    }
+
+    private static void writeUTF8(DataOutput output, String value) throws IOException {
+        byte [] bytes=value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readUTF8(DataInputStream input) throws IOException {
+        int length=input.readInt();
+        if(length<0 || length>input.available()){
+            throw new IOException("Invalid string length "+length);
+        }
+        byte [] bytes=new byte[length];
+        input.readFully(bytes);
+        return new String(bytes,UTF_8);
+    }
+
+    private static void writeMap(DataOutput output, Map<String,String> map) throws IOException {
+        output.writeInt(map==null ? -1:map.size());
+        if(map!=null){
+            for(Map.Entry<String,String> entry:map.entrySet()){
+                writeString(output,entry.getKey());
+                writeString(output,entry.getValue());
+            }
+        }
+    }
+
+    private static HashMap<String,String> readMap(DataInputStream input) throws IOException {
+        int size=input.readInt();
+        if(size<0){
+            return null;
+        }
+        if(size>input.available()){
+            throw new IOException("Invalid map size "+size);
+        }
+        HashMap<String,String> map=new HashMap<>();
+        for(int index=0; index<size; index++){
+            map.put(readString(input),readString(input));
+        }
+        return map;
+    }
+
+    /**
+     * Payment status is always one of PaymentConstant, other enum types are rejected rather than looked up by class name
+     */
+    private static void writeEnum(DataOutput output, Enum value) throws IOException {
+        if(value==null){
+            output.writeByte(ENUM_NONE);
+        }else if(value instanceof Furahitech.PaymentConstant){
+            output.writeByte(ENUM_PAYMENT_CONSTANT);
+            writeUTF8(output,value.name());
+        }else{
+            throw new IOException("Unsupported status type "+value.getDeclaringClass().getName());
+        }
+    }
+
+    private static Enum readEnum(DataInputStream input) throws IOException {
+        byte type=input.readByte();
+        switch (type){
+            case ENUM_NONE:
+                return null;
+            case ENUM_PAYMENT_CONSTANT:
+                String name=readUTF8(input);
+                try{
+                    return Furahitech.PaymentConstant.valueOf(name);
+                }catch (IllegalArgumentException e){
+                    throw new IOException("Unknown payment status "+name,e);
+                }
+            default:
+                throw new IOException("Unknown status type "+type);
+        }
+    }
+}
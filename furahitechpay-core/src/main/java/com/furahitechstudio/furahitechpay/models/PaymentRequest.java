@@ -0,0 +1,719 @@
+package com.furahitechstudio.furahitechpay.models;
+
+import com.furahitechstudio.furahitechpay.utils.FurahitechUtils;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentCurrency.TSH;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.COUNTRY_CODE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.COUNTRY_NAME;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.CUSTOMER_EMAIL;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.CUSTOMER_FNAME;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.CUSTOMER_LNAME;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.CUSTOMER_PHONE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.DESCRIPTION;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.MERCHANT_ACCOUNT;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.MERCHANT_KEY;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.MERCHANT_MSIDN;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.MERCHANT_PIN;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.MERCHANT_SECRET;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.OPERATION_ENV;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.OPERATOR;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.TRANS_AMOUNT;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.TRANS_CURRENCY;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.TRANS_FEE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.TRANS_LANGUAGE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.TRANS_MSID;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.TRANS_REQID;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.TRANS_TAX;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.TRANS_TOKEN;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentLanguage.SWAHILI;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>PaymentRequest</h1>
+ * <p>
+ *     PaymentRequest is responsible for holding all payment request parameters which include Merchant details,
+ *     Client details and end-points details.
+ *     Request is immutable, it is created with Builder and changed by building a new one with toBuilder(), so the same
+ *     request can be shared by concurrent payment sessions. Total amount and form fields sent to the gateways are
+ *     computed once per request.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see Builder
+ */
+public final class PaymentRequest implements Serializable{
+
+   /* Merchant details*/
+    private final String tigoMerchantNumber;
+    private final String tigoMerchantKey;
+    private final String tigoMerchantSecret;
+    private final String tigoMerchantName;
+    private final String tigoMerchantPin;
+    private final String cardMerchantKey;
+    private final String cardMerchantSecret;
+    private final String wazoHubClientID;
+    private final String wazoHubClientSecret;
+
+   /* Transaction details*/
+    private final String transactionID;
+    private final int transactionFee;
+    private final int transactionTax;
+    private final int transactionAmount;
+
+    private final String paymentType;
+    private final String paymentDesc;
+
+   /* Default setups*/
+    private final String defaultLanguage;
+    private final String defaultCountryCode;
+    private final String defaultCountryName;
+    private final String defaultCurrency;
+
+    /*Customer details*/
+    private final String customerPhone;
+    private final String customerCard;
+    private final String customerFirstName;
+    private final String customerLastName;
+    private final String customerEmailAddress;
+
+    /*Payment request and log end-points*/
+    private final String paymentRequestEndPoint;
+    private final String paymentLogsEndPoint;
+
+    private final Map<String,String> paymentExtraParam;
+
+    /*Derived fields, computed once when the request is built*/
+    private final int totalAmount;
+    private final Map<String,String> cardPaymentParam;
+    private transient volatile FormParam tigoPesaParam;
+    private transient volatile FormParam wazoPushParam;
+
+    private PaymentRequest(Builder builder){
+        this.tigoMerchantNumber=builder.tigoMerchantNumber;
+        this.tigoMerchantKey=builder.tigoMerchantKey;
+        this.tigoMerchantSecret=builder.tigoMerchantSecret;
+        this.tigoMerchantName=builder.tigoMerchantName;
+        this.tigoMerchantPin=builder.tigoMerchantPin;
+        this.transactionID=builder.transactionID;
+        this.transactionFee=builder.transactionFee;
+        this.transactionTax=builder.transactionTax;
+        this.transactionAmount=builder.transactionAmount;
+        this.defaultLanguage=builder.defaultLanguage;
+        this.defaultCountryCode=builder.defaultCountryCode;
+        this.defaultCountryName=builder.defaultCountryName;
+        this.defaultCurrency=builder.defaultCurrency;
+        this.customerPhone=builder.customerPhone;
+        this.customerCard=builder.customerCard;
+        this.customerFirstName=builder.customerFirstName;
+        this.customerLastName=builder.customerLastName;
+        this.customerEmailAddress=builder.customerEmailAddress;
+        this.paymentType=builder.paymentType;
+        this.paymentDesc=builder.paymentDesc;
+        this.paymentRequestEndPoint=builder.paymentRequestEndPoint;
+        this.wazoHubClientID=builder.wazoHubClientID;
+        this.wazoHubClientSecret=builder.wazoHubClientSecret;
+        this.paymentLogsEndPoint=builder.paymentLogsEndPoint;
+        this.cardMerchantKey=builder.cardMerchantKey;
+        this.cardMerchantSecret=builder.cardMerchantSecret;
+        this.paymentExtraParam=builder.paymentExtraParam==null ? null
+                :Collections.unmodifiableMap(new HashMap<>(builder.paymentExtraParam));
+        this.totalAmount=transactionAmount+transactionTax+transactionFee;
+        this.cardPaymentParam=buildCardPaymentParam();
+    }
+
+    /**
+     * Get builder which starts from values of this request
+     * @return Builder object
+     */
+    public Builder toBuilder(){
+        return new Builder(this);
+    }
+
+    public String getTigoMerchantNumber() {
+        return tigoMerchantNumber;
+    }
+
+    public String getTigoMerchantKey() {
+        return tigoMerchantKey;
+    }
+
+    public String getTigoMerchantSecret() {
+        return tigoMerchantSecret;
+    }
+
+    public String getTigoMerchantName() {
+        return tigoMerchantName;
+    }
+
+    public String getTigoMerchantPin() {
+        return tigoMerchantPin;
+    }
+
+    public String getTransactionID() {
+        return transactionID;
+    }
+
+    public int getTransactionFee() {
+        return transactionFee;
+    }
+
+    public int getTransactionTax() {
+        return transactionTax;
+    }
+
+    public int getTransactionAmount() {
+        return transactionAmount;
+    }
+
+    public String getDefaultLanguage() {
+        return defaultLanguage;
+    }
+
+    public String getDefaultCountryCode() {
+        return defaultCountryCode;
+    }
+
+    public String getDefaultCountryName() {
+        return defaultCountryName;
+    }
+
+    public String getDefaultCurrency() {
+        return defaultCurrency;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+
+    public String getCustomerCard() {
+        return customerCard;
+    }
+
+    public String getCustomerFirstName() {
+        return customerFirstName;
+    }
+
+    public String getCustomerLastName() {
+        return customerLastName;
+    }
+
+    public String getCustomerEmailAddress() {
+        return customerEmailAddress;
+    }
+
+    public String getPaymentType() {
+        return paymentType;
+    }
+
+    public String getPaymentDesc() {
+        return paymentDesc;
+    }
+
+    public String getPaymentRequestEndPoint() {
+        return paymentRequestEndPoint;
+    }
+
+    public String getWazoHubClientID() {
+        return wazoHubClientID;
+    }
+
+    public String getWazoHubClientSecret() {
+        return wazoHubClientSecret;
+    }
+
+    public String getPaymentLogsEndPoint() {
+        return paymentLogsEndPoint;
+    }
+
+    public String getCardMerchantKey() {
+        return cardMerchantKey;
+    }
+
+    public String getCardMerchantSecret() {
+        return cardMerchantSecret;
+    }
+
+    public Map<String, String> getPaymentExtraParam() {
+        return paymentExtraParam;
+    }
+
+    /**
+     * Get amount charged to the customer, transaction amount with tax and fee
+     * @return int: total amount
+     */
+    public int getTotalAmount() {
+        return totalAmount;
+    }
+
+    /**
+     * Get form fields of card charge request
+     * @return Map: unmodifiable form fields
+     */
+    public Map<String,String> getCardPaymentParam() {
+        return cardPaymentParam;
+    }
+
+    /**
+     * Get form fields of Tigo Pesa redirection request, fields are built once per payment environment
+     * @param paymentEnvironment Payment environment as indicated on PaymentEnvironment
+     * @return Map: unmodifiable form fields
+     */
+    public Map<String,String> getTigoPesaParam(String paymentEnvironment) {
+        FormParam param=tigoPesaParam;
+        if(param==null || !param.isFor(paymentEnvironment)){
+            param=new FormParam(paymentEnvironment,buildTigoPesaParam(paymentEnvironment));
+            tigoPesaParam=param;
+        }
+        return param.fields;
+    }
+
+    /**
+     * Get form fields of WazoHub push request, fields are built once per gateway
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @return Map: unmodifiable form fields
+     */
+    public Map<String,String> getWazoPushParam(Enum gateway) {
+        FormParam param=wazoPushParam;
+        if(param==null || !param.isFor(gateway)){
+            param=new FormParam(gateway,buildWazoPushParam(gateway));
+            wazoPushParam=param;
+        }
+        return param.fields;
+    }
+
+    private Map<String,String> buildCardPaymentParam(){
+        HashMap<String,String> data=new HashMap<>();
+        data.put(MERCHANT_KEY,cardMerchantSecret);
+        data.put(TRANS_AMOUNT,String.valueOf(totalAmount));
+        data.put(DESCRIPTION,paymentDesc);
+        data.put(TRANS_TOKEN,transactionID);
+        data.put(TRANS_CURRENCY,defaultCurrency);
+        data.put(CUSTOMER_EMAIL,customerEmailAddress);
+        return Collections.unmodifiableMap(data);
+    }
+
+    private Map<String,String> buildTigoPesaParam(String paymentEnvironment){
+        HashMap<String,String> data=new HashMap<>();
+        data.put(MERCHANT_KEY,tigoMerchantKey);
+        data.put(MERCHANT_SECRET,tigoMerchantSecret);
+        data.put(MERCHANT_ACCOUNT,tigoMerchantName);
+        data.put(MERCHANT_MSIDN,tigoMerchantNumber);
+        data.put(MERCHANT_PIN,tigoMerchantPin);
+        data.put(TRANS_AMOUNT,String.valueOf(totalAmount));
+        data.put(TRANS_TOKEN,transactionID);
+        data.put(TRANS_CURRENCY,defaultCurrency);
+        data.put(TRANS_TAX,String.valueOf(transactionTax));
+        data.put(TRANS_FEE,String.valueOf(transactionFee));
+        data.put(TRANS_LANGUAGE,defaultLanguage);
+        data.put(OPERATION_ENV,paymentEnvironment);
+        data.put(COUNTRY_CODE,defaultCountryCode);
+        data.put(COUNTRY_NAME,defaultCountryName);
+        data.put(CUSTOMER_FNAME,customerFirstName);
+        data.put(CUSTOMER_LNAME,customerLastName);
+        data.put(CUSTOMER_EMAIL,customerEmailAddress);
+        data.put(CUSTOMER_PHONE,customerPhone);
+        return Collections.unmodifiableMap(data);
+    }
+
+    private Map<String,String> buildWazoPushParam(Enum gateway){
+        HashMap<String,String> data=new HashMap<>();
+        data.put(TRANS_MSID,customerPhone);
+        data.put(TRANS_AMOUNT,String.valueOf(totalAmount));
+        data.put(OPERATOR,FurahitechUtils.getGatewayName(gateway).toLowerCase(Locale.US));
+        data.put(TRANS_LANGUAGE,defaultLanguage);
+        data.put(TRANS_REQID,transactionID);
+        return Collections.unmodifiableMap(data);
+    }
+
+    /**
+     * Form fields built for one value of the argument they depend on
+     */
+    private static final class FormParam{
+        private final Object key;
+        private final Map<String,String> fields;
+
+        FormParam(Object key, Map<String,String> fields){
+            this.key=key;
+            this.fields=fields;
+        }
+
+        boolean isFor(Object key){
+            return this.key==null ? key==null:this.key.equals(key);
+        }
+    }
+
+    /**
+     * Builds PaymentRequest, setters can be chained and build() can be called many times
+     */
+    public static class Builder{
+
+       /* Merchant details*/
+        private String tigoMerchantNumber;
+        private String tigoMerchantKey;
+        private String tigoMerchantSecret;
+        private String tigoMerchantName;
+        private String tigoMerchantPin;
+        private String cardMerchantKey;
+        private String cardMerchantSecret;
+        private String wazoHubClientID;
+        private String wazoHubClientSecret;
+
+       /* Transaction details*/
+        private String transactionID;
+        private int transactionFee=0;
+        private int transactionTax=0;
+        private int transactionAmount=0;
+
+        private String paymentType;
+        private String paymentDesc;
+
+       /* Default setups*/
+        private String defaultLanguage= SWAHILI;
+        private String defaultCountryCode="255";
+        private String defaultCountryName="TZA";
+        private String defaultCurrency=TSH;
+
+        /*Customer details*/
+        private String customerPhone;
+        private String customerCard;
+        private String customerFirstName;
+        private String customerLastName;
+        private String customerEmailAddress;
+
+        /*Payment request and log end-points*/
+        private String paymentRequestEndPoint;
+        private String paymentLogsEndPoint;
+
+        private Map<String,String> paymentExtraParam;
+
+        public Builder(){}
+
+        private Builder(PaymentRequest request){
+            this.tigoMerchantNumber=request.tigoMerchantNumber;
+            this.tigoMerchantKey=request.tigoMerchantKey;
+            this.tigoMerchantSecret=request.tigoMerchantSecret;
+            this.tigoMerchantName=request.tigoMerchantName;
+            this.tigoMerchantPin=request.tigoMerchantPin;
+            this.transactionID=request.transactionID;
+            this.transactionFee=request.transactionFee;
+            this.transactionTax=request.transactionTax;
+            this.transactionAmount=request.transactionAmount;
+            this.defaultLanguage=request.defaultLanguage;
+            this.defaultCountryCode=request.defaultCountryCode;
+            this.defaultCountryName=request.defaultCountryName;
+            this.defaultCurrency=request.defaultCurrency;
+            this.customerPhone=request.customerPhone;
+            this.customerCard=request.customerCard;
+            this.customerFirstName=request.customerFirstName;
+            this.customerLastName=request.customerLastName;
+            this.customerEmailAddress=request.customerEmailAddress;
+            this.paymentType=request.paymentType;
+            this.paymentDesc=request.paymentDesc;
+            this.paymentRequestEndPoint=request.paymentRequestEndPoint;
+            this.wazoHubClientID=request.wazoHubClientID;
+            this.wazoHubClientSecret=request.wazoHubClientSecret;
+            this.paymentLogsEndPoint=request.paymentLogsEndPoint;
+            this.cardMerchantKey=request.cardMerchantKey;
+            this.cardMerchantSecret=request.cardMerchantSecret;
+            this.paymentExtraParam=request.paymentExtraParam;
+        }
+
+        /**
+         * Responsible for setting up Tigo pesa merchant number as acquired from Tigo pesa office
+         * @param tigoMerchantNumber Merchant number
+         * @return Builder object
+         */
+        public Builder setTigoMerchantNumber(String tigoMerchantNumber) {
+            this.tigoMerchantNumber = tigoMerchantNumber;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up Tigo pesa merchant security key
+         * @param tigoMerchantKey merchant security key
+         * @return Builder object
+         */
+        public Builder setTigoMerchantKey(String tigoMerchantKey) {
+            this.tigoMerchantKey = tigoMerchantKey;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up Tigo-Pesa merchant secret word
+         * @param tigoMerchantSecret secret word
+         * @return Builder object
+         */
+        public Builder setTigoMerchantSecret(String tigoMerchantSecret) {
+            this.tigoMerchantSecret = tigoMerchantSecret;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up Tigo-Pesa merchant name
+         * @param tigoMerchantName merchant name
+         * @return Builder object
+         */
+        public Builder setTigoMerchantName(String tigoMerchantName) {
+            this.tigoMerchantName = tigoMerchantName;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up Tigo pesa merchant PIN
+         * @param tigoMerchantPin security PIN
+         * @return Builder object
+         */
+        public Builder setTigoMerchantPin(String tigoMerchantPin) {
+            this.tigoMerchantPin = tigoMerchantPin;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up transaction reference ID
+         * @param transactionID transaction ID
+         * @return Builder object
+         */
+        public Builder setTransactionID(String transactionID) {
+            this.transactionID = transactionID;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up transaction fee (TigoPesa policy)
+         * @param transactionFee transaction fee
+         * @return Builder object
+         */
+        public Builder setTransactionFee(int transactionFee) {
+            this.transactionFee = transactionFee;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up transaction tax (TigoPesa policy)
+         * @param transactionTax transaction tax
+         * @return Builder object
+         */
+        public Builder setTransactionTax(int transactionTax) {
+            this.transactionTax = transactionTax;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up amount to be deducted from clients account
+         * @param transactionAmount transaction amount
+         * @return Builder object
+         */
+        public Builder setTransactionAmount(int transactionAmount) {
+            this.transactionAmount = transactionAmount;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up default language to be used during transaction, default language is Swahili
+         * @param defaultLanguage language code
+         * @return Builder object
+         */
+        public Builder setDefaultLanguage(String defaultLanguage) {
+            this.defaultLanguage = defaultLanguage;
+            return this;
+        }
+
+        /**
+         * Responsible fro setting up default country code which is TZ by default
+         * @param defaultCountryCode country code
+         * @return Builder object
+         */
+        public Builder setDefaultCountryCode(String defaultCountryCode) {
+            this.defaultCountryCode = defaultCountryCode;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up country name
+         * @param defaultCountryName  country name
+         * @return Builder object
+         */
+        public Builder setDefaultCountryName(String defaultCountryName) {
+            this.defaultCountryName = defaultCountryName;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up default currency to be used during transaction, by default TZS is currency
+         * @param defaultCurrency currency code
+         * @return Builder object
+         */
+        public Builder setDefaultCurrency(String defaultCurrency) {
+            this.defaultCurrency = defaultCurrency;
+            return this;
+        }
+
+        /**
+         * Responsible to set customer phone number on Mobile payments
+         * @param customerPhone Phone number
+         * @return Builder object
+         */
+        public Builder setCustomerPhone(String customerPhone) {
+            this.customerPhone = customerPhone;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up customer's credit card on Card payments
+         * @param customerCard Card number or card token
+         * @return Builder object
+         */
+        public Builder setCustomerCard(String customerCard) {
+            this.customerCard = customerCard;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up customer first name
+         * @param customerFirstName Customer name
+         * @return Builder object
+         */
+        public Builder setCustomerFirstName(String customerFirstName) {
+            this.customerFirstName = customerFirstName;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up customer's last name
+         * @param customerLastName Customer name
+         * @return Builder object
+         */
+        public Builder setCustomerLastName(String customerLastName) {
+            this.customerLastName = customerLastName;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up customer's email address
+         * @param customerEmailAddress Customer email address
+         * @return Builder object
+         */
+        public Builder setCustomerEmailAddress(String customerEmailAddress) {
+            this.customerEmailAddress = customerEmailAddress;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up payment tye (M-Pesa, TigoPesa, Visa, Mastercard etc)
+         * @param paymentType Type name
+         * @return Builder object
+         */
+        public Builder setPaymentType(String paymentType) {
+            this.paymentType = paymentType;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up payment description
+         * @param paymentDesc Description message
+         * @return Builder object
+         */
+        public Builder setPaymentDesc(String paymentDesc) {
+            this.paymentDesc = paymentDesc;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up where all payment request will be sent
+         * @param paymentRequestEndPoint URL formatted end-point
+         * @return Builder object
+         */
+        public Builder setPaymentRequestEndPoint(String paymentRequestEndPoint) {
+            this.paymentRequestEndPoint = paymentRequestEndPoint;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up WazoHub clients ID
+         * @param wazoHubClientID merchant ID
+         * @return Builder object
+         */
+        public Builder setWazoHubClientID(String wazoHubClientID) {
+            this.wazoHubClientID = wazoHubClientID;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up WazoHub security secret word
+         * @param wazoHubClientSecret secret word
+         * @return Builder object
+         */
+        public Builder setWazoHubClientSecret(String wazoHubClientSecret) {
+            this.wazoHubClientSecret = wazoHubClientSecret;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up where your partial payment will be logged to wait for a callback
+         * @param paymentLogsEndPoint URL formatted en-point
+         * @return Builder object
+         */
+        public Builder setPaymentLogsEndPoint(String paymentLogsEndPoint) {
+            this.paymentLogsEndPoint = paymentLogsEndPoint;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up Card processor merchant security key
+         * @param cardMerchantKey security key
+         * @return Builder object
+         */
+        public Builder setCardMerchantKey(String cardMerchantKey) {
+            this.cardMerchantKey = cardMerchantKey;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up card process merchant secret word
+         * @param cardMerchantSecret secret work
+         * @return Builder object
+         */
+        public Builder setCardMerchantSecret(String cardMerchantSecret) {
+            this.cardMerchantSecret = cardMerchantSecret;
+            return this;
+        }
+
+        /**
+         * Responsible for setting up extra parameters returned back with payment status
+         * @param paymentExtraParam Extra parameters
+         * @return Builder object
+         */
+        public Builder setPaymentExtraParam(Map<String,String> paymentExtraParam) {
+            this.paymentExtraParam = paymentExtraParam;
+            return this;
+        }
+
+        public PaymentRequest build(){
+            return new PaymentRequest(this);
+        }
+    }
+}
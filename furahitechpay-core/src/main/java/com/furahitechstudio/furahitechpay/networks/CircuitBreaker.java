@@ -0,0 +1,222 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_NONE;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>CircuitBreaker</h1>
+ * <p>
+ *     CircuitBreaker guards calls to one gateway endpoint. It keeps outcome of recent calls and opens once too many of
+ *     them fail or are slow, calls then fail fast with {@link GatewayUnavailableException} instead of waiting for network
+ *     timeouts. After the open duration a few probe calls are let through (half open), their success closes the circuit.
+ *     Calls running on the endpoint at once are bounded by a bulkhead so a slow endpoint can't hold all network threads.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechGatewayHealth
+ */
+public class CircuitBreaker {
+
+    /**
+     * Circuit states
+     */
+    public enum State{
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String endPoint;
+    private final CircuitBreakerPolicy policy;
+    private final Semaphore bulkhead;
+
+    /**
+     * Outcome of recent calls, TRUE for failed or slow call
+     */
+    private final boolean [] window;
+    private int windowIndex =0, windowCount =0, windowFailures =0;
+    private int probesInFlight =0, probesSucceeded =0;
+    private long openedAt =0;
+    private State state =State.CLOSED;
+
+    CircuitBreaker(String endPoint, CircuitBreakerPolicy policy){
+        this.endPoint=endPoint;
+        this.policy=policy;
+        this.bulkhead=new Semaphore(policy.getMaxConcurrentCalls());
+        this.window=new boolean[policy.getWindowSize()];
+    }
+
+    /**
+     * Responsible for admitting a call
+     * @param mayWait TRUE to wait for a bulkhead slot up to the policy wait duration, FALSE to fail right away when it is full
+     * @return boolean: TRUE when the call is a half open probe, FALSE otherwise
+     * @throws GatewayUnavailableException when circuit is open or bulkhead is full
+     * @throws InterruptedIOException when interrupted while waiting for a slot
+     */
+    boolean acquire(boolean mayWait) throws GatewayUnavailableException, InterruptedIOException {
+        boolean isProbe;
+        State changedTo=null;
+        synchronized (this){
+            if(state==State.OPEN){
+                if(System.currentTimeMillis()-openedAt<policy.getOpenDuration()){
+                    throw new GatewayUnavailableException(endPoint,"Circuit is open");
+                }
+                changedTo=transitionTo(State.HALF_OPEN);
+            }
+            isProbe=state==State.HALF_OPEN;
+            if(isProbe){
+                if(probesInFlight+probesSucceeded>=policy.getHalfOpenProbes()){
+                    throw new GatewayUnavailableException(endPoint,"Circuit is half open");
+                }
+                probesInFlight++;
+            }
+        }
+        notifyStateChanged(changedTo);
+        try{
+            boolean isAdmitted=mayWait ? bulkhead.tryAcquire(policy.getMaxWaitDuration(),TimeUnit.MILLISECONDS):bulkhead.tryAcquire();
+            if(!isAdmitted){
+                abandonProbe(isProbe);
+                throw new GatewayUnavailableException(endPoint,"Bulkhead is full");
+            }
+        }catch (InterruptedException e){
+            abandonProbe(isProbe);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for bulkhead: "+endPoint);
+        }
+        return isProbe;
+    }
+
+    /**
+     * Responsible for recording outcome of an admitted call and releasing its bulkhead slot
+     * @param isProbe TRUE when the call was admitted as half open probe
+     * @param isFailed TRUE when the call has failed
+     * @param duration Call duration in milliseconds
+     */
+    void release(boolean isProbe, boolean isFailed, long duration){
+        bulkhead.release();
+        boolean isBad=isFailed || duration>=policy.getSlowCallThreshold();
+        State changedTo=null;
+        synchronized (this){
+            if(isProbe){
+                probesInFlight--;
+                if(state==State.HALF_OPEN){
+                    if(isBad){
+                        changedTo=transitionTo(State.OPEN);
+                    }else if(++probesSucceeded>=policy.getHalfOpenProbes()){
+                        changedTo=transitionTo(State.CLOSED);
+                    }
+                }
+            }else if(state==State.CLOSED){
+                record(isBad);
+                if(windowCount>=policy.getMinimumCalls()
+                        && windowFailures>=policy.getFailureRateThreshold()*windowCount){
+                    changedTo=transitionTo(State.OPEN);
+                }
+            }
+        }
+        notifyStateChanged(changedTo);
+    }
+
+    /**
+     * Responsible for releasing bulkhead slot of an admitted call without recording its outcome
+     * @param isProbe TRUE when the call was admitted as half open probe
+     */
+    void abandon(boolean isProbe){
+        bulkhead.release();
+        abandonProbe(isProbe);
+    }
+
+    private synchronized void abandonProbe(boolean isProbe){
+        if(isProbe){
+            probesInFlight--;
+        }
+    }
+
+    private void record(boolean isBad){
+        if(windowCount==window.length){
+            if(window[windowIndex]){
+                windowFailures--;
+            }
+        }else{
+            windowCount++;
+        }
+        window[windowIndex]=isBad;
+        if(isBad){
+            windowFailures++;
+        }
+        windowIndex=(windowIndex+1)%window.length;
+    }
+
+    private State transitionTo(State newState){
+        if(newState==State.OPEN){
+            openedAt=System.currentTimeMillis();
+        }
+        if(newState==State.CLOSED){
+            windowIndex=windowCount=windowFailures=0;
+        }
+        probesSucceeded=0;
+        state=newState;
+        return newState;
+    }
+
+    private void notifyStateChanged(State changedTo){
+        if(changedTo!=null){
+            logEvent(changedTo==State.OPEN,GATEWAY_NONE,"Circuit of {} is {}",endPoint,changedTo);
+            FurahitechGatewayHealth.getInstance().notifyStateChanged(endPoint,changedTo);
+        }
+    }
+
+    public String getEndPoint() {
+        return endPoint;
+    }
+
+    /**
+     * Get circuit state, open circuit which is due for probing is reported as half open
+     * @return State: circuit state
+     */
+    public synchronized State getState() {
+        if(state==State.OPEN && System.currentTimeMillis()-openedAt>=policy.getOpenDuration()){
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Get failure rate of calls in the rolling window
+     * @return double: rate between 0 and 1
+     */
+    public synchronized double getFailureRate(){
+        return windowCount==0 ? 0:(double) windowFailures/windowCount;
+    }
+
+    /**
+     * Get number of calls currently running on the endpoint
+     * @return int: calls in flight
+     */
+    public int getInFlightCount(){
+        return policy.getMaxConcurrentCalls()-bulkhead.availablePermits();
+    }
+}
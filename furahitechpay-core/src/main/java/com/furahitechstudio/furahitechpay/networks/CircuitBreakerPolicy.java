@@ -0,0 +1,168 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>CircuitBreakerPolicy</h1>
+ * <p>
+ *     CircuitBreakerPolicy describes when calls to a gateway endpoint are stopped and how many calls may run on it at once.
+ *     Failed calls (network errors, HTTP 5xx and 429) and calls slower than the slow call threshold are counted over a rolling
+ *     window of recent calls, once their rate reaches the failure threshold the circuit opens and calls fail fast until
+ *     the open duration has passed and probe calls succeed.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see CircuitBreaker
+ */
+public class CircuitBreakerPolicy {
+
+    private int windowSize =20;
+    private int minimumCalls =5;
+    private double failureRateThreshold =0.5;
+    private long slowCallThreshold =TimeUnit.SECONDS.toMillis(10);
+    private long openDuration =TimeUnit.SECONDS.toMillis(30);
+    private int halfOpenProbes =1;
+    private int maxConcurrentCalls =16;
+    private long maxWaitDuration =TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * Get default policy
+     * @return CircuitBreakerPolicy object
+     */
+    public static CircuitBreakerPolicy defaultPolicy(){
+        return new CircuitBreakerPolicy();
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Responsible for setting up number of recent calls which failure rate is computed from
+     * @param windowSize Number of calls
+     * @return CircuitBreakerPolicy object
+     */
+    public CircuitBreakerPolicy setWindowSize(int windowSize) {
+        this.windowSize = Math.max(1,windowSize);
+        return this;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    /**
+     * Responsible for setting up number of calls needed in the window before the circuit can open
+     * @param minimumCalls Number of calls
+     * @return CircuitBreakerPolicy object
+     */
+    public CircuitBreakerPolicy setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = Math.max(1,minimumCalls);
+        return this;
+    }
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    /**
+     * Responsible for setting up failure rate which opens the circuit
+     * @param failureRateThreshold Rate between 0 and 1
+     * @return CircuitBreakerPolicy object
+     */
+    public CircuitBreakerPolicy setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = Math.min(1,Math.max(0,failureRateThreshold));
+        return this;
+    }
+
+    public long getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    /**
+     * Responsible for setting up duration after which a call is counted as failed even when it succeeds
+     * @param slowCallThreshold Duration in milliseconds
+     * @return CircuitBreakerPolicy object
+     */
+    public CircuitBreakerPolicy setSlowCallThreshold(long slowCallThreshold) {
+        this.slowCallThreshold = Math.max(1,slowCallThreshold);
+        return this;
+    }
+
+    public long getOpenDuration() {
+        return openDuration;
+    }
+
+    /**
+     * Responsible for setting up how long calls fail fast before probe calls are let through
+     * @param openDuration Duration in milliseconds
+     * @return CircuitBreakerPolicy object
+     */
+    public CircuitBreakerPolicy setOpenDuration(long openDuration) {
+        this.openDuration = Math.max(0,openDuration);
+        return this;
+    }
+
+    public int getHalfOpenProbes() {
+        return halfOpenProbes;
+    }
+
+    /**
+     * Responsible for setting up number of probe calls which must succeed to close the circuit
+     * @param halfOpenProbes Number of calls
+     * @return CircuitBreakerPolicy object
+     */
+    public CircuitBreakerPolicy setHalfOpenProbes(int halfOpenProbes) {
+        this.halfOpenProbes = Math.max(1,halfOpenProbes);
+        return this;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * Responsible for setting up bulkhead size, number of calls which may run on the endpoint at once
+     * @param maxConcurrentCalls Number of calls
+     * @return CircuitBreakerPolicy object
+     */
+    public CircuitBreakerPolicy setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = Math.max(1,maxConcurrentCalls);
+        return this;
+    }
+
+    public long getMaxWaitDuration() {
+        return maxWaitDuration;
+    }
+
+    /**
+     * Responsible for setting up how long a call waits for a bulkhead slot before it fails.
+     * Only calls executed on caller threads (direct or executor engine) wait, calls enqueued on the shared dispatcher
+     * wait in its queue instead and fail right away when the bulkhead is full.
+     * @param maxWaitDuration Duration in milliseconds, 0 to fail right away
+     * @return CircuitBreakerPolicy object
+     */
+    public CircuitBreakerPolicy setMaxWaitDuration(long maxWaitDuration) {
+        this.maxWaitDuration = Math.max(0,maxWaitDuration);
+        return this;
+    }
+}
@@ -0,0 +1,122 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechExecutionEngine</h1>
+ * <p>
+ *     FurahitechExecutionEngine decides where network calls are executed and where their results are delivered.
+ *     <ul>
+ *         <li>{@link #pooled()} enqueue calls on the bounded shared dispatcher pool, results on the platform callback thread (main thread on Android)</li>
+ *         <li>{@link #withExecutor(Executor)} execute calls on caller supplied executor, results on that executor thread</li>
+ *         <li>{@link #direct()} execute calls synchronously on calling thread, suitable for server/JVM workers</li>
+ *     </ul>
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public abstract class FurahitechExecutionEngine {
+
+    private static final FurahitechExecutionEngine POOLED=new FurahitechExecutionEngine() {
+        @Override
+        public <T> void execute(Call<T> call, Callback<T> callback) {
+            call.enqueue(callback);
+        }
+    };
+
+    private static final FurahitechExecutionEngine DIRECT=new FurahitechExecutionEngine() {
+        @Override
+        public <T> void execute(Call<T> call, Callback<T> callback) {
+            executeNow(call,callback);
+        }
+    };
+
+    /**
+     * Execute network call and deliver its result to the callback
+     * @param call Retrofit call
+     * @param callback Result callback
+     * @param <T> Response body type
+     */
+    public abstract <T> void execute(Call<T> call, Callback<T> callback);
+
+    /**
+     * Get engine which uses the shared bounded dispatcher pool, this is default engine
+     * @return FurahitechExecutionEngine object
+     */
+    public static FurahitechExecutionEngine pooled(){
+        return POOLED;
+    }
+
+    /**
+     * Get engine which executes calls synchronously on the calling thread
+     * @return FurahitechExecutionEngine object
+     */
+    public static FurahitechExecutionEngine direct(){
+        return DIRECT;
+    }
+
+    /**
+     * Get engine which executes calls on caller supplied executor
+     * @param executor Executor to run calls on
+     * @return FurahitechExecutionEngine object
+     */
+    public static FurahitechExecutionEngine withExecutor(final Executor executor){
+        return new FurahitechExecutionEngine() {
+            @Override
+            public <T> void execute(final Call<T> call, final Callback<T> callback) {
+                try{
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            executeNow(call,callback);
+                        }
+                    });
+                }catch (RejectedExecutionException e){
+                    callback.onFailure(call,e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Execute call on the current thread and deliver the result
+     * @param call Retrofit call
+     * @param callback Result callback
+     * @param <T> Response body type
+     */
+    private static <T> void executeNow(Call<T> call, Callback<T> callback){
+        Response<T> response;
+        try{
+            response=call.execute();
+        }catch (IOException | RuntimeException e){
+            callback.onFailure(call,e);
+            return;
+        }
+        callback.onResponse(call,response);
+    }
+}
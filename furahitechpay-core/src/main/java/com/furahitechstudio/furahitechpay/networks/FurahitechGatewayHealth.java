@@ -0,0 +1,239 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import com.furahitechstudio.furahitechpay.listeners.GatewayHealthListener;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Call;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>FurahitechGatewayHealth</h1>
+ * <p>
+ *     FurahitechGatewayHealth keeps a circuit breaker for each gateway endpoint (scheme, host and port) and guards all
+ *     calls made by the library through an interceptor on the shared client. Calls to a failing endpoint fail fast and
+ *     the UI can ask which gateways are available to steer customers to a healthy one.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see CircuitBreaker
+ * @see CircuitBreakerPolicy
+ */
+public class FurahitechGatewayHealth {
+
+    /**
+     * Header of requests which are held by the server on purpose, they are not counted as slow calls.
+     * It is removed before the request is sent.
+     */
+    static final String LONG_POLL_HEADER ="X-Furahitech-Long-Poll";
+
+    private static FurahitechGatewayHealth instance;
+
+    /**
+     * Breakers keyed by endpoint, the whole map is swapped under the instance lock when policy changes
+     */
+    private volatile Map<String,CircuitBreaker> breakers =new ConcurrentHashMap<>();
+    private final List<GatewayHealthListener> listeners =new CopyOnWriteArrayList<>();
+
+    /**
+     * Requests cancelled by the library itself, their failures say nothing about endpoint health
+     */
+    private final Set<Request> cancelledRequests =Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<Request,Boolean>()));
+    private final Interceptor interceptor;
+    private volatile CircuitBreakerPolicy policy =CircuitBreakerPolicy.defaultPolicy();
+    private volatile boolean enabled =true;
+
+    private FurahitechGatewayHealth(){
+        interceptor=new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                final Request request=chain.request();
+                boolean isLongPoll=request.header(LONG_POLL_HEADER)!=null;
+                Request sentRequest=isLongPoll ? request.newBuilder().removeHeader(LONG_POLL_HEADER).build():request;
+                if(!enabled){
+                    return chain.proceed(sentRequest);
+                }
+                CircuitBreaker breaker=getCircuitBreaker(request.url());
+                //Waiting on a dispatcher thread would hold it from calls to other endpoints, those calls fail right away
+                boolean isProbe=breaker.acquire(!FurahitechNetworkHelper.isDispatcherThread());
+                long startedAt=System.currentTimeMillis();
+                Response response;
+                try{
+                    response=chain.proceed(sentRequest);
+                }catch (IOException | RuntimeException e){
+                    if(cancelledRequests.remove(request)){
+                        breaker.abandon(isProbe);
+                    }else{
+                        breaker.release(isProbe,true,isLongPoll ? 0:System.currentTimeMillis()-startedAt);
+                    }
+                    throw e;
+                }
+                breaker.release(isProbe,isFailure(response.code()),isLongPoll ? 0:System.currentTimeMillis()-startedAt);
+                return response;
+            }
+        };
+    }
+
+    public static synchronized FurahitechGatewayHealth getInstance(){
+        if(instance==null){
+            instance=new FurahitechGatewayHealth();
+        }
+        return instance;
+    }
+
+    /**
+     * Get interceptor which guards calls with circuit breaker of their endpoint
+     * @return Interceptor object
+     */
+    Interceptor getInterceptor(){
+        return interceptor;
+    }
+
+    /**
+     * Responsible for setting up policy of circuit breakers, existing breakers are replaced at once by fresh ones.
+     * Calls in flight finish on the breakers which admitted them, their outcome and bulkhead slot are not carried over,
+     * so right after the change an endpoint may run up to twice its bulkhead size.
+     * @param policy CircuitBreakerPolicy object, default policy when null
+     * @return FurahitechGatewayHealth object
+     */
+    public synchronized FurahitechGatewayHealth setPolicy(CircuitBreakerPolicy policy){
+        this.policy=policy==null ? CircuitBreakerPolicy.defaultPolicy():policy;
+        breakers=new ConcurrentHashMap<>();
+        return this;
+    }
+
+    public CircuitBreakerPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Responsible for enabling or disabling circuit breakers, disabled breakers let all calls through
+     * @param enabled TRUE to enable, FALSE otherwise
+     * @return FurahitechGatewayHealth object
+     */
+    public FurahitechGatewayHealth setEnabled(boolean enabled){
+        this.enabled=enabled;
+        return this;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void addListener(GatewayHealthListener listener){
+        listeners.add(listener);
+    }
+
+    public void removeListener(GatewayHealthListener listener){
+        listeners.remove(listener);
+    }
+
+    void notifyStateChanged(String endPoint, CircuitBreaker.State state){
+        for(GatewayHealthListener listener:listeners){
+            listener.onGatewayStateChanged(endPoint,state);
+        }
+    }
+
+    /**
+     * Responsible for cancelling a call the library no longer needs, its failure is not recorded by the circuit breaker.
+     * Calls cancelled because their time budget ran out are cancelled directly and still count as failures.
+     * @param call Retrofit call
+     */
+    void cancel(Call<?> call){
+        cancelledRequests.add(call.request());
+        call.cancel();
+    }
+
+    /**
+     * Get circuit breaker of the endpoint
+     * @param endPoint Endpoint URL
+     * @return CircuitBreaker object, null when URL is invalid
+     */
+    public CircuitBreaker getCircuitBreaker(String endPoint){
+        HttpUrl url=endPoint==null ? null:HttpUrl.parse(endPoint);
+        return url==null ? null:getCircuitBreaker(url);
+    }
+
+    private CircuitBreaker getCircuitBreaker(HttpUrl url){
+        String key=url.scheme()+"://"+url.host()+":"+url.port();
+        CircuitBreaker breaker=breakers.get(key);
+        if(breaker==null){
+            synchronized (this){
+                //Read again under the lock, policy and breakers may have been swapped meanwhile
+                breaker=breakers.get(key);
+                if(breaker==null){
+                    breaker=new CircuitBreaker(key,policy);
+                    breakers.put(key,breaker);
+                }
+            }
+        }
+        return breaker;
+    }
+
+    /**
+     * Check if the endpoint accepts calls
+     * @param endPoint Endpoint URL
+     * @return boolean: TRUE when circuit isn't open, FALSE otherwise
+     */
+    public boolean isAvailable(String endPoint){
+        if(!enabled){
+            return true;
+        }
+        CircuitBreaker breaker=getCircuitBreaker(endPoint);
+        return breaker==null || breaker.getState()!=CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Check if the gateway can be used for the payment request, i.e to offer another gateway while M-Pesa is down
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @return boolean: TRUE when gateway endpoint accepts calls, FALSE otherwise
+     */
+    public boolean isGatewayAvailable(PaymentRequest paymentRequest, Enum gateway){
+        return isAvailable(gateway==GATEWAY_MPESA ? FurahitechNetworkHelper.getWazoHubEndPoint()
+                :paymentRequest.getPaymentRequestEndPoint());
+    }
+
+    /**
+     * Responsible for resetting all circuit breakers to closed state, calls in flight finish on the old breakers
+     */
+    public synchronized void reset(){
+        breakers=new ConcurrentHashMap<>();
+    }
+
+    private static boolean isFailure(int code){
+        return code>=500 || code==429;
+    }
+}
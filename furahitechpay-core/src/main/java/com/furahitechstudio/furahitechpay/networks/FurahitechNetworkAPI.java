@@ -6,13 +6,20 @@ import com.furahitechstudio.furahitechpay.models.ModelStripe;
 import com.furahitechstudio.furahitechpay.models.ModelTigoPesa;
 import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import retrofit2.Call;
+import retrofit2.http.Body;
+import retrofit2.http.Field;
 import retrofit2.http.FieldMap;
 import retrofit2.http.FormUrlEncoded;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
+import retrofit2.http.Headers;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
+import retrofit2.http.Query;
 
 /*
  * Copyright (c) 2018 Lukundo Kileha
@@ -55,30 +62,36 @@ public interface FurahitechNetworkAPI {
     /**
      * Request for a transaction from Mobile Network Operator
      * @param transactionDetails: request param
+     * @param idempotencyKey Key which is the same on every attempt of the transaction
      * @return TransactionResponse object
      */
     @FormUrlEncoded
     @POST("api/v1/c2b/push/mpesa")
-    Call<ModelWazoHub.TransactionResponse> payWithMpesa(@FieldMap HashMap<String, String> transactionDetails);
+    Call<ModelWazoHub.TransactionResponse> payWithMpesa(@FieldMap Map<String, String> transactionDetails,
+                                                       @Header(FurahitechRetries.HEADER_IDEMPOTENCY_KEY) String idempotencyKey);
 
     /**
      * request for a transaction operation on your card
      * @param paymentDetails: request param
+     * @param idempotencyKey Key which is the same on every attempt of the transaction
      * @return PaymentStripe object
      */
     @FormUrlEncoded
     @POST("v1/card")
-    Call<ModelStripe> payWithCard(@FieldMap HashMap<String, String> paymentDetails);
+    Call<ModelStripe> payWithCard(@FieldMap Map<String, String> paymentDetails,
+                                  @Header(FurahitechRetries.HEADER_IDEMPOTENCY_KEY) String idempotencyKey);
 
     /**
      * Request for a transaction from Mobile Network Operator
      * @param paymentDetails request param
+     * @param idempotencyKey Key which is the same on every attempt of the transaction
      * @return PaymentStripe object
      */
 
     @FormUrlEncoded
     @POST("v1/tigopesa")
-    Call<ModelTigoPesa> payWithTigoPesa(@FieldMap HashMap<String, String> paymentDetails);
+    Call<ModelTigoPesa> payWithTigoPesa(@FieldMap Map<String, String> paymentDetails,
+                                        @Header(FurahitechRetries.HEADER_IDEMPOTENCY_KEY) String idempotencyKey);
 
     /**
      * Request for logging partial payment to your server an wait for the callback
@@ -89,6 +102,14 @@ public interface FurahitechNetworkAPI {
     @POST("v1/partial")
     Call<ModelLogs> logPartialPayment(@FieldMap HashMap<String, String> details);
 
+    /**
+     * Request for logging many partial payments at once
+     * @param details List of partial payment params
+     * @return ModelLogs object
+     */
+    @POST("v1/partial/batch")
+    Call<ModelLogs> logPartialPayments(@Body List<HashMap<String, String>> details);
+
     /**
      * Request for checking the status of the partial payment as logged before
      * @param uuid Payment UUID
@@ -96,4 +117,23 @@ public interface FurahitechNetworkAPI {
      */
     @GET("v1/{uuid}/partial")
     Call<ModelPartial> checkPartialPayment(@Path("uuid") String uuid);
+
+    /**
+     * Request for checking the status of many partial payments at once
+     * @param uuids Payment UUIDs
+     * @return Map of ModelPartial objects keyed by payment UUID
+     */
+    @FormUrlEncoded
+    @POST("v1/partial/status")
+    Call<HashMap<String,ModelPartial>> checkPartialPayments(@Field("uuid[]") List<String> uuids);
+
+    /**
+     * Request for the status of the partial payment which is held by the server until callback is received or timeout passes
+     * @param uuid Payment UUID
+     * @param timeout Time in seconds the server may hold the request
+     * @return ModelPartial object
+     */
+    @GET("v1/{uuid}/partial/wait")
+    @Headers(FurahitechGatewayHealth.LONG_POLL_HEADER+": true")
+    Call<ModelPartial> waitPartialPayment(@Path("uuid") String uuid, @Query("timeout") int timeout);
 }
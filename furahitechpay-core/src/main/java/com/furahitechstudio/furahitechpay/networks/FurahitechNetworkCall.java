@@ -0,0 +1,414 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import com.furahitechstudio.furahitechpay.journal.FurahitechJournal;
+import com.furahitechstudio.furahitechpay.journal.JournalRecord;
+import com.furahitechstudio.furahitechpay.listeners.CallBackListener;
+import com.furahitechstudio.furahitechpay.listeners.FurahitechBaseListener;
+import com.furahitechstudio.furahitechpay.listeners.PartialLogListener;
+import com.furahitechstudio.furahitechpay.listeners.PushMenuListener;
+import com.furahitechstudio.furahitechpay.listeners.RedirectionListener;
+import com.furahitechstudio.furahitechpay.listeners.TokenListener;
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
+import com.furahitechstudio.furahitechpay.models.ModelPartial;
+import com.furahitechstudio.furahitechpay.models.ModelStripe;
+import com.furahitechstudio.furahitechpay.models.ModelTigoPesa;
+import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.models.PaymentStatus;
+import com.furahitechstudio.furahitechpay.sessions.PaymentSession;
+import com.furahitechstudio.furahitechpay.tracing.FurahitechTracer;
+import com.furahitechstudio.furahitechpay.tracing.Span;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static com.furahitechstudio.furahitechpay.journal.JournalRecord.State.PARTIAL_LOGGED;
+import static com.furahitechstudio.furahitechpay.journal.JournalRecord.State.PUSHED;
+import static com.furahitechstudio.furahitechpay.journal.JournalRecord.State.REQUESTED;
+import static com.furahitechstudio.furahitechpay.journal.JournalRecord.State.TOKEN;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.STATUS_POLL;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.STRIPE_CHARGE;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.TIGOPESA_REDIRECT;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.TOKEN_ACQUISITION;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.WAZOHUB_PUSH;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallBackStatus.WAITING;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_STRIPE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_TIGOPESA;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_FAILURE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentEnvironment.LIVE;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getCardPayment;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getIdempotencyKey;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getPartialLogData;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getTigoPesaParam;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getWazoAuthParam;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getWazoPushParam;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechNetworkCall</h1>
+ * <p>
+ *     FurahitechNetworkCall is a class which handles all network operations, initializes request, get response and parse those response
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechNetworkAPI
+ * @see FurahitechNetworkHelper
+ */
+public class FurahitechNetworkCall {
+
+    /**
+     * Engine which executes all network calls, shared bounded pool by default
+     */
+    private static volatile FurahitechExecutionEngine executionEngine =FurahitechExecutionEngine.pooled();
+
+    /**
+     * Environment sent along with payment requests, LIVE by default
+     */
+    private static volatile String paymentEnvironment =LIVE;
+
+    /**
+     * Responsible for setting up engine which executes all network calls
+     * @param engine FurahitechExecutionEngine object, default engine when null
+     * @see FurahitechExecutionEngine
+     */
+    public static void setExecutionEngine(FurahitechExecutionEngine engine){
+        executionEngine =engine==null ? FurahitechExecutionEngine.pooled():engine;
+    }
+
+    public static FurahitechExecutionEngine getExecutionEngine(){
+        return executionEngine;
+    }
+
+    /**
+     * Responsible for setting up environment on which payments are made
+     * @param environment Payment environment as indicated on PaymentEnvironment, LIVE when null
+     */
+    public static void setPaymentEnvironment(String environment){
+        paymentEnvironment =environment==null ? LIVE:environment;
+    }
+
+    public static String getPaymentEnvironment(){
+        return paymentEnvironment;
+    }
+
+    /**
+     * Method responsible for paying the payment request with card, connectivity is not checked. Payment deadline starts here,
+     * transient failures are retried with idempotency key of the transaction.
+     * @param paymentRequest Payment request of the transaction
+     * @param furahitechBaseListener FurahitechBaseListener object
+     */
+    public static void payWithCard(final PaymentRequest paymentRequest,final FurahitechBaseListener furahitechBaseListener){
+        logEvent(false,GATEWAY_STRIPE,"Paying now...");
+        Map<String,String> param= getCardPayment(paymentRequest);
+        FurahitechNetworkAPI furahitechNetworkAPI =FurahitechNetworkHelper.getApi(paymentRequest.getPaymentRequestEndPoint());
+        Call<ModelStripe> mResponse= furahitechNetworkAPI.payWithCard(param,getIdempotencyKey(paymentRequest,GATEWAY_STRIPE));
+        final long startedAt=FurahitechMetrics.startTimer();
+        final Span span=FurahitechTracer.getInstance().startSpan(paymentRequest,GATEWAY_STRIPE,STRIPE_CHARGE);
+        FurahitechTracer.getInstance().propagate(mResponse,paymentRequest);
+        FurahitechRetries.getInstance().execute(executionEngine, mResponse, GATEWAY_STRIPE, STRIPE_CHARGE, paymentRequest,
+                FurahitechTimeouts.getInstance().startDeadline(paymentRequest), new Callback<ModelStripe>() {
+            @Override
+            public void onResponse(Call<ModelStripe> call, Response<ModelStripe> response) {
+                FurahitechMetrics.getInstance().recordLatency(GATEWAY_STRIPE,STRIPE_CHARGE,startedAt);
+                span.end(response.isSuccessful() ? null:"HTTP "+response.code());
+                ModelStripe stripeResponse=response.body();
+                if(stripeResponse!=null){
+                    logEvent(false,GATEWAY_STRIPE,"success: id={}",stripeResponse.getId());
+                    PaymentStatus status=new PaymentStatus();
+                    String amount=String.valueOf(stripeResponse.getAmount());
+                    status.setPaymentAmount(Integer.parseInt(amount.substring(0,amount.length()-2)));
+                    status.setPaymentCustomerId(paymentRequest.getCustomerEmailAddress());
+                    status.setPaymentRefId(stripeResponse.getId());
+                    status.setPaymentStatus(stripeResponse.isPaid() ? STATUS_SUCCESS :  STATUS_FAILURE);
+                    status.setPaymentTimeStamp(stripeResponse.getCreated());
+                    status.setPaymentRiskLevel(stripeResponse.getRisk());
+                    status.setPaymentGateWay(stripeResponse.getCard());
+                    furahitechBaseListener.onPaymentCompleted(status);
+                }else{
+                    furahitechBaseListener.onPaymentFailed();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ModelStripe> call, Throwable t) {
+                FurahitechMetrics.getInstance().recordLatency(GATEWAY_STRIPE,STRIPE_CHARGE,startedAt);
+                span.end(t.getMessage());
+                furahitechBaseListener.onPaymentFailed();
+                logEvent(true,GATEWAY_STRIPE,t.getMessage());
+            }
+        });
+    }
+
+
+
+    /**
+     * Responsible for checking callback status of a single transaction of the payment request, connectivity is not checked
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param uuid Payment UUID
+     * @param callBackListener Status check listener
+     */
+    public static void checkCallbackStatus(PaymentRequest paymentRequest, Enum gateway, String uuid, CallBackListener callBackListener){
+        logEvent(false,gateway,"ServerSide: checking callback status of {}",uuid);
+        requestCallbackStatus(paymentRequest.getPaymentLogsEndPoint(),gateway,uuid,callBackListener);
+    }
+
+    /**
+     * Responsible for checking callback status of the transaction tracked by the session,
+     * probes of sessions due at the same time are checked in one batch request.
+     * Unreachable server is reported to the session as a failed probe.
+     * @param session Payment session
+     * @see FurahitechStatusCoalescer
+     */
+    public static void checkCallbackStatus(final PaymentSession session){
+        logEvent(false,session.getGateway(),"ServerSide: poll={} UUID={}",session.getAttemptCount(),session.getTransactionUUID());
+        FurahitechStatusCoalescer.getInstance().enqueue(session.getPaymentRequest().getPaymentLogsEndPoint(),
+                session.getGateway(),session.getTransactionUUID(),session);
+    }
+
+    /**
+     * Responsible for checking callback status of a single transaction
+     * @param endPoint Payment logs endpoint
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param uuid Payment UUID
+     * @param callBackListener Status check listener
+     */
+    static void requestCallbackStatus(String endPoint, final Enum gateway, final String uuid, final CallBackListener callBackListener){
+        FurahitechNetworkAPI furahitechNetworkAPI =FurahitechNetworkHelper.getApi(endPoint);
+        Call<ModelPartial> mResponse= furahitechNetworkAPI.checkPartialPayment(uuid);
+        final long startedAt=FurahitechMetrics.startTimer();
+        FurahitechTimeouts.getInstance().execute(executionEngine, mResponse, STATUS_POLL, null, new Callback<ModelPartial>() {
+            @Override
+            public void onResponse(Call<ModelPartial> call, Response<ModelPartial> response) {
+                FurahitechMetrics.getInstance().recordLatency(gateway,STATUS_POLL,startedAt);
+                ModelPartial  partialPayment=response.body();
+                if(partialPayment==null){
+                    reportFailure(new IOException("HTTP "+response.code()));
+                    return;
+                }
+                logEvent(false,gateway,"checked: callback status ={} at {}",partialPayment.getCallback(),partialPayment.getCallbackTimestamp());
+                callBackListener.onReceived(true,partialPayment);
+            }
+
+            @Override
+            public void onFailure(Call<ModelPartial> call, Throwable t) {
+                FurahitechMetrics.getInstance().recordLatency(gateway,STATUS_POLL,startedAt);
+                reportFailure(t);
+            }
+
+            private void reportFailure(Throwable t){
+                logEvent(true,gateway,t.getLocalizedMessage());
+                ModelPartial partialCheck=new ModelPartial();
+                partialCheck.setCallback(WAITING);
+                partialCheck.setRefuid(uuid);
+                callBackListener.onReceived(false,partialCheck);
+            }
+        });
+    }
+
+    /**
+     * Responsible for requesting TigoPesa secure redirection URL of the payment request, connectivity is not checked.
+     * Payment deadline starts here, transient failures are retried with idempotency key of the transaction.
+     * @param paymentRequest Payment request of the transaction
+     * @param redirectionListener RedirectionListener listener
+     */
+    public static void payWithTigoPesa(final PaymentRequest paymentRequest,final RedirectionListener redirectionListener){
+        logEvent(false,GATEWAY_TIGOPESA,"Requesting secure redirection URL from TigoPesa");
+        Map<String,String> param= getTigoPesaParam(paymentRequest,paymentEnvironment);
+        FurahitechNetworkAPI furahitechNetworkAPI =FurahitechNetworkHelper.getApi(paymentRequest.getPaymentRequestEndPoint());
+        Call<ModelTigoPesa> mResponse= furahitechNetworkAPI.payWithTigoPesa(param,getIdempotencyKey(paymentRequest,GATEWAY_TIGOPESA));
+        final long startedAt=FurahitechMetrics.startTimer();
+        final Span span=FurahitechTracer.getInstance().startSpan(paymentRequest,GATEWAY_TIGOPESA,TIGOPESA_REDIRECT);
+        FurahitechTracer.getInstance().propagate(mResponse,paymentRequest);
+        FurahitechRetries.getInstance().execute(executionEngine, mResponse, GATEWAY_TIGOPESA, TIGOPESA_REDIRECT, paymentRequest,
+                FurahitechTimeouts.getInstance().startDeadline(paymentRequest), new Callback<ModelTigoPesa>() {
+            @Override
+            public void onResponse(Call<ModelTigoPesa> call, Response<ModelTigoPesa> response) {
+                FurahitechMetrics.getInstance().recordLatency(GATEWAY_TIGOPESA,TIGOPESA_REDIRECT,startedAt);
+                span.end(response.isSuccessful() ? null:"HTTP "+response.code());
+                ModelTigoPesa tigopesa=response.body();
+                if(tigopesa==null){
+                    logEvent(false,GATEWAY_TIGOPESA,"failed");
+                    redirectionListener.onRedirection(null);
+                    return;
+                }
+                logEvent(false,GATEWAY_TIGOPESA,"granted: redirectionURL={} , created: {}",tigopesa.getRedirectUrl(),tigopesa.getCreationDateTime());
+                redirectionListener.onRedirection(tigopesa);
+            }
+
+            @Override
+            public void onFailure(Call<ModelTigoPesa> call, Throwable t) {
+                FurahitechMetrics.getInstance().recordLatency(GATEWAY_TIGOPESA,TIGOPESA_REDIRECT,startedAt);
+                span.end(t.getMessage());
+                logEvent(true,GATEWAY_TIGOPESA,t.getMessage());
+                redirectionListener.onRedirection(null);
+            }
+        });
+    }
+
+
+
+    /**
+     * Responsible for initializing push message of the payment request within its deadline, connectivity is not checked.
+     * Transient failures are retried with idempotency key of the transaction.
+     * @param paymentRequest Payment request of the transaction
+     * @param gateWay:  Gateway type (GATEWAY_TYPE_MPESA)
+     * @param authToken: Authentication token
+     * @param pushListener PaymentPushListener listener
+     */
+    public static void payWithWazoHub(final PaymentRequest paymentRequest, final Enum gateWay, final String authToken, final PushMenuListener pushListener){
+        logEvent(false,gateWay,"initialize payment to WazoHub");
+        FurahitechJournal.getInstance().append(JournalRecord.of(TOKEN,paymentRequest,gateWay,null,null));
+        Map<String,String> param= getWazoPushParam(gateWay,paymentRequest);
+        FurahitechNetworkAPI furahitechNetworkAPI =FurahitechNetworkHelper.getApi(null,authToken);
+        Call<ModelWazoHub.TransactionResponse> mResponse= furahitechNetworkAPI.payWithMpesa(param,getIdempotencyKey(paymentRequest,gateWay));
+        final long startedAt=FurahitechMetrics.startTimer();
+        final Span span=FurahitechTracer.getInstance().startSpan(paymentRequest,gateWay,WAZOHUB_PUSH);
+        FurahitechTracer.getInstance().propagate(mResponse,paymentRequest);
+        FurahitechRetries.getInstance().execute(executionEngine, mResponse, gateWay, WAZOHUB_PUSH, paymentRequest,
+                FurahitechTimeouts.getInstance().getDeadline(paymentRequest), new Callback<ModelWazoHub.TransactionResponse>() {
+            @Override
+            public void onResponse(Call<ModelWazoHub.TransactionResponse> call, Response<ModelWazoHub.TransactionResponse> response) {
+                FurahitechMetrics.getInstance().recordLatency(gateWay,WAZOHUB_PUSH,startedAt);
+                span.end(response.isSuccessful() ? null:"HTTP "+response.code());
+                if(response.code()==HTTP_UNAUTHORIZED){
+                    logEvent(true,gateWay,"Auth token rejected, removed from cache");
+                    FurahitechTokenCache.getInstance().invalidate(authToken);
+                    pushListener.onPushFailed();
+                    return;
+                }
+                ModelWazoHub.TransactionResponse transResponse=response.body();
+                if(transResponse==null){
+                    logEvent(true,gateWay,"Push rejected: HTTP Code: {}",response.code());
+                    pushListener.onPushFailed();
+                    return;
+                }
+                logEvent(false,gateWay,"initialized:  UID={} , HTTP Code: {}",transResponse.getUid(),transResponse.getCode());
+                FurahitechJournal.getInstance().append(JournalRecord.of(PUSHED,paymentRequest,gateWay,transResponse.getUid(),transResponse.getCode()));
+                pushListener.onPushInitiated(transResponse);
+            }
+
+            @Override
+            public void onFailure(Call<ModelWazoHub.TransactionResponse> call, Throwable t) {
+                FurahitechMetrics.getInstance().recordLatency(gateWay,WAZOHUB_PUSH,startedAt);
+                span.end(t.getMessage());
+                logEvent(true,gateWay,t.getMessage());
+                pushListener.onPushFailed();
+            }
+        });
+    }
+
+
+    /**
+     * Responsible for logging partial payment of the payment request to own server, log is queued on the outbox
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway type (GATEWAY_TYPE_MPESA)
+     * @param response Transaction response from WazoHub
+     * @param partialLogListener Listener notified once the log is queued
+     */
+    public static void logPartialPaymentForCallback(PaymentRequest paymentRequest, Enum gateway, ModelWazoHub.TransactionResponse response, PartialLogListener partialLogListener){
+        logEvent(false,gateway,"Log partial payment to own server");
+        HashMap<String,String> param= getPartialLogData(gateway,paymentRequest,response);
+        FurahitechOutbox.getInstance().enqueue(paymentRequest.getPaymentLogsEndPoint(),gateway,param);
+        FurahitechJournal.getInstance().append(JournalRecord.of(PARTIAL_LOGGED,paymentRequest,gateway,response.getUid(),null));
+        partialLogListener.onPartialPaymentLogged(true);
+    }
+
+
+    /**
+     * Responsible for requesting authentication token of the payment request, cached token is used when still valid.
+     * Payment deadline starts here, connectivity is not checked.
+     * @param paymentRequest Payment request with WazoHub credentials
+     * @param wazoScope WazoHub scope
+     * @param gateWay: Gateway type (GATEWAY_TYPE_MPESA)
+     * @param tokenListener PaymentTokenListener listener
+     */
+    public static void initiateWazoHubPayments(PaymentRequest paymentRequest, String wazoScope, Enum gateWay, TokenListener tokenListener){
+        FurahitechTimeouts.getInstance().startDeadline(paymentRequest);
+        FurahitechJournal.getInstance().append(JournalRecord.of(REQUESTED,paymentRequest,gateWay,null,null));
+        FurahitechTokenCache tokenCache=FurahitechTokenCache.getInstance();
+        String tokenKey=FurahitechTokenCache.keyOf(paymentRequest.getWazoHubClientID(),wazoScope);
+        ModelWazoHub.AuthenticationResponse cachedToken=tokenCache.getValidToken(tokenKey);
+        if(cachedToken!=null){
+            logEvent(false,gateWay,"Using cached auth token");
+            if(tokenCache.isRefreshDue(tokenKey) && tokenCache.join(tokenKey,null)){
+                logEvent(false,gateWay,"Refreshing auth token in background");
+                requestAccessToken(paymentRequest,wazoScope,gateWay,tokenKey);
+            }
+            tokenListener.onTokenReceived(cachedToken);
+        }else if(tokenCache.join(tokenKey,tokenListener)){
+            requestAccessToken(paymentRequest,wazoScope,gateWay,tokenKey);
+        }else{
+            logEvent(false,gateWay,"Waiting for running auth token request");
+        }
+    }
+
+    /**
+     * Request new authentication token from WazoHUB and hand it over to the token cache
+     * @param paymentRequest Payment request with WazoHub credentials
+     * @param wazoScope WazoHub scope
+     * @param gateWay Gateway type (GATEWAY_TYPE_MPESA)
+     * @param tokenKey Token cache key
+     */
+    private static void requestAccessToken(PaymentRequest paymentRequest, String wazoScope, final Enum gateWay, final String tokenKey){
+        logEvent(false,gateWay,"Requesting auth token from WazoHub...");
+        HashMap<String,String> param= getWazoAuthParam(paymentRequest,wazoScope);
+        FurahitechNetworkAPI furahitechNetworkAPI =FurahitechNetworkHelper.getApi(FurahitechNetworkHelper.getWazoHubEndPoint());
+        Call<ModelWazoHub.AuthenticationResponse> mResponse= furahitechNetworkAPI.requestAccessToken(param);
+        final long startedAt=FurahitechMetrics.startTimer();
+        final Span span=FurahitechTracer.getInstance().startSpan(paymentRequest,gateWay,TOKEN_ACQUISITION);
+        FurahitechTracer.getInstance().propagate(mResponse,paymentRequest);
+        //Token request is shared by waiting payments, it is bounded by its stage timeout only
+        FurahitechTimeouts.getInstance().execute(executionEngine, mResponse, TOKEN_ACQUISITION, null, new Callback<ModelWazoHub.AuthenticationResponse>() {
+            @Override
+            public void onResponse(Call<ModelWazoHub.AuthenticationResponse> call, Response<ModelWazoHub.AuthenticationResponse> response) {
+                FurahitechMetrics.getInstance().recordLatency(gateWay,TOKEN_ACQUISITION,startedAt);
+                span.end(response.isSuccessful() ? null:"HTTP "+response.code());
+                ModelWazoHub.AuthenticationResponse authResponse=response.body();
+                if(authResponse!=null && authResponse.getAccess_token()!=null){
+                    logEvent(false,gateWay,"Acquired: token={}  , Expires in: {}",authResponse.getAccess_token(),authResponse.getExpires_in());
+                    FurahitechTokenCache.getInstance().complete(tokenKey,authResponse);
+                }else{
+                    logEvent(true,gateWay,"Token request rejected: HTTP Code: {}",response.code());
+                    FurahitechTokenCache.getInstance().fail(tokenKey);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ModelWazoHub.AuthenticationResponse> call, Throwable t) {
+                FurahitechMetrics.getInstance().recordLatency(gateWay,TOKEN_ACQUISITION,startedAt);
+                span.end(t.getMessage());
+                logEvent(true,gateWay,t.getMessage());
+                FurahitechTokenCache.getInstance().fail(tokenKey);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,288 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+
+import com.furahitechstudio.furahitechpay.tracing.FurahitechTracer;
+import com.google.gson.Gson;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.GATEWAY_WAZOHUB_ENDPOINT;
+
+
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechNetworkHelper</h1>
+ * <p>
+ *     FurahitechNetworkHelper is a process wide registry which builds the request stack to support on all network operations.
+ *     All clients share one OkHttpClient (one connection pool and dispatcher) and API proxies are cached per base URL and auth mode.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public final class FurahitechNetworkHelper {
+
+    /**
+     * Registry key separator and auth modes
+     */
+    private static final String KEY_SEPARATOR ="|", AUTH_NONE="none", AUTH_BEARER="bearer:";
+
+    /**
+     * Maximum number of network calls running at once on the shared dispatcher, the rest wait in dispatcher queue
+     */
+    private static final int MAX_CONCURRENT_CALLS =8;
+
+    /**
+     * Maximum number of network calls running at once on one host, threads are left for other hosts when one is degraded
+     */
+    private static final int MAX_CONCURRENT_CALLS_PER_HOST =MAX_CONCURRENT_CALLS-2;
+
+    /**
+     * Socket timeouts in seconds, whole call is bounded by its operation budget
+     * @see FurahitechTimeouts
+     */
+    private static final int CONNECT_TIMEOUT =15, SOCKET_TIMEOUT =60;
+
+    /**
+     * Shared Gson converter, it is thread safe and expensive to build
+     */
+    private static final GsonConverterFactory converterFactory =GsonConverterFactory.create(new Gson());
+
+    /**
+     * Cached API proxies keyed by base URL and auth mode
+     */
+    private static final Map<String,FurahitechNetworkAPI> apiRegistry =new ConcurrentHashMap<>();
+
+    private static OkHttpClient sharedClient;
+
+    private static volatile String wazoHubEndPoint =GATEWAY_WAZOHUB_ENDPOINT;
+
+    private FurahitechNetworkHelper(){}
+
+    /**
+     * Responsible for setting up WazoHub base URL, used to point the library at a sandbox or a local gateway simulator
+     * @param endPoint WazoHub base URL, default endpoint when null
+     */
+    public static void setWazoHubEndPoint(String endPoint){
+        wazoHubEndPoint =endPoint==null ? GATEWAY_WAZOHUB_ENDPOINT:endPoint;
+    }
+
+    public static String getWazoHubEndPoint() {
+        return wazoHubEndPoint;
+    }
+
+    /**
+     * Get shared OkHttp client, all derived clients reuse its connection pool and dispatcher
+     * @return OkHttpClient object
+     */
+    static synchronized OkHttpClient getSharedClient(){
+        if(sharedClient==null){
+            sharedClient=new OkHttpClient.Builder()
+                    .connectionPool(new ConnectionPool(5, 5, TimeUnit.MINUTES))
+                    .dispatcher(newBoundedDispatcher())
+                    .addInterceptor(FurahitechGatewayHealth.getInstance().getInterceptor())
+                    .addInterceptor(FurahitechTracer.getInstance().getInterceptor())
+                    .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
+                    .readTimeout(SOCKET_TIMEOUT, TimeUnit.SECONDS)
+                    .writeTimeout(SOCKET_TIMEOUT, TimeUnit.SECONDS)
+                    .build();
+        }
+        return sharedClient;
+    }
+
+    /**
+     * Build dispatcher backed by a cached pool of daemon threads, concurrency is bounded by dispatcher limits.
+     * Pool itself must never reject: a finishing call still holds its thread while dispatcher promotes the next one,
+     * rejected calls would stay counted as running and never get their callbacks.
+     * @return Dispatcher object
+     */
+    static Dispatcher newBoundedDispatcher(){
+        final AtomicInteger threadCount=new AtomicInteger();
+        ThreadPoolExecutor executor=new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread=new DispatcherThread(runnable,"FurahitechPay Dispatcher-"+threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        Dispatcher dispatcher=new Dispatcher(executor);
+        dispatcher.setMaxRequests(MAX_CONCURRENT_CALLS);
+        dispatcher.setMaxRequestsPerHost(MAX_CONCURRENT_CALLS_PER_HOST);
+        return dispatcher;
+    }
+
+    /**
+     * Check if current thread belongs to the shared dispatcher, such thread must never wait since all calls share it
+     * @return boolean: TRUE when it is dispatcher thread, FALSE otherwise
+     */
+    static boolean isDispatcherThread(){
+        return Thread.currentThread() instanceof DispatcherThread;
+    }
+
+    /**
+     * Get cached API proxy with authorization
+     * @param endPoint: Your server's URL, WazoHub endpoint when null
+     * @param authorization: Auth parameter, no authorization header when null
+     * @return FurahitechNetworkAPI object
+     */
+    static FurahitechNetworkAPI getApi(String endPoint, final String authorization) {
+        String baseUrl=endPoint==null ? wazoHubEndPoint:endPoint;
+        String key=baseUrl+KEY_SEPARATOR+(authorization==null ? AUTH_NONE:AUTH_BEARER+authorization);
+        FurahitechNetworkAPI networkAPI=apiRegistry.get(key);
+        if(networkAPI==null){
+            synchronized (apiRegistry){
+                networkAPI=apiRegistry.get(key);
+                if(networkAPI==null){
+                    if(authorization!=null){
+                        //Only one bearer client per base URL, old tokens are no longer used
+                        evictBearer(baseUrl);
+                    }
+                    networkAPI=getApiClient(baseUrl,authorization).create(FurahitechNetworkAPI.class);
+                    apiRegistry.put(key,networkAPI);
+                }
+            }
+        }
+        return networkAPI;
+    }
+
+    /**
+     * Get cached API proxy with base URL as a parameter: For different base URL calls
+     * @param endPoint: Your server's URL
+     * @return FurahitechNetworkAPI object
+     */
+    static FurahitechNetworkAPI getApi(String endPoint) {
+        return getApi(endPoint,null);
+    }
+
+    /**
+     * Build retrofit instance on top of the shared client
+     * @param baseUrl: Your server's URL
+     * @param authorization: Auth parameter
+     * @return Retrofit object
+     */
+    private static Retrofit getApiClient(String baseUrl, final String authorization) {
+        OkHttpClient okHttpClient =getSharedClient();
+        if(authorization!=null){
+            okHttpClient=okHttpClient.newBuilder()
+                    .addInterceptor(new Interceptor() {
+                        @Override
+                        public Response intercept(Chain chain) throws IOException {
+                            Request newRequest  = chain.request().newBuilder()
+                                    .addHeader("Content-Type", "application/x-www-form-urlencoded")
+                                    .addHeader("Authorization", "Bearer " + authorization)
+                                    .build();
+                            return chain.proceed(newRequest);
+                        }
+                    })
+                    .build();
+        }
+
+        return new Retrofit.Builder()
+                .baseUrl(baseUrl)
+                .client(okHttpClient)
+                .addConverterFactory(converterFactory)
+                .build();
+    }
+
+    /**
+     * Remove all bearer clients registered for the base URL
+     * @param baseUrl: Server's URL
+     */
+    private static void evictBearer(String baseUrl){
+        String prefix=baseUrl+KEY_SEPARATOR+AUTH_BEARER;
+        Iterator<String> keys=apiRegistry.keySet().iterator();
+        while (keys.hasNext()){
+            if(keys.next().startsWith(prefix)){
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Evict all cached API proxies of the base URL, connections stay in the shared pool
+     * @param endPoint: Server's URL
+     */
+    public static void evict(String endPoint){
+        String prefix=endPoint+KEY_SEPARATOR;
+        Iterator<String> keys=apiRegistry.keySet().iterator();
+        while (keys.hasNext()){
+            if(keys.next().startsWith(prefix)){
+                keys.remove();
+            }
+        }
+    }
+
+    /**
+     * Evict all cached API proxies and close idle connections
+     */
+    public static void evictAll(){
+        apiRegistry.clear();
+        synchronized (FurahitechNetworkHelper.class){
+            if(sharedClient!=null){
+                sharedClient.connectionPool().evictAll();
+            }
+        }
+    }
+
+    /**
+     * Cancel running calls, release the shared client threads and connections.
+     * Next request will build a fresh client.
+     */
+    public static void shutdown(){
+        apiRegistry.clear();
+        synchronized (FurahitechNetworkHelper.class){
+            if(sharedClient!=null){
+                sharedClient.dispatcher().cancelAll();
+                sharedClient.dispatcher().executorService().shutdown();
+                sharedClient.connectionPool().evictAll();
+                sharedClient=null;
+            }
+        }
+    }
+
+    /**
+     * Thread of the shared dispatcher pool
+     */
+    private static class DispatcherThread extends Thread{
+        DispatcherThread(Runnable runnable, String name){
+            super(runnable,name);
+        }
+    }
+}
@@ -0,0 +1,458 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
+import com.furahitechstudio.furahitechpay.models.ModelLogs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.PARTIAL_LOGGING;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_NONE;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_IMPLEMENTED;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechOutbox</h1>
+ * <p>
+ *     FurahitechOutbox queues partial payment logs and delivers them to the payment logs endpoint in the background,
+ *     logs queued together are sent in one batch request and failed deliveries are retried with exponential backoff.
+ *     Queued logs are kept on disk once the outbox is opened so that they survive process death.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechNetworkAPI#logPartialPayments(List)
+ */
+public final class FurahitechOutbox {
+
+    private static final String OUTBOX_FILE ="furahitechpay.outbox", OUTBOX_TEMP_FILE ="furahitechpay.outbox.tmp";
+
+    /**
+     * Maximum number of logs sent in one batch request
+     */
+    private static final int MAX_BATCH_SIZE =20;
+
+    /**
+     * Time logs wait for others before being sent
+     */
+    private static final long BATCH_WINDOW =200;
+
+    private static final long INITIAL_BACKOFF =TimeUnit.SECONDS.toMillis(2), MAX_BACKOFF =TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * Logs which could not be delivered for this long are dropped
+     */
+    private static final long MAX_AGE =TimeUnit.DAYS.toMillis(1);
+
+    private static final FurahitechOutbox outbox =new FurahitechOutbox();
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Queued logs keyed by sequence number, accessed on the outbox thread only.
+     * Network calls run on the shared dispatcher so that the outbox thread never waits for the network
+     */
+    private final Map<Long,OutboxEntry> entries =new LinkedHashMap<>();
+
+    /**
+     * Endpoints which do not support the batch request
+     */
+    private final Set<String> unsupportedEndPoints =Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+
+    private File directory;
+
+    private long nextSequence =0;
+
+    private ScheduledFuture<?> nextDelivery;
+
+    private long nextDeliveryAt =Long.MAX_VALUE;
+
+    private volatile int pendingCount =0;
+
+    private FurahitechOutbox(){
+        executor=new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread=new Thread(runnable,"FurahitechPay Outbox");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Get outbox as singleton
+     * @return FurahitechOutbox object
+     */
+    public static FurahitechOutbox getInstance(){
+        return outbox;
+    }
+
+    /**
+     * Open outbox in the directory, logs queued before process death are loaded and delivered
+     * @param directory Directory which holds the outbox file (application files directory)
+     */
+    public void open(final File directory){
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                if(FurahitechOutbox.this.directory!=null){
+                    return;
+                }
+                FurahitechOutbox.this.directory=directory;
+                load();
+                scheduleDelivery(0);
+            }
+        });
+    }
+
+    /**
+     * Queue partial payment log for delivery
+     * @param endPoint Payment logs endpoint
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param details Partial payment params
+     */
+    void enqueue(final String endPoint, final Enum gateway, final HashMap<String,String> details){
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                OutboxEntry entry=new OutboxEntry(nextSequence++,endPoint,System.currentTimeMillis(),details);
+                entries.put(entry.sequence,entry);
+                persist();
+                logEvent(false,gateway,"Partial payment queued: pending logs={}",entries.size());
+                scheduleDelivery(BATCH_WINDOW);
+            }
+        });
+    }
+
+    /**
+     * Get number of logs waiting for delivery
+     * @return int: pending logs
+     */
+    public int getPendingCount(){
+        return pendingCount;
+    }
+
+    private void scheduleDelivery(long delay){
+        long deliverAt=System.currentTimeMillis()+delay;
+        if(nextDelivery!=null && !nextDelivery.isDone() && nextDeliveryAt<=deliverAt){
+            return;
+        }
+        if(nextDelivery!=null){
+            nextDelivery.cancel(false);
+        }
+        nextDeliveryAt=deliverAt;
+        nextDelivery=executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                nextDeliveryAt=Long.MAX_VALUE;
+                deliver();
+            }
+        },delay,TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Deliver all due logs grouped by endpoint, logs waiting on backoff are scheduled once results arrive
+     */
+    private void deliver(){
+        long now=System.currentTimeMillis();
+        Map<String,List<OutboxEntry>> dueEntries=new LinkedHashMap<>();
+        List<OutboxEntry> expired=new ArrayList<>();
+        for(OutboxEntry entry:entries.values()){
+            if(now-entry.createdAt>MAX_AGE){
+                expired.add(entry);
+            }else if(!entry.inFlight && entry.nextAttemptAt<=now){
+                List<OutboxEntry> group=dueEntries.get(entry.endPoint);
+                if(group==null){
+                    group=new ArrayList<>();
+                    dueEntries.put(entry.endPoint,group);
+                }
+                group.add(entry);
+            }
+        }
+        for(OutboxEntry entry:expired){
+            logEvent(true,GATEWAY_NONE,"Partial payment dropped after {} attempts: {}",entry.attempts,entry.details);
+            entries.remove(entry.sequence);
+        }
+        if(!expired.isEmpty()){
+            persist();
+        }
+        for(Map.Entry<String,List<OutboxEntry>> group:dueEntries.entrySet()){
+            List<OutboxEntry> pending=group.getValue();
+            for(int start=0;start<pending.size();start+=MAX_BATCH_SIZE){
+                deliverBatch(group.getKey(),new ArrayList<>(pending.subList(start,Math.min(pending.size(),start+MAX_BATCH_SIZE))));
+            }
+        }
+    }
+
+    /**
+     * Handle delivery result on the outbox thread
+     * @param batch Delivered logs
+     * @param isDelivered TRUE when server accepted the logs, FALSE when they have to be retried
+     * @param startedAt Start mark of the delivery request
+     */
+    private void onDelivered(final List<OutboxEntry> batch, final boolean isDelivered, long startedAt){
+        FurahitechMetrics.getInstance().recordLatency(GATEWAY_NONE,PARTIAL_LOGGING,startedAt);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                for(OutboxEntry entry:batch){
+                    entry.inFlight=false;
+                    if(isDelivered){
+                        entries.remove(entry.sequence);
+                    }else{
+                        entry.backoff();
+                    }
+                }
+                persist();
+                long nextAttemptAt=Long.MAX_VALUE;
+                for(OutboxEntry entry:entries.values()){
+                    if(!entry.inFlight){
+                        nextAttemptAt=Math.min(nextAttemptAt,entry.nextAttemptAt);
+                    }
+                }
+                if(nextAttemptAt!=Long.MAX_VALUE){
+                    scheduleDelivery(Math.max(0,nextAttemptAt-System.currentTimeMillis()));
+                }
+            }
+        });
+    }
+
+    private void deliverBatch(final String endPoint, final List<OutboxEntry> batch){
+        if(batch.size()==1 || unsupportedEndPoints.contains(endPoint)){
+            for(OutboxEntry entry:batch){
+                deliverSingle(endPoint,entry);
+            }
+            return;
+        }
+        List<HashMap<String,String>> details=new ArrayList<>();
+        for(OutboxEntry entry:batch){
+            entry.inFlight=true;
+            details.add(entry.details);
+        }
+        final long startedAt=FurahitechMetrics.startTimer();
+        Call<ModelLogs> mResponse=FurahitechNetworkHelper.getApi(endPoint).logPartialPayments(details);
+        FurahitechRetries.getInstance().execute(FurahitechNetworkCall.getExecutionEngine(), mResponse, GATEWAY_NONE, PARTIAL_LOGGING, null, null,
+                new Callback<ModelLogs>() {
+            @Override
+            public void onResponse(Call<ModelLogs> call, Response<ModelLogs> response) {
+                if(isDelivered(response)){
+                    logEvent(false,GATEWAY_NONE,"Partial payments logged: batch={}",batch.size());
+                    onDelivered(batch,true,startedAt);
+                }else if(isBatchUnsupported(response.code())){
+                    unsupportedEndPoints.add(endPoint);
+                    logEvent(true,GATEWAY_NONE,"Batch logging is not supported by {}, logging one by one",endPoint);
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            for(OutboxEntry entry:batch){
+                                deliverSingle(endPoint,entry);
+                            }
+                        }
+                    });
+                }else{
+                    logEvent(true,GATEWAY_NONE,"Partial payments not logged: HTTP {}",response.code());
+                    onDelivered(batch,false,startedAt);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ModelLogs> call, Throwable t) {
+                logEvent(true,GATEWAY_NONE,"Partial payments not logged: {}",t.getLocalizedMessage());
+                onDelivered(batch,false,startedAt);
+            }
+        });
+    }
+
+    private void deliverSingle(String endPoint, OutboxEntry entry){
+        final List<OutboxEntry> batch=Collections.singletonList(entry);
+        entry.inFlight=true;
+        final long startedAt=FurahitechMetrics.startTimer();
+        Call<ModelLogs> mResponse=FurahitechNetworkHelper.getApi(endPoint).logPartialPayment(entry.details);
+        FurahitechRetries.getInstance().execute(FurahitechNetworkCall.getExecutionEngine(), mResponse, GATEWAY_NONE, PARTIAL_LOGGING, null, null,
+                new Callback<ModelLogs>() {
+            @Override
+            public void onResponse(Call<ModelLogs> call, Response<ModelLogs> response) {
+                if(isDelivered(response)){
+                    logEvent(false,GATEWAY_NONE,"logged: fileName={}.json",response.body().getMessage());
+                    onDelivered(batch,true,startedAt);
+                }else{
+                    logEvent(true,GATEWAY_NONE,"Partial payment not logged: HTTP {}",response.code());
+                    onDelivered(batch,false,startedAt);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ModelLogs> call, Throwable t) {
+                logEvent(true,GATEWAY_NONE,"Partial payment not logged: {}",t.getLocalizedMessage());
+                onDelivered(batch,false,startedAt);
+            }
+        });
+    }
+
+    private static boolean isDelivered(Response<ModelLogs> response){
+        return response.isSuccessful() && response.body()!=null && !response.body().isError();
+    }
+
+    private static boolean isBatchUnsupported(int code){
+        return code==HTTP_NOT_FOUND || code==HTTP_BAD_METHOD || code==HTTP_NOT_IMPLEMENTED;
+    }
+
+    /**
+     * Load logs queued before process death
+     */
+    private void load(){
+        File file=new File(directory,OUTBOX_FILE);
+        if(!file.exists()){
+            return;
+        }
+        try{
+            DataInputStream input=new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try{
+                while (true){
+                    OutboxEntry entry;
+                    try{
+                        entry=OutboxEntry.readFrom(input,nextSequence++);
+                    }catch (EOFException e){
+                        break;
+                    }
+                    entries.put(entry.sequence,entry);
+                }
+            }finally {
+                input.close();
+            }
+            pendingCount=entries.size();
+            logEvent(false,GATEWAY_NONE,"Outbox opened: pending logs={}",entries.size());
+        }catch (IOException e){
+            logEvent(true,GATEWAY_NONE,"Outbox can't be read: {}",e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Rewrite outbox file with pending logs, nothing is written before outbox is opened
+     */
+    private void persist(){
+        pendingCount=entries.size();
+        if(directory==null){
+            return;
+        }
+        File tempFile=new File(directory,OUTBOX_TEMP_FILE);
+        try{
+            FileOutputStream fileOutput=new FileOutputStream(tempFile,false);
+            try{
+                DataOutputStream output=new DataOutputStream(new BufferedOutputStream(fileOutput));
+                for(OutboxEntry entry:entries.values()){
+                    entry.writeTo(output);
+                }
+                output.flush();
+                fileOutput.getFD().sync();
+            }finally {
+                fileOutput.close();
+            }
+            if(!tempFile.renameTo(new File(directory,OUTBOX_FILE))){
+                throw new IOException("Outbox file can't be replaced");
+            }
+        }catch (IOException e){
+            logEvent(true,GATEWAY_NONE,"Outbox can't be written: {}",e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Class which holds queued log and its delivery attempts
+     */
+    private static class OutboxEntry{
+        private final long sequence;
+        private final String endPoint;
+        private final long createdAt;
+        private final HashMap<String,String> details;
+        private int attempts=0;
+        private long nextAttemptAt=0;
+        private boolean inFlight=false;
+
+        OutboxEntry(long sequence, String endPoint, long createdAt, HashMap<String,String> details){
+            this.sequence=sequence;
+            this.endPoint=endPoint;
+            this.createdAt=createdAt;
+            this.details=details;
+        }
+
+        /**
+         * Postpone next attempt, delay doubles after every failed attempt
+         */
+        void backoff(){
+            attempts++;
+            long delay=Math.min(MAX_BACKOFF,INITIAL_BACKOFF<<Math.min(attempts-1,16));
+            nextAttemptAt=System.currentTimeMillis()+delay;
+        }
+
+        void writeTo(DataOutputStream output) throws IOException {
+            output.writeUTF(endPoint);
+            output.writeLong(createdAt);
+            output.writeInt(attempts);
+            output.writeInt(details.size());
+            for(Map.Entry<String,String> detail:details.entrySet()){
+                output.writeUTF(detail.getKey());
+                output.writeUTF(detail.getValue()==null ? "":detail.getValue());
+            }
+        }
+
+        static OutboxEntry readFrom(DataInputStream input, long sequence) throws IOException {
+            String endPoint=input.readUTF();
+            long createdAt=input.readLong();
+            int attempts=input.readInt();
+            int size=input.readInt();
+            HashMap<String,String> details=new HashMap<>();
+            for(int index=0;index<size;index++){
+                details.put(input.readUTF(),input.readUTF());
+            }
+            OutboxEntry entry=new OutboxEntry(sequence,endPoint,createdAt,details);
+            entry.attempts=attempts;
+            return entry;
+        }
+    }
+}
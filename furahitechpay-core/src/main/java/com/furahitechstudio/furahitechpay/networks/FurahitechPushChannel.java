@@ -0,0 +1,208 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import com.furahitechstudio.furahitechpay.listeners.CallBackListener;
+import com.furahitechstudio.furahitechpay.models.ModelPartial;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallbackState.STATE_RECEIVED;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_IMPLEMENTED;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechPushChannel</h1>
+ * <p>
+ *     FurahitechPushChannel waits for the callback of one transaction with HTTP long-poll requests, the server holds
+ *     every request until callback is received or its timeout passes so that the result is delivered as soon as it arrives.
+ *     Channel closes itself when the endpoint does not support long-poll or the connection fails, polling takes over from there.
+ *     It is never opened on {@link FurahitechExecutionEngine#direct()} since every hop would block the calling thread.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechNetworkAPI#waitPartialPayment(String, int)
+ */
+public final class FurahitechPushChannel {
+
+    /**
+     * Time in seconds the server may hold one long-poll request, below the client read timeout
+     */
+    private static final int WAIT_TIMEOUT =30;
+
+    /**
+     * Response faster than this without callback means the server does not hold requests
+     */
+    private static final long MIN_HOLD_TIME =TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Maximum number of channels open at once, each one holds a dispatcher slot
+     */
+    private static final int MAX_OPEN_CHANNELS =4;
+
+    private static final AtomicInteger openChannels =new AtomicInteger();
+
+    /**
+     * Endpoints which do not support long-poll
+     */
+    private static final Set<String> unsupportedEndPoints =Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+
+    private static volatile boolean isEnabled =false;
+
+    private final String endPoint;
+    private final Enum gateway;
+    private final String uuid;
+    private final CallBackListener callBackListener;
+    private volatile boolean closed=false;
+    private Call<ModelPartial> currentCall;
+
+    private FurahitechPushChannel(String endPoint, Enum gateway, String uuid, CallBackListener callBackListener){
+        this.endPoint=endPoint;
+        this.gateway=gateway;
+        this.uuid=uuid;
+        this.callBackListener=callBackListener;
+    }
+
+    /**
+     * Responsible for enabling push channel on new payment sessions
+     * @param enabled TRUE to wait for callback with long-poll, FALSE to rely on polling only
+     */
+    public static void setEnabled(boolean enabled){
+        isEnabled =enabled;
+    }
+
+    public static boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Open channel which waits for callback of the transaction
+     * @param endPoint Payment logs endpoint
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param uuid Payment UUID
+     * @param callBackListener Listener which receives the callback
+     * @return FurahitechPushChannel or null when channel can't be opened and polling has to be used
+     */
+    public static FurahitechPushChannel open(String endPoint, Enum gateway, String uuid, CallBackListener callBackListener){
+        if(!isEnabled || unsupportedEndPoints.contains(endPoint)){
+            return null;
+        }
+        if(FurahitechNetworkCall.getExecutionEngine()==FurahitechExecutionEngine.direct()){
+            //Direct engine would hold the caller for every long-poll hop, polling is used instead
+            return null;
+        }
+        if(openChannels.incrementAndGet()>MAX_OPEN_CHANNELS){
+            openChannels.decrementAndGet();
+            return null;
+        }
+        FurahitechPushChannel pushChannel=new FurahitechPushChannel(endPoint,gateway,uuid,callBackListener);
+        logEvent(false,gateway,"Push channel opened: UUID={}",uuid);
+        pushChannel.waitNext();
+        return pushChannel;
+    }
+
+    /**
+     * Check if channel is still waiting for the callback
+     * @return boolean: TRUE when connected, FALSE when closed
+     */
+    public boolean isConnected(){
+        return !closed;
+    }
+
+    /**
+     * Close channel and cancel the running request
+     */
+    public void close(){
+        Call<ModelPartial> call;
+        synchronized (this){
+            if(closed){
+                return;
+            }
+            closed=true;
+            call=currentCall;
+            currentCall=null;
+        }
+        openChannels.decrementAndGet();
+        if(call!=null){
+            FurahitechGatewayHealth.getInstance().cancel(call);
+        }
+    }
+
+    private void waitNext(){
+        final long requestedAt=System.nanoTime();
+        Call<ModelPartial> call=FurahitechNetworkHelper.getApi(endPoint).waitPartialPayment(uuid,WAIT_TIMEOUT);
+        synchronized (this){
+            if(closed){
+                return;
+            }
+            currentCall=call;
+        }
+        FurahitechNetworkCall.getExecutionEngine().execute(call, new Callback<ModelPartial>() {
+            @Override
+            public void onResponse(Call<ModelPartial> call, Response<ModelPartial> response) {
+                if(closed){
+                    return;
+                }
+                ModelPartial partialPayment=response.body();
+                if(!response.isSuccessful()){
+                    if(isLongPollUnsupported(response.code())){
+                        unsupportedEndPoints.add(endPoint);
+                    }
+                    logEvent(true,gateway,"Push channel closed: HTTP {}, polling takes over",response.code());
+                    close();
+                }else if(partialPayment!=null && STATE_RECEIVED.equalsIgnoreCase(partialPayment.getCallback())){
+                    logEvent(false,gateway,"Push channel: callback received at {}",partialPayment.getCallbackTimestamp());
+                    close();
+                    callBackListener.onReceived(true,partialPayment);
+                }else if(System.nanoTime()-requestedAt<MIN_HOLD_TIME){
+                    unsupportedEndPoints.add(endPoint);
+                    logEvent(true,gateway,"Push channel closed: server does not hold requests, polling takes over");
+                    close();
+                }else{
+                    waitNext();
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ModelPartial> call, Throwable t) {
+                if(closed){
+                    return;
+                }
+                logEvent(true,gateway,"Push channel closed: {}, polling takes over",t.getLocalizedMessage());
+                close();
+            }
+        });
+    }
+
+    private static boolean isLongPollUnsupported(int code){
+        return code==HTTP_NOT_FOUND || code==HTTP_BAD_METHOD || code==HTTP_NOT_IMPLEMENTED;
+    }
+}
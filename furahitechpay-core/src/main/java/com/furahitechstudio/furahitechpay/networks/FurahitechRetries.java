@@ -0,0 +1,224 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.tracing.FurahitechTracer;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>FurahitechRetries</h1>
+ * <p>
+ *     FurahitechRetries retries payment calls which failed for a transient reason. Every payment POST carries an
+ *     idempotency key derived from its transaction ID, the same key is sent on every attempt so the server can
+ *     recognize a retry and return the original result instead of charging again.
+ *     <ul>
+ *         <li>Connection failures, HTTP 429 and 503 are always retried, the request didn't reach processing</li>
+ *         <li>Other network errors, HTTP 502 and 504 are retried only when the call has an idempotency key</li>
+ *         <li>Open circuit, exhausted time budget and cancelled calls are never retried</li>
+ *     </ul>
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see RetryPolicy
+ */
+public final class FurahitechRetries {
+
+    /**
+     * Header which carries idempotency key of payment requests
+     */
+    public static final String HEADER_IDEMPOTENCY_KEY ="Idempotency-Key";
+
+    private static final int HTTP_TOO_MANY_REQUESTS =429, HTTP_BAD_GATEWAY =502, HTTP_UNAVAILABLE =503, HTTP_GATEWAY_TIMEOUT =504;
+
+    private static final FurahitechRetries retries =new FurahitechRetries();
+
+    private volatile RetryPolicy policy =RetryPolicy.defaultPolicy();
+
+    private FurahitechRetries(){}
+
+    public static FurahitechRetries getInstance(){
+        return retries;
+    }
+
+    /**
+     * Responsible for setting up retry policy of payment calls
+     * @param policy RetryPolicy object, default policy when null
+     * @return FurahitechRetries object
+     */
+    public FurahitechRetries setPolicy(RetryPolicy policy){
+        this.policy=policy==null ? RetryPolicy.defaultPolicy():policy;
+        return this;
+    }
+
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Execute payment call, transient failures are retried with backoff within the payment deadline.
+     * Callback receives result of the last attempt.
+     * @param engine Execution engine of the call
+     * @param call Retrofit call
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param stage Payment stage of the call
+     * @param paymentRequest Payment request of the transaction
+     * @param deadline Payment deadline, null when payment has no deadline
+     * @param callback Result callback
+     * @param <T> Response body type
+     */
+    <T> void execute(FurahitechExecutionEngine engine, Call<T> call, Enum gateway, FurahitechMetrics.Stage stage,
+                     PaymentRequest paymentRequest, PaymentDeadline deadline, Callback<T> callback){
+        attempt(new Attempt<>(engine,gateway,stage,paymentRequest,deadline,policy,callback),call,1);
+    }
+
+    private <T> void attempt(final Attempt<T> attempt, Call<T> call, final int number){
+        final boolean hasIdempotencyKey=hasIdempotencyKey(call);
+        FurahitechTimeouts.getInstance().execute(attempt.engine, call, attempt.stage, attempt.deadline, new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                int code=response.code();
+                boolean isRetryable=code==HTTP_TOO_MANY_REQUESTS || code==HTTP_UNAVAILABLE
+                        || (hasIdempotencyKey && (code==HTTP_BAD_GATEWAY || code==HTTP_GATEWAY_TIMEOUT));
+                if(!isRetryable || !retry(attempt,call,number,getRetryAfter(response),"HTTP "+code)){
+                    attempt.callback.onResponse(call,response);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                if(!isRetryable(call,t,hasIdempotencyKey) || !retry(attempt,call,number,-1,t.getMessage())){
+                    attempt.callback.onFailure(call,t);
+                }
+            }
+        });
+    }
+
+    /**
+     * Schedule next attempt of the call
+     * @return boolean: TRUE when next attempt is scheduled, FALSE when attempts or time budget are used up
+     */
+    private <T> boolean retry(final Attempt<T> attempt, Call<T> call, final int number, long retryAfter, String reason){
+        if(number>=attempt.policy.getMaxAttempts()){
+            return false;
+        }
+        long backoff=attempt.policy.getBackoff(number);
+        if(retryAfter>=0){
+            backoff=Math.min(attempt.policy.getMaxBackoff(),Math.max(backoff,retryAfter));
+        }
+        if(attempt.deadline!=null && backoff>=attempt.deadline.getRemaining()){
+            return false;
+        }
+        final Call<T> next=call.clone();
+        FurahitechTracer.getInstance().propagate(next,attempt.paymentRequest);
+        logEvent(true,attempt.gateway,"{} attempt {} failed with {}, retrying in {}ms",attempt.stage,number,reason,backoff);
+        Runnable nextAttempt=new Runnable() {
+            @Override
+            public void run() {
+                attempt(attempt,next,number+1);
+            }
+        };
+        if(attempt.engine==FurahitechExecutionEngine.direct()){
+            //Direct engine delivers results on the calling thread, it waits there
+            try{
+                Thread.sleep(backoff);
+            }catch (InterruptedException e){
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            nextAttempt.run();
+        }else{
+            FurahitechTimeouts.getInstance().schedule(nextAttempt,backoff);
+        }
+        return true;
+    }
+
+    private static boolean isRetryable(Call<?> call, Throwable t, boolean hasIdempotencyKey){
+        if(call.isCanceled() || t instanceof OperationTimeoutException || t instanceof GatewayUnavailableException){
+            return false;
+        }
+        if(t instanceof ConnectException || t instanceof UnknownHostException || t instanceof NoRouteToHostException){
+            return true;
+        }
+        return hasIdempotencyKey && t instanceof IOException;
+    }
+
+    private static boolean hasIdempotencyKey(Call<?> call){
+        try{
+            return call.request().header(HEADER_IDEMPOTENCY_KEY)!=null;
+        }catch (RuntimeException e){
+            //Request can't be built, call reports the failure once executed
+            return false;
+        }
+    }
+
+    /**
+     * Get wait requested by the server with Retry-After header
+     * @return long: wait in milliseconds, -1 when not requested
+     */
+    private static long getRetryAfter(Response<?> response){
+        String retryAfter=response.headers().get("Retry-After");
+        if(retryAfter==null){
+            return -1;
+        }
+        try{
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        }catch (NumberFormatException e){
+            //HTTP date is not supported, policy backoff is used
+            return -1;
+        }
+    }
+
+    /**
+     * Payment call which is being retried
+     */
+    private static class Attempt<T>{
+        private final FurahitechExecutionEngine engine;
+        private final Enum gateway;
+        private final FurahitechMetrics.Stage stage;
+        private final PaymentRequest paymentRequest;
+        private final PaymentDeadline deadline;
+        private final RetryPolicy policy;
+        private final Callback<T> callback;
+
+        Attempt(FurahitechExecutionEngine engine, Enum gateway, FurahitechMetrics.Stage stage, PaymentRequest paymentRequest,
+                PaymentDeadline deadline, RetryPolicy policy, Callback<T> callback){
+            this.engine=engine;
+            this.gateway=gateway;
+            this.stage=stage;
+            this.paymentRequest=paymentRequest;
+            this.deadline=deadline;
+            this.policy=policy;
+            this.callback=callback;
+        }
+    }
+}
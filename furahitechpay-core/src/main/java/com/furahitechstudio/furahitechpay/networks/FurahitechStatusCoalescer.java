@@ -0,0 +1,270 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import com.furahitechstudio.furahitechpay.listeners.CallBackListener;
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
+import com.furahitechstudio.furahitechpay.models.ModelPartial;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.STATUS_POLL;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallBackStatus.WAITING;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_NONE;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+import static java.net.HttpURLConnection.HTTP_BAD_METHOD;
+import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_NOT_IMPLEMENTED;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechStatusCoalescer</h1>
+ * <p>
+ *     FurahitechStatusCoalescer gathers callback status probes which fall due within a short window and
+ *     checks them with one batch request per payment logs endpoint.
+ *     Endpoints which do not support the batch request are remembered and checked one UUID per request.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechNetworkAPI#checkPartialPayments(List)
+ */
+public final class FurahitechStatusCoalescer {
+
+    /**
+     * Default time probes wait for others before batch request is sent
+     */
+    private static final long DEFAULT_BATCH_WINDOW =500;
+
+    private static final FurahitechStatusCoalescer statusCoalescer =new FurahitechStatusCoalescer();
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Probes waiting for the batch request, keyed by endpoint
+     */
+    private final Map<String,List<PendingProbe>> pendingProbes =new HashMap<>();
+
+    /**
+     * Endpoints which rejected the batch request
+     */
+    private final Set<String> unsupportedEndPoints =Collections.newSetFromMap(new ConcurrentHashMap<String,Boolean>());
+
+    private volatile long batchWindow =DEFAULT_BATCH_WINDOW;
+
+    private FurahitechStatusCoalescer(){
+        ScheduledThreadPoolExecutor scheduledExecutor=new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread=new Thread(runnable,"FurahitechPay Coalescer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.executor=scheduledExecutor;
+    }
+
+    /**
+     * Get status coalescer as singleton
+     * @return FurahitechStatusCoalescer object
+     */
+    public static FurahitechStatusCoalescer getInstance(){
+        return statusCoalescer;
+    }
+
+    /**
+     * Responsible for setting up time probes wait for others before batch request is sent
+     * @param batchWindow Window in milliseconds, 0 to check every probe on its own
+     */
+    public void setBatchWindow(long batchWindow){
+        this.batchWindow =Math.max(0,batchWindow);
+    }
+
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    /**
+     * Forget endpoints which rejected the batch request so that it is tried again
+     */
+    public void resetUnsupportedEndPoints(){
+        unsupportedEndPoints.clear();
+    }
+
+    /**
+     * Add probe to the batch of its endpoint, batch is sent once the window passes
+     * @param endPoint Payment logs endpoint
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param uuid Payment UUID
+     * @param callBackListener Status check listener
+     */
+    void enqueue(String endPoint, Enum gateway, String uuid, CallBackListener callBackListener){
+        long window=batchWindow;
+        if(window<=0 || unsupportedEndPoints.contains(endPoint)){
+            FurahitechNetworkCall.requestCallbackStatus(endPoint,gateway,uuid,callBackListener);
+            return;
+        }
+        synchronized (pendingProbes){
+            List<PendingProbe> probes=pendingProbes.get(endPoint);
+            if(probes==null){
+                probes=new ArrayList<>();
+                pendingProbes.put(endPoint,probes);
+                executor.schedule(new BatchFlush(endPoint),window,TimeUnit.MILLISECONDS);
+            }
+            probes.add(new PendingProbe(gateway,uuid,callBackListener));
+        }
+    }
+
+    /**
+     * Send all probes waiting on the endpoint
+     * @param endPoint Payment logs endpoint
+     */
+    private void flush(final String endPoint){
+        final List<PendingProbe> probes;
+        synchronized (pendingProbes){
+            probes=pendingProbes.remove(endPoint);
+        }
+        if(probes==null || probes.isEmpty()){
+            return;
+        }
+        if(probes.size()==1 || unsupportedEndPoints.contains(endPoint)){
+            requestEach(endPoint,probes);
+            return;
+        }
+        Set<String> uuids=new LinkedHashSet<>();
+        for(PendingProbe probe:probes){
+            uuids.add(probe.uuid);
+        }
+        logEvent(false,GATEWAY_NONE,"ServerSide: batch status check of {} payments",uuids.size());
+        Call<HashMap<String,ModelPartial>> mResponse=FurahitechNetworkHelper.getApi(endPoint)
+                .checkPartialPayments(new ArrayList<>(uuids));
+        final long startedAt=FurahitechMetrics.startTimer();
+        FurahitechTimeouts.getInstance().execute(FurahitechNetworkCall.getExecutionEngine(), mResponse, STATUS_POLL, null,
+                new Callback<HashMap<String, ModelPartial>>() {
+            @Override
+            public void onResponse(Call<HashMap<String, ModelPartial>> call, Response<HashMap<String, ModelPartial>> response) {
+                recordLatency(probes,startedAt);
+                HashMap<String,ModelPartial> statuses=response.body();
+                if(response.isSuccessful() && statuses!=null){
+                    for(PendingProbe probe:probes){
+                        ModelPartial partialPayment=statuses.get(probe.uuid);
+                        //Payment missing from the batch response has not received callback yet
+                        probe.callBackListener.onReceived(true,partialPayment==null ? waitingPartial(probe.uuid):partialPayment);
+                    }
+                }else if(isBatchUnsupported(response.code())){
+                    unsupportedEndPoints.add(endPoint);
+                    logEvent(true,GATEWAY_NONE,"Batch status check is not supported by {}, checking one by one",endPoint);
+                    requestEach(endPoint,probes);
+                }else{
+                    logEvent(true,GATEWAY_NONE,"Batch status check failed: HTTP {}",response.code());
+                    failAll(probes);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<HashMap<String, ModelPartial>> call, Throwable t) {
+                recordLatency(probes,startedAt);
+                logEvent(true,GATEWAY_NONE,t.getLocalizedMessage());
+                failAll(probes);
+            }
+        });
+    }
+
+    private static void requestEach(String endPoint, List<PendingProbe> probes){
+        for(PendingProbe probe:probes){
+            FurahitechNetworkCall.requestCallbackStatus(endPoint,probe.gateway,probe.uuid,probe.callBackListener);
+        }
+    }
+
+    /**
+     * Record latency of the batch request once for every gateway it served
+     */
+    private static void recordLatency(List<PendingProbe> probes, long startedAt){
+        Set<Enum> gateways=new LinkedHashSet<>();
+        for(PendingProbe probe:probes){
+            gateways.add(probe.gateway);
+        }
+        for(Enum gateway:gateways){
+            FurahitechMetrics.getInstance().recordLatency(gateway,STATUS_POLL,startedAt);
+        }
+    }
+
+    private static void failAll(List<PendingProbe> probes){
+        for(PendingProbe probe:probes){
+            probe.callBackListener.onReceived(false,waitingPartial(probe.uuid));
+        }
+    }
+
+    private static boolean isBatchUnsupported(int code){
+        return code==HTTP_NOT_FOUND || code==HTTP_BAD_METHOD || code==HTTP_NOT_IMPLEMENTED;
+    }
+
+    private static ModelPartial waitingPartial(String uuid){
+        ModelPartial partialCheck=new ModelPartial();
+        partialCheck.setCallback(WAITING);
+        partialCheck.setRefuid(uuid);
+        return partialCheck;
+    }
+
+    /**
+     * Class which holds a probe waiting for the batch request
+     */
+    private static class PendingProbe{
+        private final Enum gateway;
+        private final String uuid;
+        private final CallBackListener callBackListener;
+
+        PendingProbe(Enum gateway, String uuid, CallBackListener callBackListener){
+            this.gateway=gateway;
+            this.uuid=uuid;
+            this.callBackListener=callBackListener;
+        }
+    }
+
+    /**
+     * Task which sends batch of the endpoint once the window passes
+     */
+    private class BatchFlush implements Runnable{
+        private final String endPoint;
+
+        BatchFlush(String endPoint){
+            this.endPoint=endPoint;
+        }
+
+        @Override
+        public void run() {
+            flush(endPoint);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.PARTIAL_LOGGING;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.STATUS_POLL;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.STRIPE_CHARGE;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.STRIPE_TOKENIZATION;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.TIGOPESA_REDIRECT;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.TOKEN_ACQUISITION;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.WAZOHUB_PUSH;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>FurahitechTimeouts</h1>
+ * <p>
+ *     FurahitechTimeouts keeps time budget of every network operation and end to end deadline of payments.
+ *     A call which runs longer than its budget is cancelled and fails with OperationTimeoutException, budget of a payment
+ *     stage is the smaller of the stage timeout and the time left on the payment deadline.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see PaymentDeadline
+ */
+public final class FurahitechTimeouts {
+
+    /**
+     * Default end to end budget of a payment, from token request to the last status check
+     */
+    private static final long DEFAULT_PAYMENT_DEADLINE =TimeUnit.MINUTES.toMillis(2);
+
+    private static final FurahitechTimeouts timeouts =new FurahitechTimeouts();
+
+    private final Map<FurahitechMetrics.Stage,Long> stageTimeouts =new ConcurrentHashMap<>();
+
+    /**
+     * Deadlines of running payments, dropped together with their payment requests
+     */
+    private final Map<PaymentRequest,PaymentDeadline> deadlines =Collections.synchronizedMap(new WeakHashMap<PaymentRequest,PaymentDeadline>());
+
+    private final ScheduledExecutorService timer;
+
+    private volatile long paymentDeadline =DEFAULT_PAYMENT_DEADLINE;
+
+    private FurahitechTimeouts(){
+        stageTimeouts.put(TOKEN_ACQUISITION,TimeUnit.SECONDS.toMillis(15));
+        stageTimeouts.put(WAZOHUB_PUSH,TimeUnit.SECONDS.toMillis(30));
+        stageTimeouts.put(TIGOPESA_REDIRECT,TimeUnit.SECONDS.toMillis(30));
+        stageTimeouts.put(STRIPE_TOKENIZATION,TimeUnit.SECONDS.toMillis(30));
+        stageTimeouts.put(STRIPE_CHARGE,TimeUnit.SECONDS.toMillis(60));
+        stageTimeouts.put(PARTIAL_LOGGING,TimeUnit.SECONDS.toMillis(20));
+        stageTimeouts.put(STATUS_POLL,TimeUnit.SECONDS.toMillis(10));
+        timer=Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread=new Thread(runnable,"FurahitechPay Timeout Timer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public static FurahitechTimeouts getInstance(){
+        return timeouts;
+    }
+
+    /**
+     * Responsible for setting up time budget of a network operation
+     * @param stage Payment stage of the operation
+     * @param timeout Timeout in milliseconds
+     * @return FurahitechTimeouts object
+     */
+    public FurahitechTimeouts setTimeout(FurahitechMetrics.Stage stage, long timeout){
+        stageTimeouts.put(stage,Math.max(1,timeout));
+        return this;
+    }
+
+    /**
+     * Get time budget of a network operation
+     * @param stage Payment stage of the operation
+     * @return long: timeout in milliseconds
+     */
+    public long getTimeout(FurahitechMetrics.Stage stage){
+        return stageTimeouts.get(stage);
+    }
+
+    /**
+     * Responsible for setting up end to end budget of new payments
+     * @param paymentDeadline Budget in milliseconds, 0 for payments without deadline
+     * @return FurahitechTimeouts object
+     */
+    public FurahitechTimeouts setPaymentDeadline(long paymentDeadline){
+        this.paymentDeadline=Math.max(0,paymentDeadline);
+        return this;
+    }
+
+    public long getPaymentDeadline() {
+        return paymentDeadline;
+    }
+
+    /**
+     * Responsible for starting deadline of the payment, previous deadline of the payment request is replaced
+     * @param paymentRequest Payment request of the transaction
+     * @return PaymentDeadline object, null when payments have no deadline
+     */
+    public PaymentDeadline startDeadline(PaymentRequest paymentRequest){
+        PaymentDeadline deadline=paymentDeadline>0 ? new PaymentDeadline(paymentDeadline):null;
+        PaymentDeadline previous=deadline==null ? deadlines.remove(paymentRequest):deadlines.put(paymentRequest,deadline);
+        if(previous!=null){
+            previous.cancel();
+        }
+        if(deadline!=null){
+            deadline.schedule(timer);
+        }
+        return deadline;
+    }
+
+    /**
+     * Get deadline of the payment
+     * @param paymentRequest Payment request of the transaction
+     * @return PaymentDeadline object, null when payment has no deadline
+     */
+    public PaymentDeadline getDeadline(PaymentRequest paymentRequest){
+        return deadlines.get(paymentRequest);
+    }
+
+    /**
+     * Responsible for moving running deadline to the rebuilt payment request
+     * @param paymentRequest Payment request the deadline was started with
+     * @param rebuilt Payment request which replaces it
+     * @see com.furahitechstudio.furahitechpay.tracing.FurahitechTracer#rebind(PaymentRequest, PaymentRequest)
+     */
+    public void rebind(PaymentRequest paymentRequest, PaymentRequest rebuilt){
+        if(paymentRequest==null || rebuilt==null || paymentRequest==rebuilt){
+            return;
+        }
+        synchronized (deadlines){
+            PaymentDeadline deadline=deadlines.remove(paymentRequest);
+            if(deadline!=null){
+                deadlines.put(rebuilt,deadline);
+            }
+        }
+    }
+
+    /**
+     * Responsible for ending deadline of a completed payment
+     * @param paymentRequest Payment request of the transaction
+     */
+    public void endDeadline(PaymentRequest paymentRequest){
+        PaymentDeadline deadline=deadlines.remove(paymentRequest);
+        if(deadline!=null){
+            deadline.cancel();
+        }
+    }
+
+    /**
+     * Responsible for running task after a delay on the timeout timer
+     * @param task Task to run, it must not block
+     * @param delay Delay in milliseconds
+     * @return ScheduledFuture of the task
+     */
+    ScheduledFuture<?> schedule(Runnable task, long delay){
+        return timer.schedule(task,delay,TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Execute network call within its stage budget and payment deadline
+     * @param engine Execution engine of the call
+     * @param call Retrofit call
+     * @param stage Payment stage of the call
+     * @param deadline Payment deadline, null for calls which don't belong to one payment
+     * @param callback Result callback
+     * @param <T> Response body type
+     */
+    <T> void execute(FurahitechExecutionEngine engine, Call<T> call, FurahitechMetrics.Stage stage, PaymentDeadline deadline, Callback<T> callback){
+        if(deadline!=null && deadline.isExpired()){
+            callback.onFailure(call,new OperationTimeoutException("Payment deadline exceeded before "+stage));
+            return;
+        }
+        engine.execute(call,guard(call,stage,deadline,callback));
+    }
+
+    /**
+     * Get callback which delivers result of the call and cancels the call once its budget runs out
+     * @param call Retrofit call
+     * @param stage Payment stage of the call
+     * @param deadline Payment deadline, null for calls which don't belong to one payment
+     * @param callback Result callback
+     * @param <T> Response body type
+     * @return Callback to execute the call with
+     */
+    <T> Callback<T> guard(final Call<T> call, final FurahitechMetrics.Stage stage, PaymentDeadline deadline, final Callback<T> callback){
+        final long budget=deadline==null ? getTimeout(stage):Math.min(getTimeout(stage),deadline.getRemaining());
+        final ScheduledFuture<?> watchdog=timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                call.cancel();
+            }
+        },budget,TimeUnit.MILLISECONDS);
+        return new Callback<T>() {
+            @Override
+            public void onResponse(Call<T> call, Response<T> response) {
+                watchdog.cancel(false);
+                callback.onResponse(call,response);
+            }
+
+            @Override
+            public void onFailure(Call<T> call, Throwable t) {
+                boolean isTimedOut=watchdog.isDone() && !watchdog.isCancelled();
+                watchdog.cancel(false);
+                callback.onFailure(call,isTimedOut ? new OperationTimeoutException(stage+" timed out after "+budget+"ms"):t);
+            }
+        };
+    }
+}
@@ -0,0 +1,203 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import com.furahitechstudio.furahitechpay.listeners.TokenListener;
+import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechTokenCache</h1>
+ * <p>
+ *     FurahitechTokenCache keeps WazoHub access tokens per client ID and scope so that they are reused until they expire.
+ *     Tokens close to expiry are refreshed in the background while the cached one is still served and
+ *     concurrent token requests for the same key are merged into a single network request.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public final class FurahitechTokenCache {
+
+    /**
+     * Token is not served when it has less than this time left
+     */
+    private static final long EXPIRY_SAFETY_MARGIN =TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * Fraction of token lifetime after which background refresh starts
+     */
+    private static final double REFRESH_AHEAD_RATIO =0.75;
+
+    /**
+     * Background refresh starts at least this time before token stops being served, for short lived tokens
+     */
+    private static final long REFRESH_LEAD_TIME =TimeUnit.SECONDS.toNanos(10);
+
+    private static final FurahitechTokenCache tokenCache =new FurahitechTokenCache();
+
+    private final Map<String,CachedToken> tokens=new HashMap<>();
+
+    private final Map<String,List<TokenListener>> pendingRequests =new HashMap<>();
+
+    private FurahitechTokenCache(){}
+
+    /**
+     * Get token cache as singleton
+     * @return FurahitechTokenCache object
+     */
+    public static FurahitechTokenCache getInstance(){
+        return tokenCache;
+    }
+
+    /**
+     * Build cache key from client ID and scope
+     * @param clientId WazoHub client ID
+     * @param scope WazoHub scope
+     * @return String: cache key
+     */
+    static String keyOf(String clientId, String scope){
+        return clientId+"|"+scope;
+    }
+
+    /**
+     * Get token which is still valid for use
+     * @param key cache key
+     * @return AuthenticationResponse or null when there is no valid token
+     */
+    synchronized ModelWazoHub.AuthenticationResponse getValidToken(String key){
+        CachedToken cachedToken=tokens.get(key);
+        if(cachedToken==null){
+            return null;
+        }
+        if(System.nanoTime() >= cachedToken.expiresAt){
+            tokens.remove(key);
+            return null;
+        }
+        return cachedToken.response;
+    }
+
+    /**
+     * Check if the cached token is close to expiry and has to be refreshed
+     * @param key cache key
+     * @return TRUE when refresh is due and no request is running, FALSE otherwise
+     */
+    synchronized boolean isRefreshDue(String key){
+        CachedToken cachedToken=tokens.get(key);
+        return cachedToken!=null && !pendingRequests.containsKey(key) && System.nanoTime() >= cachedToken.refreshAt;
+    }
+
+    /**
+     * Wait for a token request of the key, listener is notified once the request completes
+     * @param key cache key
+     * @param listener TokenListener, null for background refresh
+     * @return TRUE when caller has to start the network request, FALSE when joined running request
+     */
+    synchronized boolean join(String key, TokenListener listener){
+        List<TokenListener> listeners= pendingRequests.get(key);
+        boolean isFirst=listeners==null;
+        if(isFirst){
+            listeners=new ArrayList<>();
+            pendingRequests.put(key,listeners);
+        }
+        if(listener!=null){
+            listeners.add(listener);
+        }
+        return isFirst;
+    }
+
+    /**
+     * Store received token and notify all waiting listeners
+     * @param key cache key
+     * @param response Authentication response
+     */
+    void complete(String key, ModelWazoHub.AuthenticationResponse response){
+        List<TokenListener> listeners;
+        synchronized (this){
+            if(response.getExpires_in() > 0){
+                tokens.put(key,new CachedToken(response));
+            }
+            listeners= pendingRequests.remove(key);
+        }
+        if(listeners!=null){
+            for(TokenListener listener:listeners){
+                listener.onTokenReceived(response);
+            }
+        }
+    }
+
+    /**
+     * Notify all waiting listeners that token request failed
+     * @param key cache key
+     */
+    void fail(String key){
+        List<TokenListener> listeners;
+        synchronized (this){
+            listeners= pendingRequests.remove(key);
+        }
+        if(listeners!=null){
+            for(TokenListener listener:listeners){
+                listener.onFailed();
+            }
+        }
+    }
+
+    /**
+     * Remove token which was rejected by the server
+     * @param accessToken rejected access token
+     */
+    public synchronized void invalidate(String accessToken){
+        Iterator<CachedToken> iterator=tokens.values().iterator();
+        while (iterator.hasNext()){
+            if(iterator.next().response.getAccess_token().equals(accessToken)){
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Remove all cached tokens
+     */
+    public synchronized void clear(){
+        tokens.clear();
+    }
+
+    /**
+     * Class which holds token and its lifetime marks
+     */
+    private static class CachedToken{
+        private final ModelWazoHub.AuthenticationResponse response;
+        private final long expiresAt, refreshAt;
+
+        CachedToken(ModelWazoHub.AuthenticationResponse response){
+            //expires_in is treated as seconds (OAuth), shorter than minutes hence safe either way
+            long lifetime=TimeUnit.SECONDS.toNanos(response.getExpires_in());
+            long now=System.nanoTime();
+            this.response=response;
+            this.expiresAt=now+Math.max(0,lifetime-EXPIRY_SAFETY_MARGIN);
+            this.refreshAt=Math.min(now+(long)(lifetime*REFRESH_AHEAD_RATIO),expiresAt-REFRESH_LEAD_TIME);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import java.io.IOException;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>GatewayUnavailableException</h1>
+ * <p>
+ *     GatewayUnavailableException is failure of a call which was not sent because circuit of the endpoint is open or its
+ *     bulkhead is full. It is delivered to the same failure callbacks as network errors.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechGatewayHealth
+ */
+public class GatewayUnavailableException extends IOException {
+
+    private final String endPoint;
+
+    public GatewayUnavailableException(String endPoint, String message) {
+        super(message+": "+endPoint);
+        this.endPoint=endPoint;
+    }
+
+    public String getEndPoint() {
+        return endPoint;
+    }
+}
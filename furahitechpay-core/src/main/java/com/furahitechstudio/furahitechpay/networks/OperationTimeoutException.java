@@ -0,0 +1,39 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import java.io.InterruptedIOException;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>OperationTimeoutException</h1>
+ * <p>
+ *     OperationTimeoutException is failure of a call which ran out of its operation budget or payment deadline,
+ *     such call is not retried.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechTimeouts
+ */
+public class OperationTimeoutException extends InterruptedIOException {
+
+    public OperationTimeoutException(String message) {
+        super(message);
+    }
+}
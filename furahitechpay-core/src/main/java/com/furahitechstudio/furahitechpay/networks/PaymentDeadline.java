@@ -0,0 +1,108 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>PaymentDeadline</h1>
+ * <p>
+ *     PaymentDeadline is the end to end time budget of one payment. Every stage gets the smaller of its own timeout and
+ *     the time left on the deadline, so the budget shrinks as stages complete. Once it expires calls of the payment are
+ *     cancelled and its payment session ends with TIMEOUT status.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechTimeouts
+ */
+public class PaymentDeadline {
+
+    private final long expiresAt;
+    private final List<Runnable> expiryListeners =new CopyOnWriteArrayList<>();
+    private volatile ScheduledFuture<?> expiryTask;
+    private volatile boolean expired =false;
+
+    PaymentDeadline(long budget){
+        this.expiresAt=System.currentTimeMillis()+budget;
+    }
+
+    void schedule(ScheduledExecutorService timer){
+        expiryTask=timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                expire();
+            }
+        },getRemaining(),TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop tracking the deadline, expiry listeners are not notified
+     */
+    void cancel(){
+        ScheduledFuture<?> task=expiryTask;
+        if(task!=null){
+            task.cancel(false);
+        }
+        expiryListeners.clear();
+    }
+
+    private void expire(){
+        expired=true;
+        for(Runnable listener:expiryListeners){
+            listener.run();
+        }
+        expiryListeners.clear();
+    }
+
+    /**
+     * Responsible for adding action which runs once the deadline expires, it runs right away when already expired
+     * @param listener Expiry action
+     */
+    public void addExpiryListener(Runnable listener){
+        expiryListeners.add(listener);
+        if(expired && expiryListeners.remove(listener)){
+            listener.run();
+        }
+    }
+
+    public void removeExpiryListener(Runnable listener){
+        expiryListeners.remove(listener);
+    }
+
+    /**
+     * Get time left before the deadline
+     * @return long: remaining time in milliseconds, 0 when expired
+     */
+    public long getRemaining(){
+        return Math.max(0,expiresAt-System.currentTimeMillis());
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isExpired(){
+        return expired || getRemaining()==0;
+    }
+}
@@ -0,0 +1,141 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>RetryPolicy</h1>
+ * <p>
+ *     RetryPolicy describes how many times a payment call is attempted and how long to wait between attempts.
+ *     Wait grows exponentially with random jitter so that many clients don't retry at the same moment.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechRetries
+ */
+public class RetryPolicy {
+
+    private static final Random random =new Random();
+
+    private int maxAttempts =3;
+    private long initialBackoff =500;
+    private long maxBackoff =TimeUnit.SECONDS.toMillis(5);
+    private double backoffMultiplier =2;
+    private double jitterRatio =0.2;
+
+    /**
+     * Get default policy, up to three attempts
+     * @return RetryPolicy object
+     */
+    public static RetryPolicy defaultPolicy(){
+        return new RetryPolicy();
+    }
+
+    /**
+     * Get policy which makes one attempt only
+     * @return RetryPolicy object
+     */
+    public static RetryPolicy noRetry(){
+        return new RetryPolicy().setMaxAttempts(1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Responsible for setting up number of attempts including the first one
+     * @param maxAttempts Number of attempts
+     * @return RetryPolicy object
+     */
+    public RetryPolicy setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(1,maxAttempts);
+        return this;
+    }
+
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+
+    /**
+     * Responsible for setting up wait before the first retry
+     * @param initialBackoff Wait in milliseconds
+     * @return RetryPolicy object
+     */
+    public RetryPolicy setInitialBackoff(long initialBackoff) {
+        this.initialBackoff = Math.max(0,initialBackoff);
+        return this;
+    }
+
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    /**
+     * Responsible for setting up the longest wait between attempts, server Retry-After is capped to it too
+     * @param maxBackoff Wait in milliseconds
+     * @return RetryPolicy object
+     */
+    public RetryPolicy setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = Math.max(0,maxBackoff);
+        return this;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    /**
+     * Responsible for setting up factor the wait grows by after every attempt
+     * @param backoffMultiplier Factor, 1 for fixed wait
+     * @return RetryPolicy object
+     */
+    public RetryPolicy setBackoffMultiplier(double backoffMultiplier) {
+        this.backoffMultiplier = Math.max(1,backoffMultiplier);
+        return this;
+    }
+
+    public double getJitterRatio() {
+        return jitterRatio;
+    }
+
+    /**
+     * Responsible for setting up random part of the wait
+     * @param jitterRatio Ratio between 0 and 1
+     * @return RetryPolicy object
+     */
+    public RetryPolicy setJitterRatio(double jitterRatio) {
+        this.jitterRatio = Math.min(1,Math.max(0,jitterRatio));
+        return this;
+    }
+
+    /**
+     * Get wait before the next attempt
+     * @param attempt Number of the attempt which has failed, starting from 1
+     * @return long: wait in milliseconds
+     */
+    long getBackoff(int attempt){
+        double backoff=Math.min(maxBackoff,initialBackoff*Math.pow(backoffMultiplier,attempt-1));
+        double jitter=backoff*jitterRatio*(random.nextDouble()*2-1);
+        return Math.max(0,Math.round(backoff+jitter));
+    }
+}
@@ -0,0 +1,243 @@
+package com.furahitechstudio.furahitechpay.polling;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>FurahitechPollingScheduler</h1>
+ * <p>
+ *     FurahitechPollingScheduler drives callback status polling from one shared scheduled executor,
+ *     probes are spaced as described by the gateway's PollingProfile and stop once its deadline passes.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see PollingProfile
+ */
+public class FurahitechPollingScheduler {
+
+    private static FurahitechPollingScheduler pollingScheduler;
+
+    private final ScheduledExecutorService executor;
+
+    private final Map<Enum,PollingProfile> profiles=new ConcurrentHashMap<>();
+
+    private final Random random=new Random();
+
+    private volatile PollingProfile defaultProfile=PollingProfile.defaultProfile();
+
+    private FurahitechPollingScheduler(){
+        ScheduledThreadPoolExecutor scheduledExecutor=new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread=new Thread(runnable,"FurahitechPay Polling");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scheduledExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.executor=scheduledExecutor;
+    }
+
+    /**
+     * Get polling scheduler as singleton
+     * @return FurahitechPollingScheduler object
+     */
+    public static synchronized FurahitechPollingScheduler getInstance(){
+        if(pollingScheduler==null){
+            pollingScheduler=new FurahitechPollingScheduler();
+        }
+        return pollingScheduler;
+    }
+
+    /**
+     * Responsible for setting up polling profile of the gateway
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param profile Polling profile, gateway falls back to default profile when null
+     */
+    public void setProfile(Enum gateway, PollingProfile profile){
+        if(profile==null){
+            profiles.remove(gateway);
+        }else{
+            profiles.put(gateway,profile);
+        }
+    }
+
+    /**
+     * Responsible for setting up profile used by gateways without own profile
+     * @param profile Polling profile
+     */
+    public void setDefaultProfile(PollingProfile profile){
+        this.defaultProfile=profile==null ? PollingProfile.defaultProfile():profile;
+    }
+
+    /**
+     * Get polling profile of the gateway
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @return PollingProfile object
+     */
+    public PollingProfile getProfile(Enum gateway){
+        PollingProfile profile=gateway==null ? null:profiles.get(gateway);
+        return profile==null ? defaultProfile:profile;
+    }
+
+    /**
+     * Start polling with the gateway profile
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param task Task to be invoked on every probe and on deadline
+     * @return PollingHandle to track and cancel polling
+     */
+    public PollingHandle schedule(Enum gateway, PollingTask task){
+        return schedule(getProfile(gateway),task);
+    }
+
+    /**
+     * Start polling with the given profile
+     * @param profile Polling profile
+     * @param task Task to be invoked on every probe and on deadline
+     * @return PollingHandle to track and cancel polling
+     */
+    public PollingHandle schedule(PollingProfile profile, PollingTask task){
+        PollingHandle handle=new PollingHandle(profile,task);
+        handle.scheduleNext();
+        return handle;
+    }
+
+    private synchronized double nextRandom(){
+        return random.nextDouble();
+    }
+
+    /**
+     * Task invoked by the scheduler on the polling thread
+     */
+    public interface PollingTask{
+        /**
+         * Invoked when it is time to probe the status
+         * @param attempt Probe number starting from 1
+         */
+        void onPoll(int attempt);
+
+        /**
+         * Invoked once when deadline passed without polling being cancelled
+         */
+        void onDeadline();
+    }
+
+    /**
+     * Class to track and cancel scheduled polling
+     */
+    public class PollingHandle implements Runnable{
+        private final PollingProfile profile;
+        private final PollingTask task;
+        private final long startedAt=System.nanoTime();
+        private volatile int attemptCount=0;
+        private volatile boolean cancelled=false;
+        private ScheduledFuture<?> nextProbe;
+
+        PollingHandle(PollingProfile profile, PollingTask task){
+            this.profile=profile;
+            this.task=task;
+        }
+
+        /**
+         * Schedule next probe or deadline, whichever comes first
+         */
+        private synchronized void scheduleNext(){
+            if(cancelled){
+                return;
+            }
+            long delay=profile.getDelay(attemptCount+1,nextRandom());
+            long remaining=getRemainingMillis();
+            nextProbe=executor.schedule(this,Math.min(delay,remaining),TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            if(cancelled){
+                return;
+            }
+            if(getRemainingMillis()<=0){
+                cancelled=true;
+                task.onDeadline();
+                return;
+            }
+            attemptCount++;
+            try{
+                task.onPoll(attemptCount);
+            }finally {
+                scheduleNext();
+            }
+        }
+
+        /**
+         * Stop polling, pending probe is dropped and deadline is not reported
+         */
+        public synchronized void cancel(){
+            cancelled=true;
+            if(nextProbe!=null){
+                nextProbe.cancel(false);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Get number of probes made so far
+         * @return int: probe count
+         */
+        public int getAttemptCount() {
+            return attemptCount;
+        }
+
+        /**
+         * Get time elapsed since polling started
+         * @return long: time in milliseconds
+         */
+        public long getElapsedMillis(){
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime()-startedAt);
+        }
+
+        /**
+         * Get time left before the deadline
+         * @return long: time in milliseconds
+         */
+        public long getRemainingMillis(){
+            return Math.max(0,profile.getDeadline()-getElapsedMillis());
+        }
+
+        /**
+         * Get polling progress towards the deadline
+         * @return int: progress in percent (0-100)
+         */
+        public int getProgress(){
+            long deadline=profile.getDeadline();
+            return deadline<=0 ? 100:(int) Math.min(100,getElapsedMillis()*100/deadline);
+        }
+    }
+}
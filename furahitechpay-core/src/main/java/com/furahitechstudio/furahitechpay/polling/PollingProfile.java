@@ -0,0 +1,167 @@
+package com.furahitechstudio.furahitechpay.polling;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CALLBACK_CHECK_INTERVAL;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CALLBACK_CHECK_MAX_RETRY_COUNT;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>PollingProfile</h1>
+ * <p>
+ *     PollingProfile describes how callback status is polled: a fast first probe, exponential backoff with jitter
+ *     between the next probes and an overall deadline after which polling stops.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class PollingProfile {
+
+    private long firstProbeDelay =TimeUnit.SECONDS.toMillis(3);
+    private long initialInterval =TimeUnit.SECONDS.toMillis(4);
+    private long maxInterval =TimeUnit.SECONDS.toMillis(CALLBACK_CHECK_INTERVAL);
+    private double backoffMultiplier =1.6;
+    private double jitterRatio =0.2;
+    private long deadline =TimeUnit.SECONDS.toMillis(CALLBACK_CHECK_INTERVAL*(CALLBACK_CHECK_MAX_RETRY_COUNT+1));
+
+    /**
+     * Get default profile, fast first probe then backoff up to the old fixed interval within the old total wait time
+     * @return PollingProfile object
+     */
+    public static PollingProfile defaultProfile(){
+        return new PollingProfile();
+    }
+
+    /**
+     * Get profile which polls on a fixed interval (no backoff and no jitter)
+     * @param interval Interval between probes in milliseconds
+     * @param deadline Overall deadline in milliseconds
+     * @return PollingProfile object
+     */
+    public static PollingProfile fixedProfile(long interval, long deadline){
+        return new PollingProfile()
+                .setFirstProbeDelay(0)
+                .setInitialInterval(interval)
+                .setMaxInterval(interval)
+                .setBackoffMultiplier(1)
+                .setJitterRatio(0)
+                .setDeadline(deadline);
+    }
+
+    public long getFirstProbeDelay() {
+        return firstProbeDelay;
+    }
+
+    /**
+     * Responsible for setting up delay before the first probe
+     * @param firstProbeDelay Delay in milliseconds
+     * @return PollingProfile object
+     */
+    public PollingProfile setFirstProbeDelay(long firstProbeDelay) {
+        this.firstProbeDelay = Math.max(0,firstProbeDelay);
+        return this;
+    }
+
+    public long getInitialInterval() {
+        return initialInterval;
+    }
+
+    /**
+     * Responsible for setting up interval between the first and second probe
+     * @param initialInterval Interval in milliseconds
+     * @return PollingProfile object
+     */
+    public PollingProfile setInitialInterval(long initialInterval) {
+        this.initialInterval = Math.max(1,initialInterval);
+        return this;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    /**
+     * Responsible for setting up the longest interval backoff can grow to
+     * @param maxInterval Interval in milliseconds
+     * @return PollingProfile object
+     */
+    public PollingProfile setMaxInterval(long maxInterval) {
+        this.maxInterval = Math.max(1,maxInterval);
+        return this;
+    }
+
+    public double getBackoffMultiplier() {
+        return backoffMultiplier;
+    }
+
+    /**
+     * Responsible for setting up how fast interval grows after every probe
+     * @param backoffMultiplier Multiplier, 1 for fixed interval
+     * @return PollingProfile object
+     */
+    public PollingProfile setBackoffMultiplier(double backoffMultiplier) {
+        this.backoffMultiplier = Math.max(1,backoffMultiplier);
+        return this;
+    }
+
+    public double getJitterRatio() {
+        return jitterRatio;
+    }
+
+    /**
+     * Responsible for setting up random spread applied on every interval
+     * @param jitterRatio Ratio between 0 and 1 (0.2 means +/-20%)
+     * @return PollingProfile object
+     */
+    public PollingProfile setJitterRatio(double jitterRatio) {
+        this.jitterRatio = Math.min(1,Math.max(0,jitterRatio));
+        return this;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Responsible for setting up overall time polling is allowed to take
+     * @param deadline Deadline in milliseconds
+     * @return PollingProfile object
+     */
+    public PollingProfile setDeadline(long deadline) {
+        this.deadline = Math.max(0,deadline);
+        return this;
+    }
+
+    /**
+     * Get delay before the given probe
+     * @param attempt Probe number starting from 1
+     * @param random Random value between 0 and 1 used for jitter
+     * @return long: Delay in milliseconds
+     */
+    long getDelay(int attempt, double random){
+        if(attempt<=1){
+            return firstProbeDelay;
+        }
+        double interval=initialInterval*Math.pow(backoffMultiplier,attempt-2);
+        interval=Math.min(maxInterval,interval);
+        interval=interval*(1+jitterRatio*(2*random-1));
+        return Math.max(1,(long) interval);
+    }
+}
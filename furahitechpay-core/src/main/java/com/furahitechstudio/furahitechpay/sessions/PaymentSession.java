@@ -0,0 +1,288 @@
+package com.furahitechstudio.furahitechpay.sessions;
+
+import com.furahitechstudio.furahitechpay.journal.FurahitechJournal;
+import com.furahitechstudio.furahitechpay.journal.JournalRecord;
+import com.furahitechstudio.furahitechpay.listeners.CallBackListener;
+import com.furahitechstudio.furahitechpay.models.ModelPartial;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.networks.FurahitechPushChannel;
+import com.furahitechstudio.furahitechpay.networks.FurahitechTimeouts;
+import com.furahitechstudio.furahitechpay.networks.PaymentDeadline;
+import com.furahitechstudio.furahitechpay.polling.FurahitechPollingScheduler;
+import com.furahitechstudio.furahitechpay.tracing.FurahitechTracer;
+import com.furahitechstudio.furahitechpay.tracing.Span;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.furahitechstudio.furahitechpay.journal.JournalRecord.State.COMPLETED;
+import static com.furahitechstudio.furahitechpay.journal.JournalRecord.State.POLLED;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.STATUS_POLL;
+import static com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall.checkCallbackStatus;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallBackStatus.TIMEOUT;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallbackState.STATE_RECEIVED;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>PaymentSession</h1>
+ * <p>
+ *     PaymentSession tracks callback status of one transaction, it owns the transaction UUID, its payment request,
+ *     probe counters, polling timer and listener so that many transactions can be tracked at the same time.
+ *     Session times out at the polling deadline or when deadline of its payment expires, whichever comes first.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechPollingScheduler
+ */
+public class PaymentSession implements FurahitechPollingScheduler.PollingTask, CallBackListener {
+
+    /**
+     * Sessions which are currently being tracked, keyed by transaction UUID
+     */
+    private static final ConcurrentMap<String,PaymentSession> activeSessions=new ConcurrentHashMap<>();
+
+    private final PaymentRequest paymentRequest;
+    private final Enum gateway;
+    private final String transactionUUID;
+    private final CallBackListener callBackListener;
+    private final Executor callbackExecutor;
+    private final AtomicInteger failedProbeCount=new AtomicInteger();
+    private volatile FurahitechPollingScheduler.PollingHandle pollingHandle;
+    private volatile FurahitechPushChannel pushChannel;
+    private volatile boolean ended=false;
+    private volatile Span probeSpan;
+    private volatile PaymentDeadline deadline;
+
+    /**
+     * Session ends with TIMEOUT status once deadline of its payment expires
+     */
+    private final Runnable deadlineListener =new Runnable() {
+        @Override
+        public void run() {
+            onDeadline();
+        }
+    };
+
+    /**
+     * PaymentSession constructor
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param transactionUUID Transaction UUID as received from aggregator
+     * @param callBackListener Status check listener
+     * @param callbackExecutor Executor on which deadline result is delivered
+     */
+    public PaymentSession(PaymentRequest paymentRequest, Enum gateway, String transactionUUID,
+                          CallBackListener callBackListener, Executor callbackExecutor){
+        this.paymentRequest=paymentRequest;
+        this.gateway=gateway;
+        this.transactionUUID=transactionUUID;
+        this.callBackListener=callBackListener;
+        this.callbackExecutor=callbackExecutor;
+    }
+
+    /**
+     * Start periodic callback status check, session which tracks the same UUID is cancelled
+     * @return PaymentSession object
+     */
+    public PaymentSession start(){
+        PaymentSession previous=activeSessions.put(transactionUUID,this);
+        if(previous!=null && previous!=this){
+            previous.end();
+        }
+        pushChannel=FurahitechPushChannel.open(paymentRequest.getPaymentLogsEndPoint(),gateway,transactionUUID,this);
+        pollingHandle=FurahitechPollingScheduler.getInstance().schedule(gateway,this);
+        deadline=FurahitechTimeouts.getInstance().getDeadline(paymentRequest);
+        if(deadline!=null){
+            deadline.addExpiryListener(deadlineListener);
+        }
+        logEvent(false,gateway,"Session started: UUID={}, active={}",transactionUUID,activeSessions.size());
+        return this;
+    }
+
+    /**
+     * Stop periodic callback status check, results arriving later are dropped
+     */
+    public void cancel(){
+        end();
+    }
+
+    private void end(){
+        ended=true;
+        activeSessions.remove(transactionUUID,this);
+        FurahitechPollingScheduler.PollingHandle handle=pollingHandle;
+        if(handle!=null){
+            handle.cancel();
+        }
+        FurahitechPushChannel channel=pushChannel;
+        if(channel!=null){
+            channel.close();
+        }
+        PaymentDeadline paymentDeadline=deadline;
+        if(paymentDeadline!=null){
+            paymentDeadline.removeExpiryListener(deadlineListener);
+        }
+    }
+
+    private void endProbeSpan(String error){
+        Span span=probeSpan;
+        if(span!=null){
+            probeSpan=null;
+            span.end(error);
+        }
+    }
+
+    @Override
+    public void onPoll(int attempt) {
+        if(ended){
+            return;
+        }
+        if(isPushConnected()){
+            //Callback will be pushed, probe is skipped while the channel is connected
+            return;
+        }
+        endProbeSpan("superseded");
+        probeSpan=FurahitechTracer.getInstance().startSpan(paymentRequest,gateway,STATUS_POLL);
+        checkCallbackStatus(this);
+    }
+
+    @Override
+    public void onDeadline() {
+        if(ended){
+            return;
+        }
+        end();
+        FurahitechJournal.getInstance().append(JournalRecord.of(POLLED,paymentRequest,gateway,transactionUUID,TIMEOUT));
+        callbackExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                logEvent(false,gateway,"Terminate process after time-out");
+                ModelPartial partialCheck=new ModelPartial();
+                partialCheck.setCallbackTimestamp(String.valueOf(new Date().getTime()/1000));
+                partialCheck.setRefuid(transactionUUID);
+                partialCheck.setStatus(TIMEOUT);
+                partialCheck.setCallback(STATE_RECEIVED);
+                callBackListener.onReceived(true,partialCheck);
+            }
+        });
+    }
+
+    @Override
+    public void onReceived(boolean isSuccess, ModelPartial partialCheck) {
+        if(ended){
+            return;
+        }
+        if(!isSuccess){
+            failedProbeCount.incrementAndGet();
+        }
+        endProbeSpan(isSuccess ? null:"probe failed");
+        boolean isReceived=isSuccess && partialCheck!=null && STATE_RECEIVED.equalsIgnoreCase(partialCheck.getCallback());
+        FurahitechJournal.getInstance().append(JournalRecord.of(isReceived ? COMPLETED:POLLED,paymentRequest,gateway,transactionUUID,
+                isReceived ? partialCheck.getStatus():null));
+        callBackListener.onReceived(isSuccess,partialCheck);
+    }
+
+    public PaymentRequest getPaymentRequest() {
+        return paymentRequest;
+    }
+
+    public Enum getGateway() {
+        return gateway;
+    }
+
+    public String getTransactionUUID() {
+        return transactionUUID;
+    }
+
+    /**
+     * Check if session is still tracking callback status
+     * @return boolean: TRUE when active, FALSE otherwise
+     */
+    public boolean isActive(){
+        return !ended;
+    }
+
+    /**
+     * Check if callback is awaited on a push channel instead of polling
+     * @return boolean: TRUE when push channel is connected, FALSE otherwise
+     */
+    public boolean isPushConnected(){
+        FurahitechPushChannel channel=pushChannel;
+        return channel!=null && channel.isConnected();
+    }
+
+    /**
+     * Get number of probes made so far
+     * @return int: probe count
+     */
+    public int getAttemptCount(){
+        FurahitechPollingScheduler.PollingHandle handle=pollingHandle;
+        return handle==null ? 0:handle.getAttemptCount();
+    }
+
+    /**
+     * Get number of probes which failed to reach the server
+     * @return int: failed probe count
+     */
+    public int getFailedProbeCount(){
+        return failedProbeCount.get();
+    }
+
+    /**
+     * Get session progress towards its polling deadline
+     * @return int: progress in percent (0-100)
+     */
+    public int getProgress(){
+        FurahitechPollingScheduler.PollingHandle handle=pollingHandle;
+        return handle==null ? 0:handle.getProgress();
+    }
+
+    /**
+     * Get session which tracks the transaction
+     * @param transactionUUID Transaction UUID
+     * @return PaymentSession or null when not tracked
+     */
+    public static PaymentSession getSession(String transactionUUID){
+        return transactionUUID==null ? null:activeSessions.get(transactionUUID);
+    }
+
+    /**
+     * Get all sessions which are currently tracked
+     * @return List of active sessions
+     */
+    public static List<PaymentSession> getActiveSessions(){
+        return new ArrayList<>(activeSessions.values());
+    }
+
+    /**
+     * Cancel all active sessions
+     */
+    public static void cancelAll(){
+        for(PaymentSession session:getActiveSessions()){
+            session.cancel();
+        }
+    }
+}
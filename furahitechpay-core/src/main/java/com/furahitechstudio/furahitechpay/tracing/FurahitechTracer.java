@@ -0,0 +1,353 @@
+package com.furahitechstudio.furahitechpay.tracing;
+
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Call;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechTracer</h1>
+ * <p>
+ *     FurahitechTracer correlates all stages of a payment under one trace ID per transaction.
+ *     Every stage is recorded as a span which is handed over to span exporters on a background thread,
+ *     trace ID is sent to the servers as an HTTP header so that server logs can be matched to the payment.
+ *     Tracing allocates nothing while it is off and stages of the payment never wait for exporters.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see Span
+ * @see SpanExporter
+ */
+public final class FurahitechTracer {
+
+    /**
+     * HTTP header which carries trace ID of the payment
+     */
+    public static final String HEADER_TRACE_ID ="X-Furahitech-Trace-Id";
+
+    /**
+     * Name of the root span which covers the whole payment
+     */
+    public static final String SPAN_PAYMENT ="PAYMENT";
+
+    /**
+     * Maximum number of ended spans waiting for export, spans ended while it is full are dropped
+     */
+    private static final int EXPORT_QUEUE_CAPACITY =512;
+
+    /**
+     * Longest time export thread waits before flushing exporters
+     */
+    private static final long IDLE_FLUSH_TIME =TimeUnit.SECONDS.toMillis(1);
+
+    private static final char [] HEX_DIGITS ="0123456789abcdef".toCharArray();
+
+    private static final FurahitechTracer tracer =new FurahitechTracer();
+
+    private final Random random =new Random();
+
+    private final List<SpanExporter> exporters =new CopyOnWriteArrayList<>();
+
+    private final BlockingQueue<Span> exportQueue =new ArrayBlockingQueue<>(EXPORT_QUEUE_CAPACITY);
+
+    private final AtomicLong droppedCount =new AtomicLong();
+
+    /**
+     * Root spans of running payments, payment request is held weakly so that abandoned payments are not leaked
+     */
+    private final Map<PaymentRequest,Span> traces =Collections.synchronizedMap(new WeakHashMap<PaymentRequest,Span>());
+
+    /**
+     * Trace IDs of HTTP requests waiting to be sent
+     */
+    private final Map<Request,String> pendingRequests =Collections.synchronizedMap(new WeakHashMap<Request,String>());
+
+    private final Interceptor interceptor =new Interceptor() {
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request request=chain.request();
+            String traceId=pendingRequests.remove(request);
+            if(traceId==null){
+                return chain.proceed(request);
+            }
+            return chain.proceed(request.newBuilder().header(HEADER_TRACE_ID,traceId).build());
+        }
+    };
+
+    private volatile boolean isEnabled =true;
+
+    private volatile Thread exportThread;
+
+    private FurahitechTracer(){}
+
+    /**
+     * Get tracer as singleton
+     * @return FurahitechTracer object
+     */
+    public static FurahitechTracer getInstance(){
+        return tracer;
+    }
+
+    /**
+     * Responsible for enabling tracing, enabled by default
+     * @param enabled TRUE to trace payments, FALSE to turn tracing off
+     */
+    public void setEnabled(boolean enabled){
+        this.isEnabled =enabled;
+        if(!enabled){
+            traces.clear();
+            pendingRequests.clear();
+        }
+    }
+
+    public boolean isEnabled() {
+        return isEnabled;
+    }
+
+    /**
+     * Responsible for adding span exporter
+     * @param exporter Span exporter
+     */
+    public void addExporter(SpanExporter exporter){
+        exporters.add(exporter);
+    }
+
+    /**
+     * Responsible for removing span exporter
+     * @param exporter Span exporter
+     */
+    public void removeExporter(SpanExporter exporter){
+        exporters.remove(exporter);
+    }
+
+    /**
+     * Remove all span exporters
+     */
+    public void clearExporters(){
+        exporters.clear();
+    }
+
+    /**
+     * Get number of spans dropped because export queue was full
+     * @return long: dropped spans
+     */
+    public long getDroppedCount(){
+        return droppedCount.get();
+    }
+
+    /**
+     * Get OkHttp interceptor which adds trace ID header to requests bound with {@link #propagate(Call, PaymentRequest)}
+     * @return Interceptor object
+     */
+    public Interceptor getInterceptor(){
+        return interceptor;
+    }
+
+    /**
+     * Start trace of the payment, trace which is already running is kept
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @return String: trace ID or null when tracing is off
+     */
+    public String startTrace(PaymentRequest paymentRequest, Enum gateway){
+        Span root=getRootSpan(paymentRequest,gateway);
+        return root==Span.NOOP ? null:root.getTraceId();
+    }
+
+    /**
+     * Get trace ID of the running payment
+     * @param paymentRequest Payment request of the transaction
+     * @return String: trace ID or null when payment is not traced
+     */
+    public String getTraceId(PaymentRequest paymentRequest){
+        Span root=paymentRequest==null ? null:traces.get(paymentRequest);
+        return root==null ? null:root.getTraceId();
+    }
+
+    /**
+     * Start span of the payment stage, trace is started when payment is not traced yet
+     * @param paymentRequest Payment request of the transaction
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param stage Payment stage
+     * @return Span object, to be ended once stage is over
+     */
+    public Span startSpan(PaymentRequest paymentRequest, Enum gateway, Enum stage){
+        Span root=getRootSpan(paymentRequest,gateway);
+        if(root==Span.NOOP){
+            return Span.NOOP;
+        }
+        return new Span(root.getTraceId(),newId(1),root.getSpanId(),stage.name(),root.getGateway());
+    }
+
+    /**
+     * End trace of the payment
+     * @param paymentRequest Payment request of the transaction
+     * @param error Failure description, null when payment succeeded
+     */
+    public void endTrace(PaymentRequest paymentRequest, String error){
+        Span root=paymentRequest==null ? null:traces.remove(paymentRequest);
+        if(root!=null){
+            root.end(error);
+        }
+    }
+
+    /**
+     * Responsible for moving running trace to the rebuilt payment request, PaymentRequest is immutable so a payment
+     * which changes its request (i.e card token received) keeps one trace
+     * @param paymentRequest Payment request the trace was started with
+     * @param rebuilt Payment request which replaces it
+     */
+    public void rebind(PaymentRequest paymentRequest, PaymentRequest rebuilt){
+        if(paymentRequest==null || rebuilt==null || paymentRequest==rebuilt){
+            return;
+        }
+        synchronized (traces){
+            Span root=traces.remove(paymentRequest);
+            if(root!=null){
+                traces.put(rebuilt,root);
+            }
+        }
+    }
+
+    /**
+     * Responsible for sending trace ID of the payment with the network call
+     * @param call Network call not yet executed
+     * @param paymentRequest Payment request of the transaction
+     */
+    public void propagate(Call<?> call, PaymentRequest paymentRequest){
+        String traceId=getTraceId(paymentRequest);
+        if(!isEnabled || traceId==null){
+            return;
+        }
+        try{
+            pendingRequests.put(call.request(),traceId);
+        }catch (RuntimeException e){
+            //Request can't be built, call reports the failure once executed
+        }
+    }
+
+    private Span getRootSpan(PaymentRequest paymentRequest, Enum gateway){
+        if(!isEnabled || paymentRequest==null){
+            return Span.NOOP;
+        }
+        synchronized (traces){
+            Span root=traces.get(paymentRequest);
+            if(root==null){
+                root=new Span(newId(2),newId(1),null,SPAN_PAYMENT,gateway==null ? null:gateway.name());
+                traces.put(paymentRequest,root);
+            }
+            return root;
+        }
+    }
+
+    /**
+     * Hand ended span over to exporters
+     * @param span Ended span
+     */
+    void export(Span span){
+        if(exporters.isEmpty()){
+            return;
+        }
+        if(!exportQueue.offer(span)){
+            droppedCount.incrementAndGet();
+            return;
+        }
+        if(exportThread==null){
+            startExportThread();
+        }
+    }
+
+    private synchronized void startExportThread(){
+        if(exportThread!=null){
+            return;
+        }
+        Thread thread=new Thread(new Runnable() {
+            @Override
+            public void run() {
+                drain();
+            }
+        },"FurahitechPay Tracer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        exportThread=thread;
+        thread.start();
+    }
+
+    private void drain(){
+        boolean isFlushed=true;
+        while (true){
+            Span span;
+            try{
+                span=exportQueue.poll(IDLE_FLUSH_TIME,TimeUnit.MILLISECONDS);
+            }catch (InterruptedException e){
+                return;
+            }
+            if(span==null && isFlushed){
+                continue;
+            }
+            isFlushed=span==null;
+            for(SpanExporter exporter:exporters){
+                try{
+                    if(span==null){
+                        exporter.flush();
+                    }else{
+                        exporter.export(span);
+                    }
+                }catch (RuntimeException e){
+                    //Faulty exporter must not stop the others
+                }
+            }
+        }
+    }
+
+    /**
+     * Generate random hex ID
+     * @param longs Number of 64 bit words, 1 for span ID and 2 for trace ID
+     * @return String: hex ID
+     */
+    private String newId(int longs){
+        char [] id=new char[longs*16];
+        for(int word=0;word<longs;word++){
+            long value=random.nextLong();
+            for(int index=15;index>=0;index--){
+                id[word*16+index]=HEX_DIGITS[(int) (value & 0xF)];
+                value>>>=4;
+            }
+        }
+        return new String(id);
+    }
+}
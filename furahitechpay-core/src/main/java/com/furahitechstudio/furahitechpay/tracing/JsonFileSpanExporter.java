@@ -0,0 +1,135 @@
+package com.furahitechstudio.furahitechpay.tracing;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>JsonFileSpanExporter</h1>
+ * <p>
+ *     JsonFileSpanExporter appends ended spans to a file as one JSON object per line,
+ *     the file is rolled over to a single backup once it grows past its limit.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class JsonFileSpanExporter implements SpanExporter {
+
+    private final File spanFile;
+
+    private final long maxFileSize;
+
+    private final StringWriter line =new StringWriter(256);
+
+    private Writer writer;
+
+    private long fileSize;
+
+    /**
+     * JsonFileSpanExporter constructor
+     * @param spanFile File spans are appended to
+     * @param maxFileSize Size in bytes after which file is rolled over
+     */
+    public JsonFileSpanExporter(File spanFile, long maxFileSize){
+        this.spanFile=spanFile;
+        this.maxFileSize=maxFileSize;
+    }
+
+    @Override
+    public void export(Span span) {
+        try{
+            if(writer==null){
+                fileSize=spanFile.length();
+                writer=new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spanFile,true),"UTF-8"));
+            }
+            line.getBuffer().setLength(0);
+            writeSpan(new JsonWriter(line),span);
+            line.write('\n');
+            writer.write(line.getBuffer().toString());
+            fileSize+=line.getBuffer().length();
+            if(fileSize>=maxFileSize){
+                rollOver();
+            }
+        }catch (IOException e){
+            close();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if(writer!=null){
+            try{
+                writer.flush();
+            }catch (IOException e){
+                close();
+            }
+        }
+    }
+
+    private static void writeSpan(JsonWriter json, Span span) throws IOException {
+        json.beginObject();
+        json.name("traceId").value(span.getTraceId());
+        json.name("spanId").value(span.getSpanId());
+        if(span.getParentSpanId()!=null){
+            json.name("parentSpanId").value(span.getParentSpanId());
+        }
+        json.name("name").value(span.getName());
+        json.name("gateway").value(span.getGateway());
+        json.name("start").value(span.getStartTime());
+        json.name("end").value(span.getEndTime());
+        json.name("duration").value(span.getDuration());
+        if(span.getError()!=null){
+            json.name("error").value(span.getError());
+        }
+        json.endObject();
+        json.flush();
+    }
+
+    private void rollOver() throws IOException {
+        writer.close();
+        writer=null;
+        File backup=new File(spanFile.getPath()+".1");
+        if(backup.exists() && !backup.delete()){
+            throw new IOException("Old span backup can't be removed");
+        }
+        if(!spanFile.renameTo(backup)){
+            throw new IOException("Span file can't be rolled over");
+        }
+    }
+
+    private void close(){
+        if(writer!=null){
+            try{
+                writer.close();
+            }catch (IOException ignored){
+                //Nothing to do, exporter reopens the file on next export
+            }
+            writer=null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.furahitechstudio.furahitechpay.tracing;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>MemorySpanExporter</h1>
+ * <p>
+ *     MemorySpanExporter keeps the latest ended spans in memory, useful to inspect recent payments or attach them to a support report.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class MemorySpanExporter implements SpanExporter {
+
+    private final int capacity;
+
+    private final ArrayDeque<Span> spans;
+
+    /**
+     * MemorySpanExporter constructor
+     * @param capacity Number of latest spans kept
+     */
+    public MemorySpanExporter(int capacity){
+        this.capacity=Math.max(1,capacity);
+        this.spans=new ArrayDeque<>(this.capacity);
+    }
+
+    @Override
+    public synchronized void export(Span span) {
+        if(spans.size()==capacity){
+            spans.pollFirst();
+        }
+        spans.addLast(span);
+    }
+
+    @Override
+    public void flush() {}
+
+    /**
+     * Get kept spans, oldest first
+     * @return List of spans
+     */
+    public synchronized List<Span> getSpans(){
+        return new ArrayList<>(spans);
+    }
+
+    /**
+     * Get kept spans of the trace, oldest first
+     * @param traceId Trace ID
+     * @return List of spans
+     */
+    public synchronized List<Span> getSpans(String traceId){
+        List<Span> traceSpans=new ArrayList<>();
+        for(Span span:spans){
+            if(span.getTraceId().equals(traceId)){
+                traceSpans.add(span);
+            }
+        }
+        return traceSpans;
+    }
+
+    /**
+     * Remove all kept spans
+     */
+    public synchronized void clear(){
+        spans.clear();
+    }
+}
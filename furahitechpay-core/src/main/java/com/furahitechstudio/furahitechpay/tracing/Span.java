@@ -0,0 +1,152 @@
+package com.furahitechstudio.furahitechpay.tracing;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>Span</h1>
+ * <p>
+ *     Span is one timed stage of a payment trace. Every span of the same transaction shares its trace ID,
+ *     stage spans point to the root span of the transaction as their parent.
+ *     Ended span is handed over to span exporters and must not be changed afterwards.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechTracer
+ */
+public final class Span {
+
+    /**
+     * Span returned when tracing is off, ending it does nothing
+     */
+    static final Span NOOP =new Span(null,null,null,null,null);
+
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final String name;
+    private final String gateway;
+    private final long startTime;
+    private final long startedAt;
+    private long duration =-1;
+    private String error;
+
+    Span(String traceId, String spanId, String parentSpanId, String name, String gateway){
+        this.traceId=traceId;
+        this.spanId=spanId;
+        this.parentSpanId=parentSpanId;
+        this.name=name;
+        this.gateway=gateway;
+        this.startTime=System.currentTimeMillis();
+        this.startedAt=System.nanoTime();
+    }
+
+    /**
+     * Responsible for ending the span successfully
+     */
+    public void end(){
+        end(null);
+    }
+
+    /**
+     * Responsible for ending the span, span which already ended is left as it is
+     * @param error Failure description, null when stage succeeded
+     */
+    public void end(String error){
+        if(this==NOOP){
+            return;
+        }
+        synchronized (this){
+            if(duration>=0){
+                return;
+            }
+            this.error=error;
+            this.duration=TimeUnit.NANOSECONDS.toMicros(System.nanoTime()-startedAt);
+        }
+        FurahitechTracer.getInstance().export(this);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    /**
+     * Get ID of the root span, null for the root span itself
+     * @return String: parent span ID
+     */
+    public String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+
+    /**
+     * Get time the span started
+     * @return long: time in milliseconds since epoch
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Get time the span ended
+     * @return long: time in milliseconds since epoch, -1 while running
+     */
+    public synchronized long getEndTime() {
+        return duration<0 ? -1:startTime+TimeUnit.MICROSECONDS.toMillis(duration);
+    }
+
+    /**
+     * Get span duration
+     * @return long: duration in microseconds, -1 while running
+     */
+    public synchronized long getDuration() {
+        return duration;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public synchronized boolean isEnded(){
+        return duration>=0;
+    }
+
+    public synchronized boolean isError(){
+        return error!=null;
+    }
+
+    @Override
+    public String toString() {
+        return name+" trace="+traceId+" span="+spanId+" duration="+getDuration()+"us";
+    }
+}
@@ -0,0 +1,43 @@
+package com.furahitechstudio.furahitechpay.tracing;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>SpanExporter</h1>
+ * <p>
+ *     SpanExporter receives ended spans from the tracer export thread, it is never called from payment flow threads.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechTracer
+ */
+public interface SpanExporter {
+    /**
+     * Invoked for every ended span
+     * @param span Ended span
+     */
+    void export(Span span);
+
+    /**
+     * Invoked when there are no more spans to export for now, buffered output should be written
+     */
+    void flush();
+}
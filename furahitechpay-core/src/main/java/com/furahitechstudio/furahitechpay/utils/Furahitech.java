@@ -31,12 +31,14 @@ public class Furahitech {
 
     /**
      * Variable which holds the current status check count
+     * @deprecated Probe count is tracked per transaction, use PaymentSession#getAttemptCount()
      */
+    @Deprecated
     public static int currentRetryCount=0;
     /**
      * Log tag value
      */
-    static final String LIB_TAG ="FurahitechPay";
+    public static final String LIB_TAG ="FurahitechPay";
 
     /**
      * Allowed characters for making transaction reference ID
@@ -149,8 +151,8 @@ public class Furahitech {
     /**
      * Class for all params to be passed during requests
      */
-    class PaymentDataKeys {
-        static final String  CUSTOMER_EMAIL="email",CUSTOMER_PHONE="phone", CUSTOMER_FNAME="firstName",CUSTOMER_LNAME="lastName",
+    public class PaymentDataKeys {
+        public static final String  CUSTOMER_EMAIL="email",CUSTOMER_PHONE="phone", CUSTOMER_FNAME="firstName",CUSTOMER_LNAME="lastName",
                 MERCHANT_KEY="apiKey", MERCHANT_SECRET="apiSecret", MERCHANT_ACCOUNT="accountName",MERCHANT_MSIDN="accountMsisdn",
                 MERCHANT_PIN="accountPin", TRANS_TAX="tax",TRANS_FEE="fee",TRANS_LANGUAGE="language", TRANS_AMOUNT="amount",
                 TRANS_UUID="uuid",TRANS_STATUS_CODE="code",TRANS_REFID="refId",TRANS_REQID="requestId",TRANS_MSID="msisdn",
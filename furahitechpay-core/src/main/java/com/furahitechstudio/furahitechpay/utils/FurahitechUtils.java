@@ -1,32 +1,30 @@
 package com.furahitechstudio.furahitechpay.utils;
 
-import android.annotation.SuppressLint;
-import android.app.Activity;
-import android.app.AlertDialog;
-import android.content.Context;
-import android.content.DialogInterface;
-import android.net.ConnectivityManager;
-import android.net.NetworkInfo;
-import android.support.annotation.Nullable;
-import android.support.design.widget.Snackbar;
-import android.util.Log;
-import android.view.View;
-
-import com.furahitechstudio.furahitechpay.FurahitechPay;
-import com.furahitechstudio.furahitechpay.R;
+import com.furahitechstudio.furahitechpay.logging.FurahitechLogger;
 import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
 import com.furahitechstudio.furahitechpay.models.PaymentRequest;
 
+import java.io.UnsupportedEncodingException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
 
+import okhttp3.HttpUrl;
+
+import static com.furahitechstudio.furahitechpay.logging.FurahitechLogger.Level.DEBUG;
+import static com.furahitechstudio.furahitechpay.logging.FurahitechLogger.Level.ERROR;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.ALLOWED_CHARACTERS;
-import static com.furahitechstudio.furahitechpay.utils.Furahitech.LIB_TAG;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_NONE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_STRIPE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_TIGOPESA;
-import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_CANCELLED;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_FAILURE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.COUNTRY_CODE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.COUNTRY_NAME;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKeys.CUSTOMER_EMAIL;
@@ -87,6 +85,15 @@ import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentDataKey
 
 public class FurahitechUtils {
 
+    private static final Set<String> REDIRECTION_STATUS_PARAMS =new HashSet<>(Arrays.asList(
+            "status","payment_status","transaction_status","trans_status"));
+
+    private static final Set<String> REDIRECTION_SUCCESS_VALUES =new HashSet<>(Arrays.asList(
+            "success","successful","succeeded","paid","completed","approved"));
+
+    private static final Set<String> REDIRECTION_FAILURE_VALUES =new HashSet<>(Arrays.asList(
+            "fail","failed","failure","declined","rejected","cancelled","canceled","expired"));
+
     /**
      * Function to log all operation events
      * @param isError TRUE if is error otherwise false
@@ -94,65 +101,57 @@ public class FurahitechUtils {
      * @param message message to be logged
      */
     public static void logEvent(boolean isError,Enum gateway,String message){
-        if(isError){
-            Log.e(LIB_TAG,getGatewayName(gateway)+": "+message);
-        }else{
-            Log.d(LIB_TAG,getGatewayName(gateway)+": "+message);
-        }
+        FurahitechLogger.getInstance().log(isError ? ERROR:DEBUG,getGatewayName(gateway),message,null,null,null);
     }
 
+    /**
+     * Function to log operation event with argument, message is built only when it is logged
+     * @param isError TRUE if is error otherwise false
+     * @param gateway as indicated on
+     * @param template message template, {} is replaced by the argument
+     * @param arg argument
+     * @see FurahitechLogger
+     */
+    public static void logEvent(boolean isError,Enum gateway,String template,Object arg){
+        FurahitechLogger.getInstance().log(isError ? ERROR:DEBUG,getGatewayName(gateway),template,arg,null,null);
+    }
 
     /**
-     * Get gateway name for the logger
-     * @param gateway: Gateway type tag
-     * @return String: Gateway name
+     * Function to log operation event with two arguments, message is built only when it is logged
+     * @param isError TRUE if is error otherwise false
+     * @param gateway as indicated on
+     * @param template message template, every {} is replaced by the next argument
+     * @param arg1 first argument
+     * @param arg2 second argument
      */
-    private static String getGatewayName(Enum gateway){
-        return gateway==GATEWAY_MPESA ? "Vodacom"
-                :(gateway==GATEWAY_STRIPE ? "Stripe"
-                :(gateway==GATEWAY_TIGOPESA ? "Tigo"
-                :"CoreAPI"));
+    public static void logEvent(boolean isError,Enum gateway,String template,Object arg1,Object arg2){
+        FurahitechLogger.getInstance().log(isError ? ERROR:DEBUG,getGatewayName(gateway),template,arg1,arg2,null);
     }
 
     /**
-     * Show network dialog error
-     * @param context: Application context
-     * @param gateway: Gateway currently on operation
+     * Function to log operation event with four arguments, message is built only when it is logged
+     * @param isError TRUE if is error otherwise false
+     * @param gateway as indicated on
+     * @param template message template, every {} is replaced by the next argument
+     * @param arg1 first argument
+     * @param arg2 second argument
+     * @param arg3 third argument
+     * @param arg4 fourth argument
      */
-    public static void showNetworkErrorDialog(final Context context,Enum gateway){
-        Furahitech.currentRetryCount=0;
-        logEvent(true,gateway,"You are currently not connected to the network");
-        try{
-            AlertDialog.Builder builder=new AlertDialog.Builder(context);
-            builder.setCancelable(false);
-            builder.setTitle("Connection problem");
-            builder.setMessage("You are currently not connected to the network, make sure you are connected before doing anything");
-            builder.setNegativeButton("OK", new DialogInterface.OnClickListener() {
-                @Override
-                public void onClick(DialogInterface dialogInterface, int i) {
-                    dialogInterface.dismiss();
-                }
-            });
-            builder.show();
-        }catch (Exception e){
-            e.printStackTrace();
-        }
+    public static void logEvent(boolean isError,Enum gateway,String template,Object arg1,Object arg2,Object arg3,Object arg4){
+        FurahitechLogger.getInstance().log(isError ? ERROR:DEBUG,getGatewayName(gateway),template,arg1,arg2,arg3,arg4);
     }
 
     /**
-     * Check if there is internet connection
-     * @return boolean: TRUE if connected otherwise false
+     * Get display name of the gateway
+     * @param gateway as indicated on PaymentConstant
+     * @return String: gateway name
      */
-    public static boolean isConnected(Context context) {
-        try {
-            ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
-            NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
-            return activeNetwork != null
-                    && activeNetwork.isConnectedOrConnecting();
-        } catch (NullPointerException e) {
-            e.printStackTrace();
-        }
-        return false;
+    public static String getGatewayName(Enum gateway){
+        return gateway==GATEWAY_MPESA ? "Vodacom"
+                :(gateway==GATEWAY_STRIPE ? "Stripe"
+                :(gateway==GATEWAY_TIGOPESA ? "Tigo"
+                :"CoreAPI"));
     }
 
     /**
@@ -183,46 +182,47 @@ public class FurahitechUtils {
 
     /**
      * generate unique ID for transaction reference
-     * @param length character length
+     * @param length character length, 12 when null
      * @param gateway gateway type as indicated on PaymentConstants
      * @return String : reference ID
      */
-    public static String generateRefCode(@Nullable Integer length,Enum gateway){
+    public static String generateRefCode(Integer length,Enum gateway){
         int refLength=length==null ? 12:length;
         final Random random=new Random();
         final StringBuilder builder=new StringBuilder(refLength);
         for(int i=0;i<refLength;++i){
             builder.append(ALLOWED_CHARACTERS.charAt(random.nextInt(ALLOWED_CHARACTERS.length())));
         }
-        logEvent(false,gateway,"generated: refId="+builder.toString());
+        logEvent(false,gateway,"generated: refId={}",builder);
         return builder.toString();
     }
 
     /**
-     * Responsible for shoeing snack messages
-     * @param view: CoordinationLayout
-     * @param message: Message to be shown
-     * @param islong: True when is LENGTH_INDEFINITE else false
+     * Get idempotency key of the payment, it is the same for every attempt of the transaction on the gateway
+     * @param request PaymentRequest params
+     * @param gateway gateway type as indicated on PaymentConstants
+     * @return String : idempotency key, null when transaction has no ID
      */
-    public static void showSnackMessage(View view, String message, boolean islong){
-        Snackbar.make(view, message, islong ? Snackbar.LENGTH_INDEFINITE: Snackbar.LENGTH_LONG).show();
+    public static String getIdempotencyKey(PaymentRequest request, Enum gateway){
+        String transactionID=request.getTransactionID();
+        if(transactionID==null || transactionID.isEmpty()){
+            return null;
+        }
+        try{
+            return UUID.nameUUIDFromBytes((gateway.name()+":"+transactionID).getBytes("UTF-8")).toString();
+        }catch (UnsupportedEncodingException e){
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
      * Build data to send to stripe for the transaction auth
      * @param request PaymentRequest params
-     * @return HashMap of request param
+     * @return Map of request param, built once per request
      */
-    public static HashMap<String,String> getCardPayment(PaymentRequest request){
-        HashMap<String,String> data=new HashMap<>();
-        data.put(MERCHANT_KEY,request.getCardMerchantSecret());
-        data.put(TRANS_AMOUNT,String.valueOf((request.getTransactionAmount()
-                +request.getTransactionTax() +request.getTransactionFee())));
-        data.put(DESCRIPTION,request.getPaymentDesc());
-        data.put(TRANS_TOKEN,request.getTransactionID());
-        data.put(TRANS_CURRENCY,request.getDefaultCurrency());
-        data.put(CUSTOMER_EMAIL,request.getCustomerEmailAddress());
-        logEvent(false,GATEWAY_STRIPE,"Converted: data="+data.toString());
+    public static Map<String,String> getCardPayment(PaymentRequest request){
+        Map<String,String> data=request.getCardPaymentParam();
+        logEvent(false,GATEWAY_STRIPE,"Converted: data={}",data);
         return data;
     }
 
@@ -245,64 +245,39 @@ public class FurahitechUtils {
      * Responsible for constructing wazohub push parameters
      * @param gateWay: Gateway as indicated on constants
      * @param request PaymentRequest params
-     * @return HashMap of request param
+     * @return Map of request param, built once per request and gateway
      */
-    public static HashMap<String,String> getWazoPushParam(Enum gateWay,PaymentRequest request){
-        HashMap<String,String> pushRequestParam=new HashMap<>();
-        pushRequestParam.put(TRANS_MSID,request.getCustomerPhone());
-        int totalAmount=request.getTransactionAmount()+request.getTransactionTax() +request.getTransactionFee();
-        pushRequestParam.put(TRANS_AMOUNT,String.valueOf(totalAmount));
-        pushRequestParam.put(OPERATOR,getGatewayName(gateWay).toLowerCase());
-        pushRequestParam.put(TRANS_LANGUAGE,request.getDefaultLanguage());
-        pushRequestParam.put(TRANS_REQID,request.getTransactionID());
-        return pushRequestParam;
+    public static Map<String,String> getWazoPushParam(Enum gateWay,PaymentRequest request){
+        return request.getWazoPushParam(gateWay);
     }
 
 
     /**
      * Responsible for constructing tigopesa payment parameters
      * @param request PaymentRequest params
-     * @return HashMap of transaction param
+     * @param paymentEnvironment Payment environment as indicated on PaymentEnvironment
+     * @return Map of transaction param, built once per request and environment
      */
-    public static HashMap<String,String> getTigoPesaParam(PaymentRequest request){
-        HashMap<String,String> data=new HashMap<>();
-        data.put(MERCHANT_KEY,request.getTigoMerchantKey());
-        data.put(MERCHANT_SECRET,request.getTigoMerchantSecret());
-        data.put(MERCHANT_ACCOUNT,request.getTigoMerchantName());
-        data.put(MERCHANT_MSIDN,request.getTigoMerchantNumber());
-        data.put(MERCHANT_PIN,request.getTigoMerchantPin());
-        data.put(TRANS_AMOUNT,String.valueOf((request.getTransactionAmount()
-                +request.getTransactionTax()+request.getTransactionFee())));
-        data.put(TRANS_TOKEN,request.getTransactionID());
-        data.put(TRANS_CURRENCY,request.getDefaultCurrency());
-        data.put(TRANS_TAX,String.valueOf(request.getTransactionTax()));
-        data.put(TRANS_FEE,String.valueOf(request.getTransactionFee()));
-        data.put(TRANS_LANGUAGE, request.getDefaultLanguage());
-        data.put(OPERATION_ENV, FurahitechPay.getInstance().getPaymentEnvironment());
-        data.put(COUNTRY_CODE, request.getDefaultCountryCode());
-        data.put(COUNTRY_NAME, request.getDefaultCountryName());
-        data.put(CUSTOMER_FNAME, request.getCustomerFirstName());
-        data.put(CUSTOMER_LNAME, request.getCustomerLastName());
-        data.put(CUSTOMER_EMAIL, request.getCustomerEmailAddress());
-        data.put(CUSTOMER_PHONE,request.getCustomerPhone());
-        logEvent(false,GATEWAY_TIGOPESA,"Converted: data="+data.toString());
+    public static Map<String,String> getTigoPesaParam(PaymentRequest request, String paymentEnvironment){
+        Map<String,String> data=request.getTigoPesaParam(paymentEnvironment);
+        logEvent(false,GATEWAY_TIGOPESA,"Converted: data={}",data);
         return data;
     }
 
 
     /**
-     * Responsible for constructing partial data to be logged
+     * Responsible for constructing partial data of the payment request to be logged
      * @param gateWay: Gateway type
+     * @param paymentRequest PaymentRequest params
      * @param response TransactionResponse object
      * @return HashMap data
      */
-    public static HashMap<String,String> getPartialLogData(Enum gateWay,ModelWazoHub.TransactionResponse response){
-        PaymentRequest paymentRequest=FurahitechPay.getInstance().getPaymentRequest();
+    public static HashMap<String,String> getPartialLogData(Enum gateWay,PaymentRequest paymentRequest,ModelWazoHub.TransactionResponse response){
         HashMap<String,String> partialPayment=new HashMap<>();
         partialPayment.put(TRANS_UUID,response.getUid());
         partialPayment.put(TRANS_STATUS_CODE,response.getCode());
         partialPayment.put(TRANS_REFID,paymentRequest.getTransactionID());
-        logEvent(false,gateWay,"Converted: data="+partialPayment.toString());
+        logEvent(false,gateWay,"Converted: data={}",partialPayment);
         return partialPayment;
     }
 
@@ -310,36 +285,41 @@ public class FurahitechUtils {
     /**
      * Responsible for formatting payment amount
      * @param price: Amount to be paid
-     * @param currency: PaymentCurrency code (TZS, USD)
+     * @param currency: PaymentCurrency code (TZS, USD), nothing is appended when null
      * @return String: Formatted currency
      */
-    @SuppressLint("DefaultLocale")
-    public static String formatPrice(int price, @Nullable String currency){
+    public static String formatPrice(int price, String currency){
         return String.format("%,d",Integer.parseInt(String.valueOf(price)))+"/="+(currency==null ? "":currency);
     }
 
     /**
-     * Method to show dialog when use try to cancel payment getValue
-     * @param activity application context
+     * Get payment outcome carried by status query parameter of a secure page redirection URL,
+     * e.g https://merchant.co.tz/return?status=success. Only redirections back to the merchant host are trusted,
+     * pages of the gateway itself may carry similar parameters while the payment is still going on.
+     * @param url Redirection URL
+     * @param returnEndPoint Merchant endpoint the gateway returns to, i.e payment request endpoint
+     * @return PaymentConstant: STATUS_SUCCESS or STATUS_FAILURE, null when URL doesn't tell
      */
-    public static void showTaskCancelDialogOnSecure(final Activity activity){
-        AlertDialog.Builder builder=new AlertDialog.Builder(activity);
-        builder.setTitle(activity.getString(R.string.cancel_task_title));
-        builder.setMessage(activity.getString(R.string.cancel_task_message));
-        builder.setCancelable(false);
-        builder.setNegativeButton(activity.getString(R.string.negative_button), new DialogInterface.OnClickListener() {
-            @Override
-            public void onClick(DialogInterface dialogInterface, int i) {
-                dialogInterface.dismiss();
+    public static Furahitech.PaymentConstant getRedirectionOutcome(String url, String returnEndPoint){
+        HttpUrl redirection=url==null ? null:HttpUrl.parse(url);
+        HttpUrl merchant=returnEndPoint==null ? null:HttpUrl.parse(returnEndPoint);
+        if(redirection==null || merchant==null || !redirection.host().equalsIgnoreCase(merchant.host())){
+            return null;
+        }
+        for(String param:redirection.queryParameterNames()){
+            if(!REDIRECTION_STATUS_PARAMS.contains(param.toLowerCase(Locale.US))){
+                continue;
             }
-        });
-        builder.setPositiveButton(activity.getString(R.string.positive_button), new DialogInterface.OnClickListener() {
-            @Override
-            public void onClick(DialogInterface dialogInterface, int i) {
-                FurahitechPay.getInstance().notifyStateChanged(STATUS_CANCELLED);
-                activity.finish();
+            for(String value:redirection.queryParameterValues(param)){
+                String outcome=value==null ? "":value.trim().toLowerCase(Locale.US);
+                if(REDIRECTION_SUCCESS_VALUES.contains(outcome)){
+                    return STATUS_SUCCESS;
+                }
+                if(REDIRECTION_FAILURE_VALUES.contains(outcome)){
+                    return STATUS_FAILURE;
+                }
             }
-        });
-        builder.show();
+        }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,189 @@
+package com.furahitechstudio.furahitechpay.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>PhraseMatcher</h1>
+ * <p>
+ *     PhraseMatcher finds which of many phrases appears in a text and returns outcome attached to it.
+ *     Phrases are compiled once into an Aho-Corasick automaton, text is scanned in a single pass without copying
+ *     or lowercasing it so the cost depends on text length only, not on number of phrases.
+ *     Matching ignores case, when several phrases appear in the text the one added first wins.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @param <T> Outcome type
+ */
+public final class PhraseMatcher<T> {
+
+    private static final int NO_MATCH =Integer.MAX_VALUE;
+
+    private final char[][] keys;
+
+    private final int[][] targets;
+
+    private final int[] failures;
+
+    private final int[] ranks;
+
+    private final List<T> outcomes;
+
+    private PhraseMatcher(char[][] keys, int[][] targets, int[] failures, int[] ranks, List<T> outcomes){
+        this.keys=keys;
+        this.targets=targets;
+        this.failures=failures;
+        this.ranks=ranks;
+        this.outcomes=outcomes;
+    }
+
+    public static <T> Builder<T> builder(){
+        return new Builder<>();
+    }
+
+    /**
+     * Get outcome of the first added phrase which appears in the text
+     * @param text Text to be scanned
+     * @return T: outcome, null when none of the phrases appears
+     */
+    public T match(CharSequence text){
+        if(text==null){
+            return null;
+        }
+        int state=0, best=NO_MATCH;
+        for(int index=0, length=text.length(); index<length && best>0; index++){
+            char character=Character.toLowerCase(text.charAt(index));
+            int next=next(state,character);
+            while(next<0 && state!=0){
+                state=failures[state];
+                next=next(state,character);
+            }
+            state=next<0 ? 0:next;
+            best=Math.min(best,ranks[state]);
+        }
+        return best==NO_MATCH ? null:outcomes.get(best);
+    }
+
+    private int next(int state, char character){
+        int index=Arrays.binarySearch(keys[state],character);
+        return index<0 ? -1:targets[state][index];
+    }
+
+    /**
+     * Builds PhraseMatcher from phrases and their outcomes
+     * @param <T> Outcome type
+     */
+    public static class Builder<T>{
+
+        private final List<String> phrases =new ArrayList<>();
+
+        private final List<T> outcomes =new ArrayList<>();
+
+        private Builder(){}
+
+        /**
+         * Responsible for adding phrases which indicate the outcome, empty phrases are ignored
+         * @param outcome Outcome returned when one of the phrases appears
+         * @param phrases Phrases to look for
+         * @return Builder object
+         */
+        public Builder<T> add(T outcome, String... phrases){
+            for(String phrase:phrases){
+                if(phrase!=null && !phrase.isEmpty()){
+                    this.phrases.add(phrase);
+                    this.outcomes.add(outcome);
+                }
+            }
+            return this;
+        }
+
+        public PhraseMatcher<T> build(){
+            List<TreeMap<Character,Integer>> trie=new ArrayList<>();
+            List<Integer> ranks=new ArrayList<>();
+            trie.add(new TreeMap<Character,Integer>());
+            ranks.add(NO_MATCH);
+            for(int rank=0; rank<phrases.size(); rank++){
+                String phrase=phrases.get(rank);
+                int state=0;
+                for(int index=0; index<phrase.length(); index++){
+                    char character=Character.toLowerCase(phrase.charAt(index));
+                    Integer next=trie.get(state).get(character);
+                    if(next==null){
+                        next=trie.size();
+                        trie.add(new TreeMap<Character,Integer>());
+                        ranks.add(NO_MATCH);
+                        trie.get(state).put(character,next);
+                    }
+                    state=next;
+                }
+                ranks.set(state,Math.min(ranks.get(state),rank));
+            }
+
+            int size=trie.size();
+            char[][] keys=new char[size][];
+            int[][] targets=new int[size][];
+            for(int state=0; state<size; state++){
+                Map<Character,Integer> children=trie.get(state);
+                keys[state]=new char[children.size()];
+                targets[state]=new int[children.size()];
+                int index=0;
+                for(Map.Entry<Character,Integer> child:children.entrySet()){
+                    keys[state][index]=child.getKey();
+                    targets[state][index]=child.getValue();
+                    index++;
+                }
+            }
+
+            //Breadth first, failure of a state is always shallower so its rank is final when inherited
+            int[] failures=new int[size];
+            int[] stateRanks=new int[size];
+            stateRanks[0]=NO_MATCH;
+            Queue<Integer> queue=new LinkedList<>();
+            queue.add(0);
+            while(!queue.isEmpty()){
+                int state=queue.poll();
+                for(Map.Entry<Character,Integer> child:trie.get(state).entrySet()){
+                    int target=child.getValue();
+                    int failure=0;
+                    if(state!=0){
+                        failure=failures[state];
+                        Integer next=trie.get(failure).get(child.getKey());
+                        while(next==null && failure!=0){
+                            failure=failures[failure];
+                            next=trie.get(failure).get(child.getKey());
+                        }
+                        failure=next==null ? 0:next;
+                    }
+                    failures[target]=failure;
+                    stateRanks[target]=Math.min(ranks.get(target),stateRanks[failure]);
+                    queue.add(target);
+                }
+            }
+            return new PhraseMatcher<>(keys,targets,failures,stateRanks,new ArrayList<>(outcomes));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.furahitechstudio.furahitechpay.journal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechJournalTest</h1>
+ * <p>
+ *     FurahitechJournalTest checks replay of the journal file after process death, including torn and corrupt records,
+ *     and its compaction to pending payments.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class FurahitechJournalTest {
+
+    @Rule
+    public TemporaryFolder folder=new TemporaryFolder();
+
+    private final FurahitechJournal journal=FurahitechJournal.getInstance();
+
+    private File directory, journalFile;
+
+    @Before
+    public void setUp() throws IOException {
+        directory=folder.newFolder();
+        journalFile=new File(directory,"furahitechpay.journal");
+        journal.open(directory);
+        assertTrue(journal.isOpen());
+    }
+
+    @After
+    public void tearDown(){
+        journal.close();
+    }
+
+    @Test
+    public void replayRestoresLatestStateOfPendingPayments(){
+        journal.append(record(JournalRecord.State.REQUESTED,"A1",null,null));
+        journal.append(record(JournalRecord.State.PUSHED,"A1","uuid-a1","pushed"));
+        journal.append(record(JournalRecord.State.POLLED,"A1",null,null));
+        journal.append(record(JournalRecord.State.REQUESTED,"B2",null,null));
+        journal.append(record(JournalRecord.State.COMPLETED,"B2",null,null));
+        reopen();
+
+        List<JournalRecord> pending=journal.getPendingPayments();
+        assertEquals(1,pending.size());
+        JournalRecord payment=pending.get(0);
+        assertEquals("A1",payment.getTransactionID());
+        assertEquals(JournalRecord.State.POLLED,payment.getState());
+        assertEquals("uuid-a1",payment.getTransactionUUID());
+        assertEquals("pushed",payment.getDetail());
+        assertTrue(payment.isResumable());
+    }
+
+    @Test
+    public void tornTailIsDropped() throws IOException {
+        journal.append(record(JournalRecord.State.PUSHED,"A1","uuid-a1",null));
+        journal.append(record(JournalRecord.State.POLLED,"A1",null,"pending"));
+        journal.close();
+        truncate(journalFile.length()-3);
+        journal.open(directory);
+
+        List<JournalRecord> pending=journal.getPendingPayments();
+        assertEquals(1,pending.size());
+        assertEquals(JournalRecord.State.PUSHED,pending.get(0).getState());
+
+        //Torn record is gone from the file, records appended later are replayed
+        journal.append(record(JournalRecord.State.COMPLETED,"A1",null,null));
+        reopen();
+        assertTrue(journal.getPendingPayments().isEmpty());
+    }
+
+    @Test
+    public void corruptRecordStopsReplay() throws IOException {
+        journal.append(record(JournalRecord.State.PUSHED,"A1","uuid-a1",null));
+        journal.close();
+        long firstRecordEnd=journalFile.length();
+        journal.open(directory);
+        journal.append(record(JournalRecord.State.POLLED,"A1",null,"pending"));
+        journal.append(record(JournalRecord.State.PUSHED,"B2","uuid-b2",null));
+        journal.close();
+        flipByte(firstRecordEnd+8);
+        journal.open(directory);
+
+        List<JournalRecord> pending=journal.getPendingPayments();
+        assertEquals(1,pending.size());
+        assertEquals("A1",pending.get(0).getTransactionID());
+        assertEquals(JournalRecord.State.PUSHED,pending.get(0).getState());
+    }
+
+    @Test
+    public void compactionKeepsOnlyRecentPendingPayments(){
+        long old=System.currentTimeMillis()-TimeUnit.DAYS.toMillis(2);
+        journal.append(new JournalRecord(JournalRecord.State.PUSHED,old,"OLD","GATEWAY_MPESA","uuid-old","https://merchant.co.tz/",100,null));
+        for(int i=0;i<50;i++){
+            journal.append(record(JournalRecord.State.POLLED,"A1","uuid-a1","attempt "+i));
+        }
+        journal.append(record(JournalRecord.State.REQUESTED,"B2",null,null));
+        journal.append(record(JournalRecord.State.COMPLETED,"B2",null,null));
+        journal.close();
+        long beforeCompaction=journalFile.length();
+        journal.open(directory);
+
+        List<JournalRecord> pending=journal.getPendingPayments();
+        assertEquals(1,pending.size());
+        assertEquals("attempt 49",pending.get(0).getDetail());
+        assertTrue(journalFile.length()*10<beforeCompaction);
+        reopen();
+        assertEquals("attempt 49",journal.getPendingPayments().get(0).getDetail());
+    }
+
+    private void reopen(){
+        journal.close();
+        journal.open(directory);
+    }
+
+    private void truncate(long length) throws IOException {
+        RandomAccessFile file=new RandomAccessFile(journalFile,"rw");
+        try{
+            file.setLength(length);
+        }finally {
+            file.close();
+        }
+    }
+
+    private void flipByte(long position) throws IOException {
+        RandomAccessFile file=new RandomAccessFile(journalFile,"rw");
+        try{
+            file.seek(position);
+            int value=file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        }finally {
+            file.close();
+        }
+    }
+
+    private static JournalRecord record(JournalRecord.State state, String transactionID, String transactionUUID, String detail){
+        return new JournalRecord(state,System.currentTimeMillis(),transactionID,"GATEWAY_MPESA",transactionUUID,
+                "https://merchant.co.tz/",12500,detail);
+    }
+}
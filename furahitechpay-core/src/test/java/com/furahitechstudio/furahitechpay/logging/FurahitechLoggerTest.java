@@ -0,0 +1,159 @@
+package com.furahitechstudio.furahitechpay.logging;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechLoggerTest</h1>
+ * <p>
+ *     FurahitechLoggerTest checks message formatting, level gating and draining of entries logged from many threads.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class FurahitechLoggerTest {
+
+    private static final String TAG ="LoggerTest";
+
+    private final FurahitechLogger logger=FurahitechLogger.getInstance();
+
+    private final RecordingSink sink=new RecordingSink();
+
+    @After
+    public void tearDown(){
+        logger.clearSinks();
+        logger.setLevel(FurahitechLogger.Level.DEBUG);
+    }
+
+    @Test
+    public void placeholdersAreReplacedInOrder(){
+        assertEquals("Payment A1 failed with HTTP 503",FurahitechLogger.format("Payment {} failed with {}","A1","HTTP 503",null,null));
+        assertEquals("1 2 3 4",FurahitechLogger.format("{} {} {} {}",1,2,3,4));
+        assertEquals("null and null",FurahitechLogger.format("{} and {}",null,null,null,null));
+        assertEquals("1 2 3 4 {}",FurahitechLogger.format("{} {} {} {} {}",1,2,3,4));
+        assertEquals("No placeholder",FurahitechLogger.format("No placeholder","unused",null,null,null));
+        assertEquals("null",FurahitechLogger.format(null,null,null,null,null));
+    }
+
+    @Test
+    public void entriesBelowLevelAreNotWritten(){
+        logger.addSink(sink);
+        logger.setLevel(FurahitechLogger.Level.WARN);
+        logger.log(FurahitechLogger.Level.DEBUG,TAG,"hidden {}",1,null,null);
+        logger.log(FurahitechLogger.Level.ERROR,TAG,"shown {}",2,null,null);
+        assertTrue(logger.flush(5000));
+        assertEquals(1,sink.getMessages().size());
+        assertEquals("shown 2",sink.getMessages().get(0));
+    }
+
+    @Test
+    public void entriesOfEveryProducerAreDrainedInOrder() throws InterruptedException {
+        final int producers=4, perProducer=5000;
+        logger.addSink(sink);
+        long droppedBefore=logger.getDroppedCount();
+        final CountDownLatch start=new CountDownLatch(1);
+        List<Thread> threads=new ArrayList<>();
+        for(int p=0;p<producers;p++){
+            final int producer=p;
+            Thread thread=new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try{
+                        start.await();
+                    }catch (InterruptedException e){
+                        return;
+                    }
+                    for(int i=0;i<perProducer;i++){
+                        logger.log(FurahitechLogger.Level.INFO,TAG,"{} {}",producer,i,null);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for(Thread thread:threads){
+            thread.join();
+        }
+        assertTrue(logger.flush(10000));
+
+        int [] last=new int[producers];
+        Arrays.fill(last,-1);
+        List<String> messages=sink.getMessages();
+        for(String message:messages){
+            String [] parts=message.split(" ");
+            int producer=Integer.parseInt(parts[0]), index=Integer.parseInt(parts[1]);
+            assertTrue("Producer "+producer+" out of order",index>last[producer]);
+            last[producer]=index;
+        }
+        //Full buffer drops entries instead of blocking, every entry is either written or counted as dropped
+        assertEquals(producers*perProducer,messages.size()+(logger.getDroppedCount()-droppedBefore));
+    }
+
+    @Test
+    public void faultySinkDoesNotStopOthers(){
+        logger.addSink(new LogSink() {
+            @Override
+            public void write(FurahitechLogger.Level level, long timestamp, String tag, String message) {
+                throw new IllegalStateException("Disk is full");
+            }
+
+            @Override
+            public void flush() {
+                throw new IllegalStateException("Disk is full");
+            }
+        });
+        logger.addSink(sink);
+        logger.log(FurahitechLogger.Level.ERROR,TAG,"still {}","logged",null,null);
+        assertTrue(logger.flush(5000));
+        assertEquals(1,sink.getMessages().size());
+    }
+
+    /**
+     * Keeps messages of this test only, other tests may log meanwhile
+     */
+    private static class RecordingSink implements LogSink{
+        private final List<String> messages=new ArrayList<>();
+
+        @Override
+        public synchronized void write(FurahitechLogger.Level level, long timestamp, String tag, String message) {
+            if(TAG.equals(tag)){
+                messages.add(message);
+            }
+        }
+
+        @Override
+        public void flush() {}
+
+        synchronized List<String> getMessages(){
+            return new ArrayList<>(messages);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.furahitechstudio.furahitechpay.models;
+
+import com.furahitechstudio.furahitechpay.utils.FurahitechException;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>PaymentCodecTest</h1>
+ * <p>
+ *     PaymentCodecTest checks that payment request and status survive encoding, including missing fields and large values.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class PaymentCodecTest {
+
+    @Test
+    public void requestRoundTrip(){
+        HashMap<String,String> extras=new HashMap<>();
+        extras.put("orderId","10023");
+        extras.put("note",null);
+        PaymentRequest request=new PaymentRequest.Builder()
+                .setTransactionID("A7K2M9Q4X1ZP")
+                .setTransactionAmount(12500)
+                .setTransactionTax(180)
+                .setTransactionFee(250)
+                .setCustomerFirstName("Amani")
+                .setCustomerEmailAddress("amani.mushi@example.com")
+                .setPaymentDesc("Malipo ya oda #10023 \u2713")
+                .setPaymentExtraParam(extras)
+                .build();
+
+        PaymentRequest decoded=PaymentCodec.decodePaymentRequest(PaymentCodec.encode(request));
+
+        assertEquals("A7K2M9Q4X1ZP",decoded.getTransactionID());
+        assertEquals(12500,decoded.getTransactionAmount());
+        assertEquals(request.getTotalAmount(),decoded.getTotalAmount());
+        assertEquals("Amani",decoded.getCustomerFirstName());
+        assertEquals("Malipo ya oda #10023 \u2713",decoded.getPaymentDesc());
+        assertEquals(request.getDefaultCurrency(),decoded.getDefaultCurrency());
+        assertNull(decoded.getCustomerLastName());
+        assertNull(decoded.getTigoMerchantKey());
+        assertEquals(extras,decoded.getPaymentExtraParam());
+    }
+
+    @Test
+    public void statusRoundTrip(){
+        PaymentStatus status=new PaymentStatus();
+        status.setPaymentRefId("A7K2M9Q4X1ZP");
+        status.setPaymentAmount(12930);
+        status.setPaymentTimeStamp(1519045611);
+        status.setPaymentStatus(STATUS_SUCCESS);
+
+        PaymentStatus decoded=PaymentCodec.decodePaymentStatus(PaymentCodec.encode(status));
+
+        assertEquals("A7K2M9Q4X1ZP",decoded.getPaymentRefId());
+        assertEquals(12930,decoded.getPaymentAmount());
+        assertEquals(1519045611,decoded.getPaymentTimeStamp());
+        assertEquals(STATUS_SUCCESS,decoded.getPaymentStatus());
+        assertNull(decoded.getPaymentCustomerId());
+        assertNull(decoded.getPaymentExtraParam());
+    }
+
+    @Test
+    public void largeExtraValueRoundTrip(){
+        char [] value=new char[100000];
+        Arrays.fill(value,'x');
+        HashMap<String,String> extras=new HashMap<>();
+        extras.put("receipt",new String(value));
+        PaymentStatus status=new PaymentStatus();
+        status.setPaymentStatus(STATUS_SUCCESS);
+        status.setPaymentExtraParam(extras);
+
+        PaymentStatus decoded=PaymentCodec.decodePaymentStatus(PaymentCodec.encode(status));
+
+        assertEquals(extras,decoded.getPaymentExtraParam());
+    }
+
+    @Test(expected = FurahitechException.class)
+    public void unknownVersionIsRejected(){
+        PaymentStatus status=new PaymentStatus();
+        status.setPaymentStatus(STATUS_SUCCESS);
+        byte [] data=PaymentCodec.encode(status);
+        data[0]=9;
+        PaymentCodec.decodePaymentStatus(data);
+    }
+
+    @Test(expected = FurahitechException.class)
+    public void truncatedDataIsRejected(){
+        PaymentStatus status=new PaymentStatus();
+        status.setPaymentRefId("A7K2M9Q4X1ZP");
+        byte [] data=PaymentCodec.encode(status);
+        PaymentCodec.decodePaymentStatus(Arrays.copyOf(data,data.length/2));
+    }
+
+    @Test(expected = FurahitechException.class)
+    public void unsupportedStatusTypeIsRejected(){
+        PaymentStatus status=new PaymentStatus();
+        status.setPaymentStatus(TestStatus.DONE);
+        PaymentCodec.encode(status);
+    }
+
+    @Test
+    public void gatewayConstantIsKept(){
+        PaymentStatus status=new PaymentStatus();
+        status.setPaymentStatus(GATEWAY_MPESA);
+        assertEquals(GATEWAY_MPESA,PaymentCodec.decodePaymentStatus(PaymentCodec.encode(status)).getPaymentStatus());
+    }
+
+    private enum TestStatus{
+        DONE
+    }
+}
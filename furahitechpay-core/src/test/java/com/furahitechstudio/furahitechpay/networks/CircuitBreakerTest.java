@@ -0,0 +1,156 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>CircuitBreakerTest</h1>
+ * <p>
+ *     CircuitBreakerTest checks circuit state transitions, half open probe accounting and bulkhead admission.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class CircuitBreakerTest {
+
+    private static final String END_POINT ="https://merchant.co.tz:443";
+
+    @Test
+    public void failuresOpenCircuitOnceMinimumCallsAreReached() throws IOException {
+        CircuitBreaker breaker=new CircuitBreaker(END_POINT,policy(60*1000));
+        for(int i=0;i<3;i++){
+            call(breaker,true);
+        }
+        assertEquals("Minimum calls not reached",CircuitBreaker.State.CLOSED,breaker.getState());
+        call(breaker,false);
+        assertEquals(CircuitBreaker.State.OPEN,breaker.getState());
+        assertEquals(0.75,breaker.getFailureRate(),0.001);
+        assertRejected(breaker);
+        assertEquals(0,breaker.getInFlightCount());
+    }
+
+    @Test
+    public void slowCallsCountAsFailures() throws IOException {
+        CircuitBreaker breaker=new CircuitBreaker(END_POINT,policy(60*1000));
+        for(int i=0;i<4;i++){
+            assertFalse(breaker.acquire(false));
+            breaker.release(false,false,5000);
+        }
+        assertEquals(CircuitBreaker.State.OPEN,breaker.getState());
+    }
+
+    @Test
+    public void successfulProbesCloseCircuit() throws IOException {
+        CircuitBreaker breaker=openedBreaker();
+        assertEquals(CircuitBreaker.State.HALF_OPEN,breaker.getState());
+        assertTrue(breaker.acquire(false));
+        assertTrue(breaker.acquire(false));
+        assertRejected(breaker);
+        breaker.release(true,false,10);
+        assertEquals(CircuitBreaker.State.HALF_OPEN,breaker.getState());
+        //Succeeded probe still takes its place, only two probes are let through in total
+        assertRejected(breaker);
+        breaker.release(true,false,10);
+        assertEquals(CircuitBreaker.State.CLOSED,breaker.getState());
+        assertEquals(0,breaker.getFailureRate(),0.001);
+        assertFalse(breaker.acquire(false));
+        breaker.release(false,false,10);
+    }
+
+    @Test
+    public void failedProbeOpensCircuitAgain() throws IOException {
+        CircuitBreaker breaker=openedBreaker();
+        assertTrue(breaker.acquire(false));
+        breaker.release(true,true,10);
+        assertEquals(CircuitBreaker.State.HALF_OPEN,breaker.getState());
+        //Open duration is 0, next call is a probe again and not a normal call
+        assertTrue(breaker.acquire(false));
+        breaker.release(true,false,10);
+        assertTrue(breaker.acquire(false));
+        breaker.release(true,false,10);
+        assertEquals(CircuitBreaker.State.CLOSED,breaker.getState());
+    }
+
+    @Test
+    public void abandonedProbeFreesItsPlace() throws IOException {
+        CircuitBreaker breaker=openedBreaker();
+        assertTrue(breaker.acquire(false));
+        assertTrue(breaker.acquire(false));
+        breaker.abandon(true);
+        assertTrue(breaker.acquire(false));
+        assertEquals(2,breaker.getInFlightCount());
+        assertEquals(CircuitBreaker.State.HALF_OPEN,breaker.getState());
+    }
+
+    @Test
+    public void fullBulkheadRejectsWithoutWaiting() throws IOException {
+        CircuitBreaker breaker=new CircuitBreaker(END_POINT,policy(60*1000).setMaxConcurrentCalls(2).setMaxWaitDuration(60*1000));
+        breaker.acquire(false);
+        breaker.acquire(false);
+        long startedAt=System.currentTimeMillis();
+        assertRejected(breaker);
+        assertTrue(System.currentTimeMillis()-startedAt<1000);
+        breaker.release(false,false,10);
+        assertFalse(breaker.acquire(true));
+        assertEquals(2,breaker.getInFlightCount());
+    }
+
+    private static CircuitBreakerPolicy policy(long openDuration){
+        return CircuitBreakerPolicy.defaultPolicy()
+                .setWindowSize(10)
+                .setMinimumCalls(4)
+                .setFailureRateThreshold(0.5)
+                .setSlowCallThreshold(1000)
+                .setOpenDuration(openDuration)
+                .setHalfOpenProbes(2)
+                .setMaxConcurrentCalls(10)
+                .setMaxWaitDuration(0);
+    }
+
+    private static CircuitBreaker openedBreaker() throws IOException {
+        CircuitBreaker breaker=new CircuitBreaker(END_POINT,policy(0));
+        for(int i=0;i<4;i++){
+            call(breaker,true);
+        }
+        return breaker;
+    }
+
+    private static void call(CircuitBreaker breaker, boolean isFailed) throws IOException {
+        boolean isProbe=breaker.acquire(false);
+        breaker.release(isProbe,isFailed,10);
+    }
+
+    private static void assertRejected(CircuitBreaker breaker) throws IOException {
+        try{
+            breaker.acquire(false);
+            fail("Call was admitted");
+        }catch (GatewayUnavailableException e){
+            assertEquals(END_POINT,e.getEndPoint());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechNetworkHelperTest</h1>
+ * <p>
+ *     FurahitechNetworkHelperTest checks that shared dispatcher delivers every callback when calls exceed its limits.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class FurahitechNetworkHelperTest {
+
+    private static final int CALLS =500;
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server=new MockWebServer();
+        for(int i=0;i<CALLS;i++){
+            server.enqueue(new MockResponse().setBody("{}"));
+        }
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void enqueuedCallsBeyondDispatcherLimitAllComplete() throws InterruptedException {
+        Dispatcher dispatcher=FurahitechNetworkHelper.newBoundedDispatcher();
+        OkHttpClient client=new OkHttpClient.Builder().dispatcher(dispatcher).build();
+        final CountDownLatch latch=new CountDownLatch(CALLS);
+        final AtomicInteger failures=new AtomicInteger();
+        for(int i=0;i<CALLS;i++){
+            //Two host names for one server, so calls fill all dispatcher slots and not only per host ones
+            HttpUrl url=server.url("/v1/payment/"+i).newBuilder().host(i%2==0 ? "localhost":"127.0.0.1").build();
+            client.newCall(new Request.Builder().url(url).build()).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    failures.incrementAndGet();
+                    latch.countDown();
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) throws IOException {
+                    response.body().close();
+                    latch.countDown();
+                }
+            });
+        }
+        assertTrue("Callbacks not delivered: "+latch.getCount(),latch.await(30, TimeUnit.SECONDS));
+        assertEquals(0,failures.get());
+        assertEquals(CALLS,server.getRequestCount());
+        assertEquals(0,dispatcher.queuedCallsCount());
+    }
+}
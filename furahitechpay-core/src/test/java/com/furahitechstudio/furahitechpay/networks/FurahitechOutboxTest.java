@@ -0,0 +1,189 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechOutboxTest</h1>
+ * <p>
+ *     FurahitechOutboxTest checks batch delivery of partial payment logs, fallback to single logs on servers
+ *     without batch support and retry of failed logs with backoff.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class FurahitechOutboxTest {
+
+    private static final String BATCH_PATH ="/v1/partial/batch", SINGLE_PATH ="/v1/partial";
+
+    private static final String LOGGED ="{\"error\":false,\"message\":\"A7K2M9Q4X1ZP\"}";
+
+    @ClassRule
+    public static TemporaryFolder folder=new TemporaryFolder();
+
+    private static File outboxFile;
+
+    private final FurahitechOutbox outbox=FurahitechOutbox.getInstance();
+
+    private final List<String> paths=new CopyOnWriteArrayList<>();
+
+    private final List<Long> receivedAt=new CopyOnWriteArrayList<>();
+
+    private MockWebServer server;
+
+    private String endPoint;
+
+    @BeforeClass
+    public static void openOutbox() throws IOException {
+        File directory=folder.newFolder();
+        outboxFile=new File(directory,"furahitechpay.outbox");
+        FurahitechOutbox.getInstance().open(directory);
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        server=new MockWebServer();
+        server.start();
+        endPoint=server.url("/").toString();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void logsOfOneEndpointAreSentAsOneBatch() throws Exception {
+        respond(200,200);
+        for(int i=0;i<3;i++){
+            outbox.enqueue(endPoint,GATEWAY_MPESA,details(i));
+        }
+        awaitDelivery();
+
+        assertEquals(1,paths.size());
+        assertEquals(BATCH_PATH,paths.get(0));
+    }
+
+    @Test
+    public void unsupportedBatchFallsBackToSingleLogs() throws Exception {
+        respond(404,200);
+        for(int i=0;i<3;i++){
+            outbox.enqueue(endPoint,GATEWAY_MPESA,details(i));
+        }
+        awaitDelivery();
+        assertEquals(4,paths.size());
+        assertEquals(BATCH_PATH,paths.get(0));
+        for(String path:paths.subList(1,4)){
+            assertEquals(SINGLE_PATH,path);
+        }
+
+        //Endpoint is remembered, batch request isn't tried again
+        paths.clear();
+        for(int i=0;i<2;i++){
+            outbox.enqueue(endPoint,GATEWAY_MPESA,details(i));
+        }
+        awaitDelivery();
+        assertEquals(2,paths.size());
+        assertEquals(SINGLE_PATH,paths.get(0));
+        assertEquals(SINGLE_PATH,paths.get(1));
+    }
+
+    @Test
+    public void failedLogIsKeptAndRetriedWithBackoff() throws Exception {
+        respond(200,500,200);
+        outbox.enqueue(endPoint,GATEWAY_MPESA,details(0));
+        long deadline=System.currentTimeMillis()+5000;
+        while (paths.isEmpty() && System.currentTimeMillis()<deadline){
+            Thread.sleep(20);
+        }
+        Thread.sleep(200);
+        assertEquals(1,outbox.getPendingCount());
+        assertTrue("Pending log isn't persisted",outboxFile.length()>0);
+
+        awaitDelivery();
+        assertEquals(2,paths.size());
+        assertTrue("Retried without backoff",receivedAt.get(1)-receivedAt.get(0)>=TimeUnit.SECONDS.toMillis(2)-100);
+        //Pending count is updated before the file is rewritten
+        long fileDeadline=System.currentTimeMillis()+5000;
+        while (outboxFile.length()>0 && System.currentTimeMillis()<fileDeadline){
+            Thread.sleep(20);
+        }
+        assertEquals(0,outboxFile.length());
+    }
+
+    /**
+     * Respond to batch requests with the batch code, single log requests get codes in order and then the last one
+     */
+    private void respond(final int batchCode, final int... singleCodes){
+        final AtomicInteger singleCount=new AtomicInteger();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                paths.add(request.getPath());
+                receivedAt.add(System.currentTimeMillis());
+                int code=batchCode;
+                if(!BATCH_PATH.equals(request.getPath())){
+                    code=singleCodes[Math.min(singleCount.getAndIncrement(),singleCodes.length-1)];
+                }
+                return new MockResponse().setResponseCode(code).setBody(code==200 ? LOGGED:"{}");
+            }
+        });
+    }
+
+    private void awaitDelivery() throws InterruptedException {
+        long deadline=System.currentTimeMillis()+10000;
+        //Give the batch window a chance to pass before pending logs are counted
+        Thread.sleep(300);
+        while (outbox.getPendingCount()>0 && System.currentTimeMillis()<deadline){
+            Thread.sleep(20);
+        }
+        assertEquals("Logs not delivered",0,outbox.getPendingCount());
+    }
+
+    private static HashMap<String,String> details(int index){
+        HashMap<String,String> details=new HashMap<>();
+        details.put("uuid","uuid-"+index);
+        details.put("amount","12500");
+        return details;
+    }
+}
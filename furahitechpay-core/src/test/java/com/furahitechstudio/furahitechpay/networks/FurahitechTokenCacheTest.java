@@ -0,0 +1,125 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import com.furahitechstudio.furahitechpay.listeners.TokenListener;
+import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
+import com.google.gson.Gson;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechTokenCacheTest</h1>
+ * <p>
+ *     FurahitechTokenCacheTest checks merging of concurrent token requests and when background refresh is due.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class FurahitechTokenCacheTest {
+
+    private final FurahitechTokenCache cache=FurahitechTokenCache.getInstance();
+
+    @After
+    public void tearDown(){
+        cache.clear();
+    }
+
+    @Test
+    public void concurrentRequestsShareOneNetworkRequest(){
+        String key=FurahitechTokenCache.keyOf("client","payments");
+        CountingListener first=new CountingListener(), second=new CountingListener();
+        assertTrue(cache.join(key,first));
+        assertFalse(cache.join(key,second));
+        assertFalse(cache.isRefreshDue(key));
+
+        ModelWazoHub.AuthenticationResponse response=token("A1",3600);
+        cache.complete(key,response);
+
+        assertEquals(1,first.received.get());
+        assertEquals(1,second.received.get());
+        assertSame(response,cache.getValidToken(key));
+        assertFalse(cache.isRefreshDue(key));
+        assertTrue("Next request starts again",cache.join(key,null));
+        cache.fail(key);
+    }
+
+    @Test
+    public void failedRequestNotifiesAllListeners(){
+        String key=FurahitechTokenCache.keyOf("client","failing");
+        CountingListener first=new CountingListener(), second=new CountingListener();
+        cache.join(key,first);
+        cache.join(key,second);
+        cache.fail(key);
+        assertEquals(1,first.failed.get());
+        assertEquals(1,second.failed.get());
+        assertNull(cache.getValidToken(key));
+    }
+
+    @Test
+    public void shortLivedTokenIsRefreshedBeforeExpiry(){
+        //40s token stops being served after 10s, refresh can't wait for 75% of its lifetime
+        String key=FurahitechTokenCache.keyOf("client","short");
+        cache.join(key,null);
+        cache.complete(key,token("S1",40));
+        assertTrue(cache.getValidToken(key)!=null);
+        assertTrue(cache.isRefreshDue(key));
+        cache.join(key,null);
+        assertFalse("Refresh is already running",cache.isRefreshDue(key));
+        cache.fail(key);
+    }
+
+    @Test
+    public void rejectedTokenIsRemoved(){
+        String key=FurahitechTokenCache.keyOf("client","rejected");
+        cache.join(key,null);
+        cache.complete(key,token("R1",3600));
+        cache.invalidate("R1");
+        assertNull(cache.getValidToken(key));
+    }
+
+    private static ModelWazoHub.AuthenticationResponse token(String accessToken, int expiresIn){
+        return new Gson().fromJson("{\"token_type\":\"CREDENTIALS\",\"expires_in\":"+expiresIn
+                +",\"access_token\":\""+accessToken+"\"}",ModelWazoHub.AuthenticationResponse.class);
+    }
+
+    private static class CountingListener implements TokenListener{
+        private final AtomicInteger received=new AtomicInteger(), failed=new AtomicInteger();
+
+        @Override
+        public void onTokenReceived(ModelWazoHub.AuthenticationResponse response) {
+            received.incrementAndGet();
+        }
+
+        @Override
+        public void onFailed() {
+            failed.incrementAndGet();
+        }
+    }
+}
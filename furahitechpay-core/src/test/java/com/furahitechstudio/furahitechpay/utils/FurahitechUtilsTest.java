@@ -0,0 +1,63 @@
+package com.furahitechstudio.furahitechpay.utils;
+
+import org.junit.Test;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_FAILURE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getRedirectionOutcome;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechUtilsTest</h1>
+ * <p>
+ *     FurahitechUtilsTest checks payment outcome detection from secure page redirections.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class FurahitechUtilsTest {
+
+    private static final String MERCHANT_ENDPOINT ="https://merchant.co.tz/payments/";
+
+    @Test
+    public void merchantReturnTellsOutcome(){
+        assertEquals(STATUS_SUCCESS,getRedirectionOutcome("https://merchant.co.tz/return?status=success",MERCHANT_ENDPOINT));
+        assertEquals(STATUS_FAILURE,getRedirectionOutcome("https://MERCHANT.co.tz/return?payment_status=Failed#done",MERCHANT_ENDPOINT));
+        assertEquals(STATUS_FAILURE,getRedirectionOutcome("https://merchant.co.tz/return?id=1&trans_status=canceled%20",MERCHANT_ENDPOINT));
+    }
+
+    @Test
+    public void gatewayPagesAreNotTrusted(){
+        assertNull(getRedirectionOutcome("https://secure.tigo.co.tz/payment?status=success",MERCHANT_ENDPOINT));
+        assertNull(getRedirectionOutcome("https://merchant.co.tz/return?status=success",null));
+    }
+
+    @Test
+    public void genericParamsAndFragmentsAreIgnored(){
+        assertNull(getRedirectionOutcome("https://merchant.co.tz/return?result=success",MERCHANT_ENDPOINT));
+        assertNull(getRedirectionOutcome("https://merchant.co.tz/return?status=error",MERCHANT_ENDPOINT));
+        assertNull(getRedirectionOutcome("https://merchant.co.tz/return#?status=success",MERCHANT_ENDPOINT));
+        assertNull(getRedirectionOutcome("about:blank",MERCHANT_ENDPOINT));
+        assertNull(getRedirectionOutcome(null,MERCHANT_ENDPOINT));
+    }
+}
@@ -0,0 +1,69 @@
+package com.furahitechstudio.furahitechpay.utils;
+
+import org.junit.Test;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_FAILURE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>PhraseMatcherTest</h1>
+ * <p>
+ *     PhraseMatcherTest checks outcome detection of secure page phrases.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class PhraseMatcherTest {
+
+    private final PhraseMatcher<Furahitech.PaymentConstant> matcher=PhraseMatcher.<Furahitech.PaymentConstant>builder()
+            .add(STATUS_SUCCESS,"Malipo yamekamilika","Payment successful")
+            .add(STATUS_FAILURE,"Malipo hayajakamilika","Insufficient funds","payment")
+            .build();
+
+    @Test
+    public void phraseIsFoundIgnoringCase(){
+        assertEquals(STATUS_SUCCESS,matcher.match("<h2>PAYMENT SUCCESSFUL</h2>"));
+        assertEquals(STATUS_FAILURE,matcher.match("<p class='error'>insufficient Funds on account</p>"));
+    }
+
+    @Test
+    public void firstAddedPhraseWins(){
+        //Failure phrase "payment" appears first in the text, success was added first
+        assertEquals(STATUS_SUCCESS,matcher.match("payment status: Payment successful"));
+    }
+
+    @Test
+    public void overlappingPhrasesAreFound(){
+        //"Malipo ha" shares prefix with success phrase "Malipo ya", automaton has to fall back
+        assertEquals(STATUS_FAILURE,matcher.match("Malipo Malipo hayajakamilika"));
+        assertEquals(STATUS_SUCCESS,matcher.match("MalipoMalipo yamekamilika"));
+    }
+
+    @Test
+    public void textWithoutPhrasesTellsNothing(){
+        assertNull(matcher.match("Ingiza namba ya siri"));
+        assertNull(matcher.match(""));
+        assertNull(PhraseMatcher.<Furahitech.PaymentConstant>builder().build().match("Payment successful"));
+    }
+}
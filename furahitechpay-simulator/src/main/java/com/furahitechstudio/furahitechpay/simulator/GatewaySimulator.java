@@ -0,0 +1,412 @@
+package com.furahitechstudio.furahitechpay.simulator;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>GatewaySimulator</h1>
+ * <p>
+ *     GatewaySimulator is a local stand-in for WazoHub, the payment request server and the payment logs server.
+ *     It serves every endpoint the library calls on one MockWebServer with configurable latency and error rate per endpoint,
+ *     pushed payments receive their callback after a configurable delay so that status polling can be exercised.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class GatewaySimulator extends Dispatcher {
+
+    /**
+     * Endpoints served by the simulator
+     */
+    public enum Endpoint{
+        ACCESS_TOKEN,
+        MPESA_PUSH,
+        CARD,
+        TIGOPESA,
+        PARTIAL_LOG,
+        PARTIAL_LOG_BATCH,
+        PARTIAL_STATUS,
+        PARTIAL_STATUS_BATCH
+    }
+
+    private static final String CALLBACK_RECEIVED ="received", CALLBACK_WAITING ="waiting";
+
+    private static final String STATUS_RECEIVED ="200", STATUS_WAITING ="100", STATUS_FAILED ="500";
+
+    private static final String ACCESS_TOKEN_JSON ="{\"token_type\":\"Bearer\",\"expires_in\":3600,\"access_token\":\"%s\"}";
+
+    private final MockWebServer server =new MockWebServer();
+
+    private final Gson gson =new Gson();
+
+    private final Map<Endpoint,long[]> latencies =new EnumMap<>(Endpoint.class);
+
+    private final Map<Endpoint,Double> errorRates =new EnumMap<>(Endpoint.class);
+
+    private final Map<String,PendingCallback> callbacks =new ConcurrentHashMap<>();
+
+    private final AtomicLong servedCount =new AtomicLong(), failedCount =new AtomicLong();
+
+    private volatile long callbackDelay =3000, callbackJitter =0;
+
+    private volatile double callbackFailureRate =0;
+
+    public GatewaySimulator(){
+        setLatency(50,0);
+        setErrorRate(0);
+        server.setDispatcher(this);
+    }
+
+    /**
+     * Responsible for setting up latency of all endpoints
+     * @param latency Response time in milliseconds
+     * @param jitter Random time in milliseconds added to every response, up to this value
+     * @return GatewaySimulator object
+     */
+    public synchronized GatewaySimulator setLatency(long latency, long jitter){
+        for(Endpoint endpoint:Endpoint.values()){
+            setLatency(endpoint,latency,jitter);
+        }
+        return this;
+    }
+
+    /**
+     * Responsible for setting up latency of the endpoint
+     * @param endpoint Simulated endpoint
+     * @param latency Response time in milliseconds
+     * @param jitter Random time in milliseconds added to every response, up to this value
+     * @return GatewaySimulator object
+     */
+    public synchronized GatewaySimulator setLatency(Endpoint endpoint, long latency, long jitter){
+        latencies.put(endpoint,new long[]{latency,jitter});
+        return this;
+    }
+
+    /**
+     * Responsible for setting up error rate of all endpoints
+     * @param errorRate Share of requests answered with HTTP 500, from 0 to 1
+     * @return GatewaySimulator object
+     */
+    public synchronized GatewaySimulator setErrorRate(double errorRate){
+        for(Endpoint endpoint:Endpoint.values()){
+            setErrorRate(endpoint,errorRate);
+        }
+        return this;
+    }
+
+    /**
+     * Responsible for setting up error rate of the endpoint
+     * @param endpoint Simulated endpoint
+     * @param errorRate Share of requests answered with HTTP 500, from 0 to 1
+     * @return GatewaySimulator object
+     */
+    public synchronized GatewaySimulator setErrorRate(Endpoint endpoint, double errorRate){
+        errorRates.put(endpoint,errorRate);
+        return this;
+    }
+
+    /**
+     * Responsible for setting up time it takes the MNO to deliver the callback of a pushed payment
+     * @param delay Callback delay in milliseconds
+     * @param jitter Random time in milliseconds added to every callback, up to this value
+     * @return GatewaySimulator object
+     */
+    public GatewaySimulator setCallbackDelay(long delay, long jitter){
+        this.callbackDelay=delay;
+        this.callbackJitter=jitter;
+        return this;
+    }
+
+    /**
+     * Responsible for setting up share of callbacks which report failed payment
+     * @param failureRate Share of failed payments, from 0 to 1
+     * @return GatewaySimulator object
+     */
+    public GatewaySimulator setCallbackFailureRate(double failureRate){
+        this.callbackFailureRate=failureRate;
+        return this;
+    }
+
+    /**
+     * Start simulator on a free local port
+     * @throws IOException when server can't be started
+     */
+    public void start() throws IOException {
+        server.start();
+    }
+
+    /**
+     * Stop simulator
+     * @throws IOException when server can't be stopped
+     */
+    public void stop() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * Get base URL of the simulator, use it as WazoHub, payment request and payment logs endpoint
+     * @return String: base URL
+     */
+    public String getUrl(){
+        return server.url("/").toString();
+    }
+
+    /**
+     * Get number of served requests
+     * @return long: served requests
+     */
+    public long getServedCount(){
+        return servedCount.get();
+    }
+
+    /**
+     * Get number of requests answered with injected error
+     * @return long: failed requests
+     */
+    public long getFailedCount(){
+        return failedCount.get();
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        servedCount.incrementAndGet();
+        String path=request.getPath();
+        int query=path.indexOf('?');
+        if(query>=0){
+            path=path.substring(0,query);
+        }
+        Endpoint endpoint=route(request.getMethod(),path);
+        if(endpoint==null){
+            return new MockResponse().setResponseCode(404);
+        }
+        MockResponse response;
+        if(ThreadLocalRandom.current().nextDouble()<errorRateOf(endpoint)){
+            failedCount.incrementAndGet();
+            response=new MockResponse().setResponseCode(500).setBody("{\"error\":true,\"message\":\"Simulated failure\"}");
+        }else{
+            response=new MockResponse().setHeader("Content-Type","application/json").setBody(respond(endpoint,path,request));
+        }
+        return response.setBodyDelay(latencyOf(endpoint),TimeUnit.MILLISECONDS);
+    }
+
+    private static Endpoint route(String method, String path){
+        if("POST".equals(method)){
+            switch (path){
+                case "/api/v1/access_token":
+                    return Endpoint.ACCESS_TOKEN;
+                case "/api/v1/c2b/push/mpesa":
+                    return Endpoint.MPESA_PUSH;
+                case "/v1/card":
+                    return Endpoint.CARD;
+                case "/v1/tigopesa":
+                    return Endpoint.TIGOPESA;
+                case "/v1/partial":
+                    return Endpoint.PARTIAL_LOG;
+                case "/v1/partial/batch":
+                    return Endpoint.PARTIAL_LOG_BATCH;
+                case "/v1/partial/status":
+                    return Endpoint.PARTIAL_STATUS_BATCH;
+                default:
+                    return null;
+            }
+        }
+        //Long-poll wait endpoint is not simulated, library falls back to polling
+        if("GET".equals(method) && path.startsWith("/v1/") && path.endsWith("/partial")){
+            return Endpoint.PARTIAL_STATUS;
+        }
+        return null;
+    }
+
+    private String respond(Endpoint endpoint, String path, RecordedRequest request){
+        switch (endpoint){
+            case ACCESS_TOKEN:
+                return String.format(ACCESS_TOKEN_JSON,UUID.randomUUID().toString());
+            case MPESA_PUSH:
+                return push(parseForm(request.getBody().readUtf8()));
+            case CARD:
+                return charge(parseForm(request.getBody().readUtf8()));
+            case TIGOPESA:
+                return redirect(parseForm(request.getBody().readUtf8()));
+            case PARTIAL_LOG:
+                logPartial(parseForm(request.getBody().readUtf8()));
+                return "{\"error\":false,\"message\":\""+UUID.randomUUID()+"\"}";
+            case PARTIAL_LOG_BATCH:
+                List<HashMap<String,String>> logs=gson.fromJson(request.getBody().readUtf8(),
+                        new TypeToken<List<HashMap<String,String>>>(){}.getType());
+                for(HashMap<String,String> log:logs){
+                    logPartial(log);
+                }
+                return "{\"error\":false,\"message\":\"batch\"}";
+            case PARTIAL_STATUS:
+                String uuid=path.substring("/v1/".length(),path.length()-"/partial".length());
+                return gson.toJson(partialOf(uuid));
+            case PARTIAL_STATUS_BATCH:
+                Map<String,Map<String,String>> statuses=new LinkedHashMap<>();
+                for(String batchUuid:parseFormValues(request.getBody().readUtf8(),"uuid[]")){
+                    statuses.put(batchUuid,partialOf(batchUuid));
+                }
+                return gson.toJson(statuses);
+            default:
+                return "{}";
+        }
+    }
+
+    private String push(Map<String,String> form){
+        String uid=UUID.randomUUID().toString();
+        long jitter=callbackJitter>0 ? ThreadLocalRandom.current().nextLong(callbackJitter+1):0;
+        boolean isPaid=ThreadLocalRandom.current().nextDouble()>=callbackFailureRate;
+        callbacks.put(uid,new PendingCallback(form.get("requestId"),System.currentTimeMillis()+callbackDelay+jitter,isPaid));
+        Map<String,String> response=new LinkedHashMap<>();
+        response.put("uid",uid);
+        response.put("code","0");
+        response.put("desc","Request processed successfully");
+        return gson.toJson(response);
+    }
+
+    private String charge(Map<String,String> form){
+        Map<String,Object> response=new LinkedHashMap<>();
+        response.put("status","succeeded");
+        response.put("risk","normal");
+        response.put("type","authorized");
+        response.put("paid",ThreadLocalRandom.current().nextDouble()>=callbackFailureRate);
+        response.put("id","ch_"+UUID.randomUUID().toString().replace("-",""));
+        response.put("card","Visa");
+        response.put("amount",parseAmount(form.get("amount"))*100);
+        response.put("created",System.currentTimeMillis()/1000);
+        response.put("country","TZ");
+        return gson.toJson(response);
+    }
+
+    private String redirect(Map<String,String> form){
+        Map<String,String> response=new LinkedHashMap<>();
+        String refId=form.get("token");
+        response.put("transactionRefId",refId);
+        response.put("redirectUrl",getUrl()+"tigopesa/secure/"+refId);
+        response.put("authCode",UUID.randomUUID().toString());
+        response.put("creationDateTime",String.valueOf(System.currentTimeMillis()/1000));
+        return gson.toJson(response);
+    }
+
+    private void logPartial(Map<String,String> details){
+        PendingCallback callback=details.get("uuid")==null ? null:callbacks.get(details.get("uuid"));
+        if(callback!=null){
+            callback.loggedAt=System.currentTimeMillis();
+        }
+    }
+
+    private Map<String,String> partialOf(String uuid){
+        PendingCallback callback=callbacks.get(uuid);
+        long now=System.currentTimeMillis();
+        boolean isReceived=callback!=null && now>=callback.dueAt;
+        Map<String,String> partial=new LinkedHashMap<>();
+        partial.put("status",!isReceived ? STATUS_WAITING:(callback.isPaid ? STATUS_RECEIVED:STATUS_FAILED));
+        partial.put("refId",callback==null ? null:callback.refId);
+        partial.put("refUID",uuid);
+        partial.put("logged_timestamp",callback==null || callback.loggedAt==0 ? null:String.valueOf(callback.loggedAt/1000));
+        partial.put("callback",isReceived ? CALLBACK_RECEIVED:CALLBACK_WAITING);
+        partial.put("callback_timestamp",isReceived ? String.valueOf(callback.dueAt/1000):null);
+        return partial;
+    }
+
+    private synchronized long latencyOf(Endpoint endpoint){
+        long [] latency=latencies.get(endpoint);
+        return latency[0]+(latency[1]>0 ? ThreadLocalRandom.current().nextLong(latency[1]+1):0);
+    }
+
+    private synchronized double errorRateOf(Endpoint endpoint){
+        return errorRates.get(endpoint);
+    }
+
+    private static int parseAmount(String amount){
+        try{
+            return amount==null ? 0:Integer.parseInt(amount);
+        }catch (NumberFormatException e){
+            return 0;
+        }
+    }
+
+    private static Map<String,String> parseForm(String body){
+        Map<String,String> form=new HashMap<>();
+        for(String pair:body.split("&")){
+            int separator=pair.indexOf('=');
+            if(separator>0){
+                form.put(decode(pair.substring(0,separator)),decode(pair.substring(separator+1)));
+            }
+        }
+        return form;
+    }
+
+    private static List<String> parseFormValues(String body, String name){
+        List<String> values=new ArrayList<>();
+        for(String pair:body.split("&")){
+            int separator=pair.indexOf('=');
+            if(separator>0 && name.equals(decode(pair.substring(0,separator)))){
+                values.add(decode(pair.substring(separator+1)));
+            }
+        }
+        return values;
+    }
+
+    private static String decode(String value){
+        try{
+            return URLDecoder.decode(value,"UTF-8");
+        }catch (UnsupportedEncodingException e){
+            return value;
+        }
+    }
+
+    /**
+     * Callback the simulated MNO delivers for a pushed payment
+     */
+    private static class PendingCallback{
+        private final String refId;
+        private final long dueAt;
+        private final boolean isPaid;
+        private volatile long loggedAt;
+
+        PendingCallback(String refId, long dueAt, boolean isPaid){
+            this.refId=refId;
+            this.dueAt=dueAt;
+            this.isPaid=isPaid;
+        }
+    }
+}
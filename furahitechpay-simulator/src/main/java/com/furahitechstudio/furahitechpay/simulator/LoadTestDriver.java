@@ -0,0 +1,369 @@
+package com.furahitechstudio.furahitechpay.simulator;
+
+import com.furahitechstudio.furahitechpay.listeners.CallBackListener;
+import com.furahitechstudio.furahitechpay.listeners.FurahitechBaseListener;
+import com.furahitechstudio.furahitechpay.listeners.PartialLogListener;
+import com.furahitechstudio.furahitechpay.listeners.PushMenuListener;
+import com.furahitechstudio.furahitechpay.listeners.RedirectionListener;
+import com.furahitechstudio.furahitechpay.listeners.TokenListener;
+import com.furahitechstudio.furahitechpay.logging.FurahitechLogger;
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
+import com.furahitechstudio.furahitechpay.metrics.LatencyHistogram;
+import com.furahitechstudio.furahitechpay.metrics.MetricsSnapshot;
+import com.furahitechstudio.furahitechpay.models.ModelPartial;
+import com.furahitechstudio.furahitechpay.models.ModelTigoPesa;
+import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
+import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.models.PaymentStatus;
+import com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall;
+import com.furahitechstudio.furahitechpay.networks.FurahitechNetworkHelper;
+import com.furahitechstudio.furahitechpay.polling.FurahitechPollingScheduler;
+import com.furahitechstudio.furahitechpay.polling.PollingProfile;
+import com.furahitechstudio.furahitechpay.sessions.PaymentSession;
+import com.furahitechstudio.furahitechpay.tracing.FurahitechTracer;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallBackStatus.RECEIVED;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallbackState.STATE_RECEIVED;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_NONE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_STRIPE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_TIGOPESA;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.WazoScopes.SCOPE_MPESA;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>LoadTestDriver</h1>
+ * <p>
+ *     LoadTestDriver runs payment sessions through FurahitechNetworkCall against GatewaySimulator and reports
+ *     throughput, outcome counts and session latency percentiles together with latency of every payment stage.
+ *     Options are passed as --key=value, e.g. --sessions=5000 --concurrency=500 --flow=mixed --errorRate=0.02
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see GatewaySimulator
+ */
+public class LoadTestDriver {
+
+    /**
+     * Payment flow of a simulated session
+     */
+    enum Flow{
+        MPESA,
+        CARD,
+        TIGOPESA,
+        MIXED
+    }
+
+    /**
+     * Final outcome of a simulated session
+     */
+    enum Outcome{
+        PAID,
+        FAILED,
+        TIMEOUT
+    }
+
+    private final int sessions, concurrency;
+    private final Flow flow;
+    private final long timeout;
+    private final GatewaySimulator simulator;
+    private final Semaphore permits;
+    private final CountDownLatch completed;
+    private final LatencyHistogram sessionLatency=new LatencyHistogram();
+    private final Map<Outcome,AtomicInteger> outcomes=new EnumMap<>(Outcome.class);
+    private final AtomicLong transactionCounter=new AtomicLong();
+    private final ScheduledExecutorService timer=Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread=new Thread(runnable,"FurahitechPay LoadTest Timer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    private final Executor callbackExecutor=new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    LoadTestDriver(Map<String,String> options, GatewaySimulator simulator){
+        this.sessions=Integer.parseInt(option(options,"sessions","2000"));
+        this.concurrency=Integer.parseInt(option(options,"concurrency","200"));
+        this.flow=Flow.valueOf(option(options,"flow","mpesa").toUpperCase(Locale.US));
+        this.timeout=Long.parseLong(option(options,"timeout","60000"));
+        this.simulator=simulator;
+        this.permits=new Semaphore(concurrency);
+        this.completed=new CountDownLatch(sessions);
+        for(Outcome outcome:Outcome.values()){
+            outcomes.put(outcome,new AtomicInteger());
+        }
+    }
+
+    public static void main(String [] args) throws Exception {
+        Map<String,String> options=parseOptions(args);
+        GatewaySimulator simulator=new GatewaySimulator()
+                .setLatency(Long.parseLong(option(options,"latency","50")),Long.parseLong(option(options,"jitter","20")))
+                .setErrorRate(Double.parseDouble(option(options,"errorRate","0")))
+                .setCallbackDelay(Long.parseLong(option(options,"callbackDelay","2000")),Long.parseLong(option(options,"callbackJitter","1000")))
+                .setCallbackFailureRate(Double.parseDouble(option(options,"callbackFailureRate","0")));
+        simulator.start();
+
+        //Formatting log messages would skew measured latency
+        FurahitechLogger.getInstance().setLevel(FurahitechLogger.Level.OFF);
+        FurahitechTracer.getInstance().setEnabled(false);
+        FurahitechNetworkHelper.setWazoHubEndPoint(simulator.getUrl());
+        long pollInterval=Long.parseLong(option(options,"pollInterval","1000"));
+        FurahitechPollingScheduler.getInstance().setProfile(GATEWAY_MPESA,
+                PollingProfile.fixedProfile(pollInterval,Long.parseLong(option(options,"timeout","60000"))));
+
+        LoadTestDriver driver=new LoadTestDriver(options,simulator);
+        try{
+            driver.run();
+        }finally {
+            PaymentSession.cancelAll();
+            FurahitechNetworkHelper.shutdown();
+            simulator.stop();
+        }
+    }
+
+    /**
+     * Responsible for running all sessions, at most concurrency sessions are in flight at the same time
+     * @throws InterruptedException when interrupted while waiting for sessions
+     */
+    void run() throws InterruptedException {
+        FurahitechMetrics.getInstance().reset();
+        System.out.println(String.format(Locale.US,"Running %d %s sessions, concurrency=%d against %s",
+                sessions,flow.name().toLowerCase(Locale.US),concurrency,simulator.getUrl()));
+        long startedAt=System.nanoTime();
+        for(int index=0;index<sessions;index++){
+            permits.acquire();
+            startSession(index);
+        }
+        completed.await();
+        report(System.nanoTime()-startedAt);
+    }
+
+    private void startSession(int index){
+        final Session session=new Session(paymentRequest());
+        session.timeoutTask=timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                session.complete(Outcome.TIMEOUT);
+            }
+        },timeout,TimeUnit.MILLISECONDS);
+        Flow sessionFlow=flow==Flow.MIXED ? Flow.values()[index%(Flow.values().length-1)]:flow;
+        switch (sessionFlow){
+            case CARD:
+                payWithCard(session);
+                break;
+            case TIGOPESA:
+                payWithTigoPesa(session);
+                break;
+            default:
+                payWithMpesa(session);
+                break;
+        }
+    }
+
+    private void payWithCard(final Session session){
+        FurahitechNetworkCall.payWithCard(session.request, new FurahitechBaseListener() {
+            @Override
+            public void onPaymentCompleted(PaymentStatus status) {
+                session.complete(status.isPaidSuccessfully() ? Outcome.PAID:Outcome.FAILED);
+            }
+
+            @Override
+            public void onPaymentFailed() {
+                session.complete(Outcome.FAILED);
+            }
+        });
+    }
+
+    private void payWithTigoPesa(final Session session){
+        FurahitechNetworkCall.payWithTigoPesa(session.request, new RedirectionListener() {
+            @Override
+            public void onRedirection(ModelTigoPesa tigoPesa) {
+                //Secure page is out of scope, session ends once the redirect URL is received
+                session.complete(tigoPesa!=null && tigoPesa.getRedirectUrl()!=null ? Outcome.PAID:Outcome.FAILED);
+            }
+        });
+    }
+
+    private void payWithMpesa(final Session session){
+        FurahitechNetworkCall.initiateWazoHubPayments(session.request, SCOPE_MPESA, GATEWAY_MPESA, new TokenListener() {
+            @Override
+            public void onTokenReceived(ModelWazoHub.AuthenticationResponse authResponse) {
+                FurahitechNetworkCall.payWithWazoHub(session.request, GATEWAY_MPESA, authResponse.getAccess_token(), new PushMenuListener() {
+                    @Override
+                    public void onPushInitiated(final ModelWazoHub.TransactionResponse response) {
+                        if(response==null || response.getUid()==null){
+                            session.complete(Outcome.FAILED);
+                            return;
+                        }
+                        FurahitechNetworkCall.logPartialPaymentForCallback(session.request, GATEWAY_MPESA, response, new PartialLogListener() {
+                            @Override
+                            public void onPartialPaymentLogged(boolean isLogged) {
+                                awaitCallback(session,response.getUid());
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onPushFailed() {
+                        session.complete(Outcome.FAILED);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailed() {
+                session.complete(Outcome.FAILED);
+            }
+        });
+    }
+
+    private void awaitCallback(final Session session, String uuid){
+        session.paymentSession=new PaymentSession(session.request, GATEWAY_MPESA, uuid, new CallBackListener() {
+            @Override
+            public void onReceived(boolean isSuccess, ModelPartial partial) {
+                if(isSuccess && partial!=null && STATE_RECEIVED.equalsIgnoreCase(partial.getCallback())){
+                    session.complete(RECEIVED.equals(partial.getStatus()) ? Outcome.PAID:Outcome.FAILED);
+                }
+            }
+        }, callbackExecutor).start();
+    }
+
+    private PaymentRequest paymentRequest(){
+        String endPoint=simulator.getUrl();
+        return new PaymentRequest.Builder()
+                .setWazoHubClientID("simulator")
+                .setWazoHubClientSecret("simulator")
+                .setTigoMerchantKey("simulator")
+                .setTigoMerchantSecret("simulator")
+                .setTigoMerchantName("simulator")
+                .setTigoMerchantNumber("255650000000")
+                .setTigoMerchantPin("1234")
+                .setCardMerchantKey("simulator")
+                .setCardMerchantSecret("simulator")
+                .setCustomerFirstName("Load")
+                .setCustomerLastName("Test")
+                .setCustomerEmailAddress("loadtest@furahitech.co.tz")
+                .setCustomerPhone("255750000000")
+                .setTransactionAmount(1000)
+                .setTransactionID("LT"+transactionCounter.incrementAndGet())
+                .setPaymentDesc("Load test")
+                .setPaymentRequestEndPoint(endPoint)
+                .setPaymentLogsEndPoint(endPoint)
+                .build();
+    }
+
+    private void report(long elapsed){
+        double seconds=elapsed/1e9;
+        LatencyHistogram.Snapshot latency=sessionLatency.snapshot();
+        System.out.println(String.format(Locale.US,"Completed %d sessions in %.2fs, throughput %.1f sessions/s",
+                sessions,seconds,sessions/seconds));
+        System.out.println(String.format(Locale.US,"Outcomes: paid=%d failed=%d timeout=%d",
+                outcomes.get(Outcome.PAID).get(),outcomes.get(Outcome.FAILED).get(),outcomes.get(Outcome.TIMEOUT).get()));
+        System.out.println(String.format(Locale.US,"Session latency (ms): p50=%.1f p90=%.1f p99=%.1f max=%.1f",
+                latency.getPercentile(50)/1000.0,latency.getPercentile(90)/1000.0,
+                latency.getPercentile(99)/1000.0,latency.getMax()/1000.0));
+
+        MetricsSnapshot metrics=FurahitechMetrics.getInstance().snapshot();
+        for(Enum gateway:new Enum[]{GATEWAY_MPESA,GATEWAY_STRIPE,GATEWAY_TIGOPESA,GATEWAY_NONE}){
+            for(FurahitechMetrics.Stage stage:FurahitechMetrics.Stage.values()){
+                MetricsSnapshot.StageLatency stageLatency=metrics.getLatency(gateway,stage);
+                if(stageLatency!=null && stageLatency.getCount()>0){
+                    System.out.println(String.format(Locale.US,"  %-17s %-20s count=%-7d p50=%.1fms p99=%.1fms",
+                            gateway.name(),stage.name(),stageLatency.getCount(),
+                            stageLatency.getP50()/1000.0,stageLatency.getP99()/1000.0));
+                }
+            }
+        }
+        System.out.println(String.format(Locale.US,"Simulator served %d requests, %d injected failures",
+                simulator.getServedCount(),simulator.getFailedCount()));
+    }
+
+    private static Map<String,String> parseOptions(String [] args){
+        Map<String,String> options=new HashMap<>();
+        for(String arg:args){
+            if(arg.startsWith("--") && arg.indexOf('=')>2){
+                options.put(arg.substring(2,arg.indexOf('=')),arg.substring(arg.indexOf('=')+1));
+            }
+        }
+        return options;
+    }
+
+    private static String option(Map<String,String> options, String key, String defaultValue){
+        String value=options.get(key);
+        return value==null ? defaultValue:value;
+    }
+
+    /**
+     * State of one simulated session, first outcome wins
+     */
+    private class Session{
+        private final PaymentRequest request;
+        private final long startedAt=System.nanoTime();
+        private final AtomicBoolean done=new AtomicBoolean();
+        private volatile ScheduledFuture<?> timeoutTask;
+        private volatile PaymentSession paymentSession;
+
+        Session(PaymentRequest request){
+            this.request=request;
+        }
+
+        void complete(Outcome outcome){
+            if(!done.compareAndSet(false,true)){
+                return;
+            }
+            sessionLatency.record((System.nanoTime()-startedAt)/1000);
+            outcomes.get(outcome).incrementAndGet();
+            ScheduledFuture<?> task=timeoutTask;
+            if(task!=null){
+                task.cancel(false);
+            }
+            PaymentSession tracked=paymentSession;
+            if(tracked!=null){
+                tracked.cancel();
+            }
+            permits.release();
+            completed.countDown();
+        }
+    }
+}
@@ -5,27 +5,43 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
 import android.os.Handler;
+import android.os.Looper;
 import android.support.v4.app.FragmentActivity;
 
 import com.furahitechstudio.furahitechpay.activities.PayCard;
 import com.furahitechstudio.furahitechpay.activities.PayMobile;
+import com.furahitechstudio.furahitechpay.journal.FurahitechJournal;
+import com.furahitechstudio.furahitechpay.journal.JournalRecord;
 import com.furahitechstudio.furahitechpay.listeners.CallBackListener;
+import com.furahitechstudio.furahitechpay.logging.FurahitechLogger;
+import com.furahitechstudio.furahitechpay.logging.LogcatSink;
 import com.furahitechstudio.furahitechpay.listeners.StateChangedListener;
+import com.furahitechstudio.furahitechpay.models.PaymentCodec;
 import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.models.PaymentStatus;
+import com.furahitechstudio.furahitechpay.networks.FurahitechExecutionEngine;
+import com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall;
+import com.furahitechstudio.furahitechpay.networks.FurahitechNetworkHelper;
+import com.furahitechstudio.furahitechpay.networks.FurahitechOutbox;
+import com.furahitechstudio.furahitechpay.networks.FurahitechPushChannel;
+import com.furahitechstudio.furahitechpay.polling.FurahitechPollingScheduler;
+import com.furahitechstudio.furahitechpay.polling.PollingProfile;
+import com.furahitechstudio.furahitechpay.sessions.PaymentSession;
 import com.furahitechstudio.furahitechpay.utils.Furahitech;
 import com.furahitechstudio.furahitechpay.utils.FurahitechException;
+import com.furahitechstudio.furahitechpay.utils.FurahitechSecurePage;
 import com.furahitechstudio.furahitechpay.utils.FurahitechUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
 
-import static com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall.checkCallbackStatus;
-import static com.furahitechstudio.furahitechpay.utils.Furahitech.CALLBACK_CHECK_INTERVAL;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.CUSTOM_PHONE_NUMBER_HINT;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.CUSTOM_PHONE_NUMBER_MASK;
-import static com.furahitechstudio.furahitechpay.utils.Furahitech.PAYMENT_REDIRECTION_PARAM;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.LIB_TAG;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.RESULT_PAYMENT_STATUS;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.REQUEST_CODE_PAYMENT_STATUS;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_NONE;
@@ -33,7 +49,7 @@ import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstan
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.MODE_MOBILE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentEnvironment.LIVE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentEnvironment.SANDBOX;
-import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.isConnected;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechAndroidUtils.isConnected;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
 
 /*
@@ -75,16 +91,21 @@ public class FurahitechPay{
     private String customPhoneNumberMask=CUSTOM_PHONE_NUMBER_MASK;
     private List<StateChangedListener> stateChangedListeners=new CopyOnWriteArrayList<>();
 
-    private static Enum currentGateway;
-    private static String transactionUUID;
-    private static CallBackListener callBackListener;
-
     /**
-     * Creating schedules for periodic callback status change
+     * Executor which delivers session results on the main thread
      */
-    private static Handler mHandler;
+    private static final Executor mainThreadExecutor =new Executor() {
+        private final Handler mainHandler=new Handler(Looper.getMainLooper());
+        @Override
+        public void execute(Runnable runnable) {
+            mainHandler.post(runnable);
+        }
+    };
 
-    private static Runnable mRunnable;
+    static {
+        //Core logs nowhere by default, on a device logs go to logcat
+        FurahitechLogger.getInstance().addSink(new LogcatSink(LIB_TAG));
+    }
 
 
 
@@ -100,6 +121,17 @@ public class FurahitechPay{
         return furahitechPay;
     }
 
+    /**
+     * Get payment status returned to onActivityResult
+     * @param data Result intent
+     * @return PaymentStatus object, null when intent carries no payment status
+     * @see PaymentCodec
+     */
+    public static PaymentStatus getPaymentStatus(Intent data){
+        byte[] status=data==null ? null:data.getByteArrayExtra(RESULT_PAYMENT_STATUS);
+        return status==null ? null:PaymentCodec.decodePaymentStatus(status);
+    }
+
     /**
      * Responsible for setting up application activity and statusChangeListeners
      * @param activity: Application activity
@@ -107,40 +139,126 @@ public class FurahitechPay{
      */
     public FurahitechPay with(Activity activity){
         this.activity =activity;
+        FurahitechJournal.getInstance().open(activity.getFilesDir());
+        FurahitechOutbox.getInstance().open(activity.getFilesDir());
         return this;
     }
 
+    /**
+     * Resume callback status check of payments which were interrupted before completion (e.g. process was killed)
+     * @param mContext Application context
+     * @param listener Status check listener, results carry transaction UUID as refUID
+     * @return List of sessions which track resumed payments
+     * @see FurahitechJournal
+     */
+    public static List<PaymentSession> resumePendingPayments(Context mContext, CallBackListener listener){
+        FurahitechJournal journal=FurahitechJournal.getInstance();
+        journal.open(mContext.getFilesDir());
+        FurahitechOutbox.getInstance().open(mContext.getFilesDir());
+        List<PaymentSession> sessions=new ArrayList<>();
+        for(JournalRecord record:journal.getPendingPayments()){
+            if(!record.isResumable() || PaymentSession.getSession(record.getTransactionUUID())!=null){
+                continue;
+            }
+            Furahitech.PaymentConstant gateway;
+            try{
+                gateway=Furahitech.PaymentConstant.valueOf(record.getGateway());
+            }catch (IllegalArgumentException e){
+                continue;
+            }
+            PaymentRequest paymentRequest=new PaymentRequest.Builder()
+                    .setTransactionID(record.getTransactionID())
+                    .setTransactionAmount(record.getTransactionAmount())
+                    .setPaymentLogsEndPoint(record.getPaymentLogsEndPoint())
+                    .build();
+            logEvent(false,gateway,"Resuming payment: UUID={}, last state={}",record.getTransactionUUID(),record.getState());
+            sessions.add(new PaymentSession(paymentRequest,gateway,record.getTransactionUUID(),listener, mainThreadExecutor).start());
+        }
+        return sessions;
+    }
+
 
     /**
-     * Scheduling periodic callback status check from the server
+     * Scheduling periodic callback status check from the server, probes follow the gateway polling profile.
+     * Every transaction is tracked by its own session, session which tracks the same UUID is replaced.
      * @param mContext Application context
      * @param gateway Currently selected Gateway
      * @param UUID Currently created UUID
      * @param listener Status check listener
+     * @return PaymentSession which tracks the transaction
+     * @see PollingProfile
      */
-    public static void startCallBackCheckTask(Context mContext,Enum gateway, String UUID, CallBackListener listener){
-        currentGateway=gateway;
-        transactionUUID=UUID;
-        callBackListener=listener;
-        mHandler=new Handler();
-        if(mRunnable!=null){
-            cancelCallBackCheckTask();
-        }
-        mRunnable=new PaymentRunnable(mContext);
-        mRunnable.run();
+    public static PaymentSession startCallBackCheckTask(Context mContext,Enum gateway, String UUID, CallBackListener listener){
+        return new PaymentSession(getInstance().getPaymentRequest(),gateway,UUID,listener, mainThreadExecutor).start();
     }
 
 
     /**
-     * Cancel periodic callback status check task
+     * Cancel periodic callback status check of the session
+     * @param session Payment session, ignored when null
      */
-    public static void cancelCallBackCheckTask(){
-        if(mHandler!=null && mRunnable!=null){
-            Furahitech.currentRetryCount=0;
-            mHandler.removeCallbacksAndMessages(null);
+    public static void cancelCallBackCheckTask(PaymentSession session){
+        if(session!=null){
+            session.cancel();
         }
     }
 
+    /**
+     * Cancel periodic callback status check of all active sessions
+     * @deprecated Cancels sessions of other transactions too, use {@link #cancelCallBackCheckTask(PaymentSession)}
+     */
+    @Deprecated
+    public static void cancelCallBackCheckTask(){
+        PaymentSession.cancelAll();
+    }
+
+    /**
+     * Responsible for setting up how callback status is polled for the gateway
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param profile Polling profile
+     * @return FurahitechPay object
+     */
+    public FurahitechPay setPollingProfile(Enum gateway, PollingProfile profile){
+        FurahitechPollingScheduler.getInstance().setProfile(gateway,profile);
+        return this;
+    }
+
+    /**
+     * Responsible for setting up the lowest level the library logs, Level.OFF disables logging entirely
+     * @param level Log level, DEBUG by default
+     * @return FurahitechPay object
+     * @see FurahitechLogger
+     */
+    public FurahitechPay setLogLevel(FurahitechLogger.Level level){
+        FurahitechLogger.getInstance().setLevel(level);
+        return this;
+    }
+
+    /**
+     * Responsible for enabling push channel (HTTP long-poll) which delivers the callback as soon as the server receives it,
+     * polling takes over automatically when the server does not support it
+     * @param enabled TRUE to enable push channel, disabled by default
+     * @return FurahitechPay object
+     * @see FurahitechPushChannel
+     */
+    public FurahitechPay setPushChannelEnabled(boolean enabled){
+        FurahitechPushChannel.setEnabled(enabled);
+        return this;
+    }
+
+    /**
+     * Responsible for enabling Tigo Pesa secure page pre-warming, WebView is prepared while the customer types the phone number
+     * and the secure page keeps static assets cached between checkouts
+     * @param enabled TRUE to enable secure page pre-warming, disabled by default
+     * @param origin Secure page origin to prefetch, origin of the last redirection is used when null
+     * @return FurahitechPay object
+     * @see FurahitechSecurePage
+     */
+    public FurahitechPay setSecurePagePrewarmEnabled(boolean enabled, String origin){
+        FurahitechSecurePage.getInstance().setEnabled(enabled).setOrigin(origin);
+        return this;
+    }
+
 
     /**
      * Responsible for getting payment request object
@@ -167,6 +285,7 @@ public class FurahitechPay{
      */
     public FurahitechPay setPaymentEnvironment(String paymentEnvironment) {
         this.paymentEnvironment = paymentEnvironment;
+        FurahitechNetworkCall.setPaymentEnvironment(paymentEnvironment);
         return this;
     }
 
@@ -227,6 +346,27 @@ public class FurahitechPay{
         return this;
     }
 
+    /**
+     * Responsible for setting up where network calls are executed
+     * @param executionEngine Execution engine (pooled, caller executor or direct)
+     * @return FurahitechPay object
+     * @see FurahitechExecutionEngine
+     */
+    public FurahitechPay setExecutionEngine(FurahitechExecutionEngine executionEngine){
+        FurahitechNetworkCall.setExecutionEngine(executionEngine);
+        return this;
+    }
+
+    /**
+     * Responsible for setting up WazoHub base URL
+     * @param endPoint WazoHub base URL, default endpoint when null
+     * @return FurahitechPay object
+     */
+    public FurahitechPay setWazoHubEndPoint(String endPoint){
+        FurahitechNetworkHelper.setWazoHubEndPoint(endPoint);
+        return this;
+    }
+
     public void registerStateListener(StateChangedListener listener){
         if(stateChangedListeners!=null){
             stateChangedListeners.add(listener);
@@ -362,25 +502,8 @@ public class FurahitechPay{
             logEvent(false,GATEWAY_NONE,"Card payment selected");
         }
 
-
-        resultIntent.putExtra(PAYMENT_REDIRECTION_PARAM,getPaymentRequest());
+        //Payment screens read the request from FurahitechPay, it isn't copied to the intent
         activity.startActivityForResult(resultIntent, REQUEST_CODE_PAYMENT_STATUS);
     }
 
-    /**
-     * Class to handle payment status checking
-     */
-    private static class PaymentRunnable implements Runnable {
-        private Context mContext;
-        PaymentRunnable(Context mContext){
-            this.mContext=mContext;
-        }
-        @Override
-        public void run() {
-            Furahitech.currentRetryCount++;
-            checkCallbackStatus(mContext,currentGateway,transactionUUID,callBackListener);
-            mHandler.postDelayed(mRunnable, TimeUnit.SECONDS.toMillis(CALLBACK_CHECK_INTERVAL));
-        }
-    }
-
 }
@@ -21,25 +21,31 @@ import com.furahitechstudio.furahitechpay.R;
 import com.furahitechstudio.furahitechpay.fragments.FurahitechResponseDialog;
 import com.furahitechstudio.furahitechpay.listeners.DialogClickListener;
 import com.furahitechstudio.furahitechpay.listeners.FurahitechBaseListener;
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
 import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.models.PaymentCodec;
 import com.furahitechstudio.furahitechpay.models.PaymentStatus;
 import com.furahitechstudio.furahitechpay.mvp.FurahitechCardPresenter;
 import com.furahitechstudio.furahitechpay.mvp.FurahitechCardPresenterImpl;
 import com.furahitechstudio.furahitechpay.mvp.FurahitechCardView;
+import com.furahitechstudio.furahitechpay.networks.FurahitechTimeouts;
+import com.furahitechstudio.furahitechpay.tracing.FurahitechTracer;
+import com.furahitechstudio.furahitechpay.tracing.Span;
 import com.stripe.android.Stripe;
 import com.stripe.android.TokenCallback;
 import com.stripe.android.model.Card;
 import com.stripe.android.model.Token;
 import com.stripe.android.view.CardInputWidget;
 
-import static com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall.payWithCard;
+import static com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics.Stage.STRIPE_TOKENIZATION;
+import static com.furahitechstudio.furahitechpay.networks.FurahitechAndroidNetworkCall.payWithCard;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_STRIPE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_CANCELLED;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.RESULT_PAYMENT_STATUS;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.formatPrice;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.generateRefCode;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
-import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.showSnackMessage;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechAndroidUtils.showSnackMessage;
 
 /*
  * Copyright (c) 2018 Lukundo Kileha
@@ -104,8 +110,9 @@ public class PayCard extends AppCompatActivity implements FurahitechCardView,Dia
 
         //getting payment request details from PaymentGatewayAPI
         furahitechPay = FurahitechPay.getInstance();
-        furahitechPay.getPaymentRequest().setTransactionID(generateRefCode(null,GATEWAY_STRIPE));
-        PaymentRequest request= furahitechPay.getPaymentRequest();
+        PaymentRequest request= furahitechPay.getPaymentRequest().toBuilder()
+                .setTransactionID(generateRefCode(null,GATEWAY_STRIPE)).build();
+        furahitechPay.setPaymentRequest(request);
         String fullName=request.getCustomerFirstName()+" "+request.getCustomerLastName();
         customerName.setText(fullName);
         paymentDescription.setText(request.getPaymentDesc());
@@ -153,18 +160,30 @@ public class PayCard extends AppCompatActivity implements FurahitechCardView,Dia
             showSnackMessage(coordinator,getString(R.string.card_validation),true);
             Stripe stripe=new Stripe(this);
             stripe.setDefaultPublishableKey(furahitechPay.getPaymentRequest().getCardMerchantKey());
+            final long startedAt=FurahitechMetrics.startTimer();
+            final Span span=FurahitechTracer.getInstance().startSpan(furahitechPay.getPaymentRequest(),GATEWAY_STRIPE,STRIPE_TOKENIZATION);
             stripe.createToken(cardToSave, new TokenCallback() {
                 @Override
                 public void onError(Exception error) {
+                    FurahitechMetrics.getInstance().recordLatency(GATEWAY_STRIPE,STRIPE_TOKENIZATION,startedAt);
+                    span.end(error.getMessage());
                     logEvent(true,GATEWAY_STRIPE,error.getMessage());
                     showSnackMessage(coordinator,getString(R.string.card_validation_failed),false);
                 }
                 @Override
                 public void onSuccess(Token token) {
-                    furahitechPay.getPaymentRequest().setCustomerCard(token.getCard().getNumber());
-                    furahitechPay.getPaymentRequest().setPaymentType(token.getCard().getBrand());
-                    furahitechPay.getPaymentRequest().setTransactionID(token.getId());
-                    logEvent(false,GATEWAY_STRIPE,"success token: "+String.valueOf(token.getId()));
+                    FurahitechMetrics.getInstance().recordLatency(GATEWAY_STRIPE,STRIPE_TOKENIZATION,startedAt);
+                    span.end();
+                    PaymentRequest request=furahitechPay.getPaymentRequest();
+                    PaymentRequest tokenized=request.toBuilder()
+                            .setCustomerCard(token.getCard().getNumber())
+                            .setPaymentType(token.getCard().getBrand())
+                            .setTransactionID(token.getId()).build();
+                    //Charge continues the trace started by tokenization
+                    FurahitechTracer.getInstance().rebind(request,tokenized);
+                    FurahitechTimeouts.getInstance().rebind(request,tokenized);
+                    furahitechPay.setPaymentRequest(tokenized);
+                    logEvent(false,GATEWAY_STRIPE,"success token: {}",token.getId());
                     showSnackMessage(coordinator,getString(R.string.card_validated),false);
                     presenter.initPayment();
                 }
@@ -205,7 +224,7 @@ public class PayCard extends AppCompatActivity implements FurahitechCardView,Dia
         Intent resultIntent=new Intent();
         PaymentStatus status=new PaymentStatus();
         status.setPaymentStatus(STATUS_CANCELLED);
-        resultIntent.putExtra(RESULT_PAYMENT_STATUS,status);
+        resultIntent.putExtra(RESULT_PAYMENT_STATUS,PaymentCodec.encode(status));
         setResult(Activity.RESULT_OK,resultIntent);
         finish();
     }
@@ -281,7 +300,7 @@ public class PayCard extends AppCompatActivity implements FurahitechCardView,Dia
      */
     @Override
     public void onClose(PaymentStatus status) {
-        logEvent(false,GATEWAY_STRIPE,"Going back to app context with \n"+status.toString());
+        logEvent(false,GATEWAY_STRIPE,"Going back to app context with \n{}",status);
         presenter.sendData(status);
     }
 }
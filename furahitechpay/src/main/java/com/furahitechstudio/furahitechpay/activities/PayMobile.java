@@ -29,18 +29,19 @@ import com.furahitechstudio.furahitechpay.fragments.FurahitechResponseDialog;
 import com.furahitechstudio.furahitechpay.listeners.DialogClickListener;
 import com.furahitechstudio.furahitechpay.listeners.StateChangedListener;
 import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.models.PaymentCodec;
 import com.furahitechstudio.furahitechpay.models.PaymentStatus;
 import com.furahitechstudio.furahitechpay.mvp.FurahitechMobilePresenter;
 import com.furahitechstudio.furahitechpay.mvp.FurahitechMobilePresenterImpl;
 import com.furahitechstudio.furahitechpay.mvp.FurahitechMobileView;
 import com.furahitechstudio.furahitechpay.utils.Furahitech;
+import com.furahitechstudio.furahitechpay.utils.FurahitechSecurePage;
 
 import java.util.Date;
 import java.util.HashMap;
 
 import br.com.sapereaude.maskedEditText.MaskedEditText;
 
-import static com.furahitechstudio.furahitechpay.FurahitechPay.cancelCallBackCheckTask;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_MPESA;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_NONE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_TIGOPESA;
@@ -49,7 +50,7 @@ import static com.furahitechstudio.furahitechpay.utils.Furahitech.RESULT_PAYMENT
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.formatPrice;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.generateRefCode;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
-import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.showSnackMessage;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechAndroidUtils.showSnackMessage;
 /*
  * Copyright (c) 2018 Lukundo Kileha
  *
@@ -120,8 +121,9 @@ public class PayMobile extends AppCompatActivity implements FurahitechMobileView
         //getting payment request details from PaymentGatewayAPI
         FurahitechPay furahitechPay = FurahitechPay.getInstance();
         presenter=new FurahitechMobilePresenterImpl(this,this,paymentMethods,furahitechPay.getSupportedGateway());
-        furahitechPay.getPaymentRequest().setTransactionID(generateRefCode(null,GATEWAY_NONE));
-        request= furahitechPay.getPaymentRequest();
+        request= furahitechPay.getPaymentRequest().toBuilder()
+                .setTransactionID(generateRefCode(null,GATEWAY_NONE)).build();
+        furahitechPay.setPaymentRequest(request);
         String fullName=request.getCustomerFirstName()+" "+request.getCustomerLastName();
         customerName.setText(fullName);
         paymentDescription.setText(request.getPaymentDesc());
@@ -141,6 +143,10 @@ public class PayMobile extends AppCompatActivity implements FurahitechMobileView
             @Override
             public void onTextChanged(CharSequence charSequence, int start, int before, int count) {
                 presenter.setMNO(paymentMethodIcon,personalPhone.getRawText(),count);
+                if(presenter.getGateWayMNO()==GATEWAY_TIGOPESA){
+                    //Secure page is prepared while the customer is still typing
+                    FurahitechSecurePage.getInstance().prewarm(PayMobile.this);
+                }
             }
 
             @Override
@@ -237,7 +243,7 @@ public class PayMobile extends AppCompatActivity implements FurahitechMobileView
         Intent resultIntent=new Intent();
         PaymentStatus status=new PaymentStatus();
         status.setPaymentStatus(STATUS_CANCELLED);
-        resultIntent.putExtra(RESULT_PAYMENT_STATUS,status);
+        resultIntent.putExtra(RESULT_PAYMENT_STATUS,PaymentCodec.encode(status));
         setResult(Activity.RESULT_OK,resultIntent);
         finish();
     }
@@ -273,8 +279,7 @@ public class PayMobile extends AppCompatActivity implements FurahitechMobileView
     @Override
     protected void onDestroy() {
         presenter.onDestroy();
-        Furahitech.currentRetryCount=0;
-        cancelCallBackCheckTask();
+        FurahitechSecurePage.getInstance().release();
         super.onDestroy();
     }
 
@@ -284,7 +289,6 @@ public class PayMobile extends AppCompatActivity implements FurahitechMobileView
         if(presenter!=null && GATEWAY_MPESA.equals(presenter.getGateWayMNO()) && presenter.isExecuting()){
             if(isMainViewLostFocus && presenter.isPushReceived()){
                 logEvent(false,presenter.getCurrentGateWay(), "Is time to check status: true");
-                presenter.setCurrentRetryCount(0);
                 presenter.startStatusCheck();
             }else{
                 presenter.setPushReceived(true);
@@ -295,7 +299,7 @@ public class PayMobile extends AppCompatActivity implements FurahitechMobileView
 
     @Override
     public void onClose(PaymentStatus status) {
-        logEvent(false,presenter.getCurrentGateWay(),"Going back to app context with \n"+status.toString());
+        logEvent(false,presenter.getCurrentGateWay(),"Going back to app context with \n{}",status);
         presenter.sendData(status);
     }
 
@@ -307,8 +311,7 @@ public class PayMobile extends AppCompatActivity implements FurahitechMobileView
         status.setPaymentStatus(taskState);
         status.setPaymentRefId(request.getTransactionID());
         status.setPaymentCustomerId(request.getCustomerEmailAddress());
-        int totalAmount=request.getTransactionAmount()+request.getTransactionTax() +request.getTransactionFee();
-        status.setPaymentAmount(totalAmount);
+        status.setPaymentAmount(request.getTotalAmount());
         status.setPaymentGateWay(presenter.getSelectedGateway());
         status.setPaymentTimeStamp((int)new Date().getTime());
         onPaymentCompleted(status);
@@ -1,7 +1,6 @@
 package com.furahitechstudio.furahitechpay.activities;
 
 import android.graphics.Bitmap;
-import android.os.Build;
 import android.support.v4.content.ContextCompat;
 import android.support.v7.app.ActionBar;
 import android.support.v7.app.AppCompatActivity;
@@ -10,9 +9,9 @@ import android.support.v7.widget.Toolbar;
 import android.view.KeyEvent;
 import android.view.MenuItem;
 import android.view.View;
+import android.view.ViewGroup;
 import android.webkit.JavascriptInterface;
 import android.webkit.WebChromeClient;
-import android.webkit.WebSettings;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
 import android.widget.ImageView;
@@ -21,13 +20,21 @@ import android.widget.TextView;
 
 import com.furahitechstudio.furahitechpay.FurahitechPay;
 import com.furahitechstudio.furahitechpay.R;
+import com.furahitechstudio.furahitechpay.utils.Furahitech;
+import com.furahitechstudio.furahitechpay.utils.FurahitechSecurePage;
+import com.furahitechstudio.furahitechpay.utils.PhraseMatcher;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PAYMENT_REDIRECTION_PARAM;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_TIGOPESA;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_FAILURE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getRedirectionOutcome;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
-import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.showTaskCancelDialogOnSecure;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechAndroidUtils.showTaskCancelDialogOnSecure;
 
 /*
  * Copyright (c) 2018 Lukundo Kileha
@@ -59,11 +66,29 @@ import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.showTaskC
 
 public class PaySecure extends AppCompatActivity {
 
+    /**
+     * Sends text of status-like elements of the page and hash of the whole page, small enough for every page load
+     */
+    private static final String STATUS_PROBE_SCRIPT ="javascript:(function(){var nodes=document.querySelectorAll("
+            +"'[id*=status],[class*=status],[id*=message],[class*=message],[class*=alert],[class*=error],[class*=success]');"
+            +"var text='';for(var i=0;i<nodes.length&&text.length<4096;i++){text+=' '+(nodes[i].innerText||nodes[i].textContent||'');}"
+            +"var html=document.documentElement.innerHTML,hash=0;for(var j=0;j<html.length;j++){hash=(hash*31+html.charCodeAt(j))|0;}"
+            +"window.HTMLOUT.processStatus(text.substring(0,4096),hash);})();";
+
+    /**
+     * Sends the whole page, used when status elements don't tell the outcome and page content wasn't read before
+     */
+    private static final String PAGE_SCRIPT ="javascript:window.HTMLOUT.processHTML('<head>'+document.getElementsByTagName('html')[0].innerHTML+'</head>');";
+
     private ProgressBar progressDialog;
     private WebView secureWebView;
-    private boolean finished=false;
-    private String redirectionURL;
+    private volatile boolean finished=false;
+    private String redirectionURL, returnEndPoint;
     private ImageView emptyLoading;
+    private PhraseMatcher<Furahitech.PaymentConstant> outcomeMatcher;
+    private final Set<String> visitedPages=new HashSet<>();
+    private final Set<Integer> scannedContents=Collections.synchronizedSet(new HashSet<Integer>());
+    private boolean isPageStarted=false, isHistoryCleared=false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -80,19 +105,29 @@ public class PaySecure extends AppCompatActivity {
 
         toolbar.setBackgroundColor(ContextCompat.getColor(this,R.color.colorPrimary));
         redirectionURL=getIntent().getStringExtra(PAYMENT_REDIRECTION_PARAM);
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-            secureWebView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
-        } else {
-            secureWebView.setLayerType(View.LAYER_TYPE_SOFTWARE, null);
-        }
-        secureWebView.clearCache(true);
+        returnEndPoint=FurahitechPay.getInstance().getPaymentRequest().getPaymentRequestEndPoint();
+        outcomeMatcher=buildOutcomeMatcher();
 
         //Setting up webView
+        FurahitechSecurePage securePage=FurahitechSecurePage.getInstance();
+        WebView prewarmedWebView=securePage.obtain(this,redirectionURL);
+        if(prewarmedWebView!=null){
+            ViewGroup parent=(ViewGroup) secureWebView.getParent();
+            int index=parent.indexOfChild(secureWebView);
+            prewarmedWebView.setId(secureWebView.getId());
+            prewarmedWebView.setLayoutParams(secureWebView.getLayoutParams());
+            parent.removeViewAt(index);
+            parent.addView(prewarmedWebView,index);
+            secureWebView.destroy();
+            secureWebView=prewarmedWebView;
+            logEvent(false,GATEWAY_TIGOPESA,"Using pre-warmed secure page");
+        }else{
+            FurahitechSecurePage.configure(secureWebView);
+        }
+        if(!securePage.isEnabled()){
+            secureWebView.clearCache(true);
+        }
         secureWebView.clearHistory();
-        secureWebView.getSettings().setJavaScriptEnabled(true);
-        secureWebView.getSettings().setRenderPriority(WebSettings.RenderPriority.HIGH);
-        secureWebView.getSettings().setJavaScriptCanOpenWindowsAutomatically(true);
         String title="Paying to "+ FurahitechPay.getInstance().getPaymentRequest().getTigoMerchantName();
         toolBarTitle.setText(title);
 
@@ -137,6 +172,9 @@ public class PaySecure extends AppCompatActivity {
         super.onDestroy();
         secureWebView.clearHistory();
         secureWebView.clearFormData();
+        if(FurahitechSecurePage.getInstance().isEnabled()){
+            FurahitechSecurePage.getInstance().clearSession(visitedPages);
+        }
     }
 
     /**
@@ -158,52 +196,77 @@ public class PaySecure extends AppCompatActivity {
      * Interface to listen and getting page HTML content
      */
     private class MyJavaScriptInterface {
+        @JavascriptInterface
+        @SuppressWarnings("unused")
+        public void processStatus(String text, int contentHash) {
+            if(finished){
+                return;
+            }
+            Furahitech.PaymentConstant status=outcomeMatcher.match(text);
+            if(status!=null){
+                finishWithStatus(status,"status element");
+                return;
+            }
+            if(!scannedContents.add(contentHash)){
+                //Same content was read already, i.e page reloaded without changes
+                return;
+            }
+            runOnUiThread(new Runnable() {
+                @Override
+                public void run() {
+                    if(!finished){
+                        secureWebView.loadUrl(PAGE_SCRIPT);
+                    }
+                }
+            });
+        }
+
         @JavascriptInterface
         @SuppressWarnings("unused")
         public void processHTML(String html) {
             //Strapping HTML page and extract keyword for the transaction status
-            if(html.toLowerCase().contains(getString(R.string.success_swahili).toLowerCase())
-                    || html.toLowerCase().contains(getString(R.string.success_english).toLowerCase())){
-
-                runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        if(!finished){
-                            logEvent(false,GATEWAY_TIGOPESA,"Payment succeeded, exiting");
-                            FurahitechPay.getInstance().notifyStateChanged(STATUS_SUCCESS);
-                            finished=true;
-                            finish();
-                        }
-                    }
-                });
-
-            }else if(html.toLowerCase().contains(getString(R.string.failure_swahili).toLowerCase())
-                    || html.toLowerCase().contains(getString(R.string.failure_swahili_not_available).toLowerCase())
-                    || html.toLowerCase().contains(getString(R.string.failure_blocked_eng).toLowerCase())
-                    || html.toLowerCase().contains(getString(R.string.failure_blocked_swa).toLowerCase())
-                    || html.toLowerCase().contains(getString(R.string.failure_swahili_no_account).toLowerCase())
-                    || html.toLowerCase().contains(getString(R.string.failure_expired).toLowerCase())
-                    || html.toLowerCase().contains(getString(R.string.failure_no_enough_funds).toLowerCase())
-                    || html.toLowerCase().equals(getString(R.string.failure_networks).toLowerCase())
-                    || html.toLowerCase().contains(getString(R.string.session_termination_message).toLowerCase())){
-
-                runOnUiThread(new Runnable() {
-                    @Override
-                    public void run() {
-                        if(!finished){
-                            logEvent(false,GATEWAY_TIGOPESA,"Payment failed, exiting");
-                            FurahitechPay.getInstance().notifyStateChanged(STATUS_FAILURE);
-                            finished=true;
-                            finish();
-                        }
-                    }
-                });
+            Furahitech.PaymentConstant status=html.equalsIgnoreCase(getString(R.string.failure_networks))
+                    ? STATUS_FAILURE:outcomeMatcher.match(html);
+            if(status!=null){
+                finishWithStatus(status,"page content");
             }
-
         }
 
     }
 
+    /**
+     * Responsible for reporting payment outcome and closing secure page, only the first outcome is reported
+     * @param status STATUS_SUCCESS or STATUS_FAILURE
+     * @param source Where the outcome was detected
+     */
+    private void finishWithStatus(final Furahitech.PaymentConstant status, final String source){
+        runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                if(!finished){
+                    logEvent(false,GATEWAY_TIGOPESA,"Payment {} on {}, exiting",status==STATUS_SUCCESS ? "succeeded":"failed",source);
+                    FurahitechPay.getInstance().notifyStateChanged(status);
+                    finished=true;
+                    finish();
+                }
+            }
+        });
+    }
+
+    /**
+     * Responsible for compiling outcome phrases of the secure page, success phrases are checked first
+     * @return PhraseMatcher object
+     */
+    private PhraseMatcher<Furahitech.PaymentConstant> buildOutcomeMatcher(){
+        return PhraseMatcher.<Furahitech.PaymentConstant>builder()
+                .add(STATUS_SUCCESS,getString(R.string.success_swahili),getString(R.string.success_english))
+                .add(STATUS_FAILURE,getString(R.string.failure_swahili),getString(R.string.failure_swahili_not_available),
+                        getString(R.string.failure_blocked_eng),getString(R.string.failure_blocked_swa),
+                        getString(R.string.failure_swahili_no_account),getString(R.string.failure_expired),
+                        getString(R.string.failure_no_enough_funds),getString(R.string.session_termination_message))
+                .build();
+    }
+
     /**
      * Method to render HTML web page and get web text
      */
@@ -212,16 +275,35 @@ public class PaySecure extends AppCompatActivity {
             @Override
             public void onPageStarted(WebView view, String url, Bitmap favicon){
                 progressDialog.setVisibility(View.VISIBLE);
+                isPageStarted=true;
+                if(url!=null){
+                    visitedPages.add(url);
+                }
+                //Server side redirections don't reach shouldOverrideUrlLoading
+                Furahitech.PaymentConstant status=getRedirectionOutcome(url,returnEndPoint);
+                if(status!=null){
+                    finishWithStatus(status,"redirection");
+                }
             }
 
             @Override
             public void onPageFinished(WebView view, String url) {
                 progressDialog.setVisibility(View.GONE);
-                secureWebView.loadUrl("javascript:window.HTMLOUT.processHTML('<head>'+document.getElementsByTagName('html')[0].innerHTML+'</head>');");
+                if(isPageStarted && !isHistoryCleared){
+                    //Prefetched page of pre-warmed WebView shouldn't be reachable with back button
+                    view.clearHistory();
+                    isHistoryCleared=true;
+                }
+                if(!finished){
+                    secureWebView.loadUrl(STATUS_PROBE_SCRIPT);
+                }
             }
             @Override
             public boolean shouldOverrideUrlLoading(WebView view, String url) {
-                if(!finished){
+                Furahitech.PaymentConstant status=getRedirectionOutcome(url,returnEndPoint);
+                if(status!=null){
+                    finishWithStatus(status,"redirection");
+                }else if(!finished){
                     view.loadUrl(url);
                 }
                 return true;
@@ -230,7 +312,7 @@ public class PaySecure extends AppCompatActivity {
         secureWebView.setWebChromeClient(new WebChromeClient(){
             public void onProgressChanged(WebView view, int newProgress){
                 progressDialog.setProgress(newProgress);
-                logEvent(false,GATEWAY_TIGOPESA,"Loading page Progress "+newProgress);
+                logEvent(false,GATEWAY_TIGOPESA,"Loading page Progress {}",newProgress);
                 if(newProgress == 100){
                     emptyLoading.setVisibility(View.GONE);
                     progressDialog.setVisibility(View.GONE);
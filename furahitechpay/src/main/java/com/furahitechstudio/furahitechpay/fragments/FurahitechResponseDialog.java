@@ -20,8 +20,12 @@ import android.widget.TextView;
 import com.furahitechstudio.furahitechpay.FurahitechPay;
 import com.furahitechstudio.furahitechpay.R;
 import com.furahitechstudio.furahitechpay.listeners.DialogClickListener;
+import com.furahitechstudio.furahitechpay.models.PaymentCodec;
 import com.furahitechstudio.furahitechpay.models.PaymentStatus;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PAYMENT_REDIRECTION_PARAM;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_CANCELLED;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_SUCCESS;
@@ -66,7 +70,7 @@ public class FurahitechResponseDialog extends DialogFragment{
     public FurahitechResponseDialog getInstance(PaymentStatus status) {
        FurahitechResponseDialog ratingDialog=new FurahitechResponseDialog();
        Bundle bundle=new Bundle();
-       bundle.putSerializable(PAYMENT_REDIRECTION_PARAM,status);
+       bundle.putByteArray(PAYMENT_REDIRECTION_PARAM,PaymentCodec.encode(status));
        ratingDialog.setArguments(bundle);
        return ratingDialog;
     }
@@ -89,14 +93,15 @@ public class FurahitechResponseDialog extends DialogFragment{
         FrameLayout paymentStatusHolder = view.findViewById(R.id.paymentStatusHolder);
 
         //Setting up payment status views from status itself
-        final PaymentStatus paymentStatus= (PaymentStatus) getArguments().getSerializable(PAYMENT_REDIRECTION_PARAM);
+        final PaymentStatus paymentStatus= PaymentCodec.decodePaymentStatus(getArguments().getByteArray(PAYMENT_REDIRECTION_PARAM));
 
         if(paymentStatus!=null && clickListener !=null){
             boolean isPaidSuccessfully= paymentStatus.getPaymentStatus() == STATUS_SUCCESS;
             int paymentStatusColors= ContextCompat.getColor(getActivity(), isPaidSuccessfully ? R.color.colorSuccess
                     : paymentStatus.getPaymentStatus() == STATUS_TIMEOUT ? android.R.color.black:
                     R.color.colorError);
-            paymentStatus.setPaymentExtraParam(FurahitechPay.getInstance().getPaymentRequest().getPaymentExtraParam());
+            Map<String,String> extraParam=FurahitechPay.getInstance().getPaymentRequest().getPaymentExtraParam();
+            paymentStatus.setPaymentExtraParam(extraParam!=null ? new HashMap<>(extraParam):null);
             int paymentStatusIconsRes= isPaidSuccessfully ? R.drawable.ic_check_white_24dp: paymentStatus.getPaymentStatus() == STATUS_TIMEOUT
                     ? R.drawable.ic_timer_off_white_24dp:R.drawable.ic_close_white_24dp;
             String paymentStatusLabel= isPaidSuccessfully ? "Success": paymentStatus.getPaymentStatus() == STATUS_TIMEOUT ? "Timeout":"Failure";
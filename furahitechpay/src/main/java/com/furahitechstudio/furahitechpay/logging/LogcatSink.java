@@ -0,0 +1,65 @@
+package com.furahitechstudio.furahitechpay.logging;
+
+import android.util.Log;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>LogcatSink</h1>
+ * <p>
+ *     LogcatSink writes log entries to Android logcat under the library tag.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public class LogcatSink implements LogSink {
+
+    private final String logTag;
+
+    /**
+     * LogcatSink constructor
+     * @param logTag Logcat tag
+     */
+    public LogcatSink(String logTag){
+        this.logTag=logTag;
+    }
+
+    @Override
+    public void write(FurahitechLogger.Level level, long timestamp, String tag, String message) {
+        String line=tag+": "+message;
+        switch (level){
+            case ERROR:
+                Log.e(logTag,line);
+                break;
+            case WARN:
+                Log.w(logTag,line);
+                break;
+            case INFO:
+                Log.i(logTag,line);
+                break;
+            default:
+                Log.d(logTag,line);
+                break;
+        }
+    }
+
+    @Override
+    public void flush() {}
+}
@@ -4,8 +4,14 @@ package com.furahitechstudio.furahitechpay.mvp;
 import android.app.Activity;
 import android.content.Intent;
 
+import com.furahitechstudio.furahitechpay.FurahitechPay;
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
+import com.furahitechstudio.furahitechpay.models.PaymentCodec;
 import com.furahitechstudio.furahitechpay.models.PaymentStatus;
+import com.furahitechstudio.furahitechpay.networks.FurahitechTimeouts;
+import com.furahitechstudio.furahitechpay.tracing.FurahitechTracer;
 
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_STRIPE;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.RESULT_PAYMENT_STATUS;
 /*
  * Copyright (c) 2018 Lukundo Kileha
@@ -85,8 +91,12 @@ public class FurahitechCardPresenterImpl implements FurahitechCardPresenter {
 
     @Override
     public void sendData(PaymentStatus status) {
+        FurahitechMetrics.getInstance().recordOutcome(GATEWAY_STRIPE,FurahitechMetrics.Outcome.of(status.getPaymentStatus()));
+        FurahitechTracer.getInstance().endTrace(FurahitechPay.getInstance().getPaymentRequest(),
+                status.isPaidSuccessfully() ? null:status.getPaymentStatus().name());
+        FurahitechTimeouts.getInstance().endDeadline(FurahitechPay.getInstance().getPaymentRequest());
         Intent resultIntent=new Intent();
-        resultIntent.putExtra(RESULT_PAYMENT_STATUS,status);
+        resultIntent.putExtra(RESULT_PAYMENT_STATUS,PaymentCodec.encode(status));
         activity.setResult(Activity.RESULT_OK,resultIntent);
         activity.finish();
 
@@ -111,11 +111,5 @@ public interface FurahitechMobilePresenter extends FurahitechBasePresenter{
      */
     Enum getCurrentGateWay();
 
-    /**
-     * Setting up retry count counter
-     * @param retryCount counter
-     */
-    void setCurrentRetryCount(int retryCount);
-
     String getSelectedGateway();
 }
@@ -16,19 +16,23 @@ import com.furahitechstudio.furahitechpay.models.ModelPartial;
 import com.furahitechstudio.furahitechpay.models.ModelTigoPesa;
 import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
 import com.furahitechstudio.furahitechpay.models.PaymentRequest;
+import com.furahitechstudio.furahitechpay.metrics.FurahitechMetrics;
+import com.furahitechstudio.furahitechpay.models.PaymentCodec;
 import com.furahitechstudio.furahitechpay.models.PaymentStatus;
+import com.furahitechstudio.furahitechpay.networks.FurahitechGatewayHealth;
+import com.furahitechstudio.furahitechpay.networks.FurahitechTimeouts;
+import com.furahitechstudio.furahitechpay.sessions.PaymentSession;
+import com.furahitechstudio.furahitechpay.tracing.FurahitechTracer;
 import com.furahitechstudio.furahitechpay.utils.Furahitech;
 
-import java.util.Date;
 import java.util.HashMap;
 
 import static com.furahitechstudio.furahitechpay.FurahitechPay.cancelCallBackCheckTask;
 import static com.furahitechstudio.furahitechpay.FurahitechPay.startCallBackCheckTask;
-import static com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall.initiateWazoHubPayments;
-import static com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall.logPartialPaymentForCallback;
-import static com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall.payWithTigoPesa;
-import static com.furahitechstudio.furahitechpay.networks.FurahitechNetworkCall.payWithWazoHub;
-import static com.furahitechstudio.furahitechpay.utils.Furahitech.CALLBACK_CHECK_MAX_RETRY_COUNT;
+import static com.furahitechstudio.furahitechpay.networks.FurahitechAndroidNetworkCall.initiateWazoHubPayments;
+import static com.furahitechstudio.furahitechpay.networks.FurahitechAndroidNetworkCall.logPartialPaymentForCallback;
+import static com.furahitechstudio.furahitechpay.networks.FurahitechAndroidNetworkCall.payWithTigoPesa;
+import static com.furahitechstudio.furahitechpay.networks.FurahitechAndroidNetworkCall.payWithWazoHub;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallBackStatus.RECEIVED;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallBackStatus.TIMEOUT;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.CallbackState.STATE_RECEIVED;
@@ -41,10 +45,11 @@ import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstan
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_TIMEOUT;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.RESULT_PAYMENT_STATUS;
 import static com.furahitechstudio.furahitechpay.utils.Furahitech.WazoScopes.SCOPE_MPESA;
-import static com.furahitechstudio.furahitechpay.utils.Furahitech.currentRetryCount;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.formatPhoneNumber;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.getPaymentMNO;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechAndroidUtils.isConnected;
 import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechAndroidUtils.showNetworkErrorDialog;
 /*
  * Copyright (c) 2018 Lukundo Kileha
  *
@@ -85,6 +90,7 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
     private boolean isExecuting=false, isPushReceived=false, wasReceivedAtFirst=false;
     private Enum [] supported;
     private Activity activity;
+    private PaymentSession paymentSession;
 
     /**
      * PaymentMobilePresenterImpl Constructor
@@ -138,8 +144,14 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
         setIsExecuting(true);
         if(mobileView!=null){
             if(phoneNumber!=null && !phoneNumber.isEmpty()){
-                PaymentRequest request= FurahitechPay.getInstance().getPaymentRequest();
-                request.setCustomerPhone(formatPhoneNumber(phoneNumber));
+                PaymentRequest request= FurahitechPay.getInstance().getPaymentRequest().toBuilder()
+                        .setCustomerPhone(formatPhoneNumber(phoneNumber)).build();
+                FurahitechPay.getInstance().setPaymentRequest(request);
+                if(supportedGateway!=GATEWAY_NONE && !FurahitechGatewayHealth.getInstance().isGatewayAvailable(request,supportedGateway)){
+                    //Gateway is failing, customer is asked to use another one instead of waiting for timeouts
+                    mobileView.showSnackView(activity.getString(R.string.gateway_unavailable,selectedMNO),false);
+                    return;
+                }
                 switch (supportedGateway){
                     case GATEWAY_TIGOPESA:
                         this.currentGateWay=GATEWAY_TIGOPESA;
@@ -194,11 +206,6 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
         return currentGateWay;
     }
 
-    @Override
-    public void setCurrentRetryCount(int retryCount) {
-        currentRetryCount=retryCount;
-    }
-
     @Override
     public String getSelectedGateway() {
         return selectedMNO;
@@ -230,8 +237,12 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
 
     @Override
     public void sendData(PaymentStatus status) {
+        FurahitechMetrics.getInstance().recordOutcome(currentGateWay,FurahitechMetrics.Outcome.of(status.getPaymentStatus()));
+        FurahitechTracer.getInstance().endTrace(FurahitechPay.getInstance().getPaymentRequest(),
+                status.isPaidSuccessfully() ? null:status.getPaymentStatus().name());
+        FurahitechTimeouts.getInstance().endDeadline(FurahitechPay.getInstance().getPaymentRequest());
         Intent resultIntent=new Intent();
-        resultIntent.putExtra(RESULT_PAYMENT_STATUS,status);
+        resultIntent.putExtra(RESULT_PAYMENT_STATUS,PaymentCodec.encode(status));
         activity.setResult(Activity.RESULT_OK,resultIntent);
         activity.finish();
     }
@@ -242,6 +253,7 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
     @Override
     public void onDestroy() {
         setIsExecuting(false);
+        cancelCallBackCheckTask(paymentSession);
         mobileView=null;
     }
 
@@ -265,9 +277,8 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
     @Override
     public void startStatusCheck() {
        if(mobileView!=null){
-           final String message="Checking status from "+selectedMNO+", processing..."+((currentRetryCount)*25)+"%";
-           mobileView.showSnackView(message,true);
-           startCallBackCheckTask(activity,currentGateWay,currentUID,paymentCallBackListener);
+           mobileView.showSnackView(getStatusCheckMessage(),true);
+           paymentSession=startCallBackCheckTask(activity,currentGateWay,currentUID,paymentCallBackListener);
        }
     }
 
@@ -299,6 +310,10 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
     @Override
     public void onRedirection(final ModelTigoPesa redirection) {
       if(mobileView!=null){
+          if(redirection==null){
+              mobileView.showSnackView(activity.getString(R.string.something_went_wrong),true);
+              return;
+          }
           try{
               mobileView.showSnackView("Connecting to "+selectedMNO+" now...",true);
               logEvent(false,getCurrentGateWay(),"Redirecting to secure page");
@@ -311,6 +326,15 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
       }
     }
 
+    /**
+     * Build status check message with progress of the current session
+     * @return String: message
+     */
+    private String getStatusCheckMessage(){
+        int progress=paymentSession==null ? 0:paymentSession.getProgress();
+        return "Checking status from "+selectedMNO+", processing..."+progress+"%";
+    }
+
     /**
      * Responsible for listening Push Menu from MPESA
      */
@@ -326,6 +350,13 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
                 logPartialPaymentForCallback(activity,getCurrentGateWay(),response,paymentPartialLogListener);
             }
         }
+
+        @Override
+        public void onPushFailed() {
+            if(mobileView!=null){
+                mobileView.showSnackView(activity.getString(R.string.push_request_failed),true);
+            }
+        }
     };
 
     /**
@@ -335,9 +366,8 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
         @Override
         public void onPartialPaymentLogged(boolean isLogged) {
            if(mobileView!=null){
-               final String message="Checking status from "+selectedMNO+", processing..."+((currentRetryCount)*25)+"%";
-               logEvent(false,currentGateWay,"partial payment was logged in "+(isLogged? "success":"fail"));
-               mobileView.showSnackView(message,true);
+               logEvent(false,currentGateWay,"partial payment was logged in {}",isLogged? "success":"fail");
+               mobileView.showSnackView(getStatusCheckMessage(),true);
                startStatusCheck();
            }
         }
@@ -353,7 +383,7 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
             if(mobileView!=null){
                 //Check if callback was received and proceed with transaction status reporting
                 if(partialCheckStatus.getCallback().toLowerCase().equals(STATE_RECEIVED.toLowerCase()) && isExecuting()){
-                    cancelCallBackCheckTask();
+                    cancelCallBackCheckTask(paymentSession);
                     mobileView.showSnackView(activity.getString(R.string.payment_message_completed),false);
                     PaymentRequest request=FurahitechPay.getInstance().getPaymentRequest();
                     PaymentStatus status=new PaymentStatus();
@@ -364,23 +394,17 @@ public class FurahitechMobilePresenterImpl implements RedirectionListener,Furahi
                     status.setPaymentTimeStamp(Integer.parseInt(partialCheckStatus.getCallbackTimestamp()));
                     status.setPaymentRiskLevel("normal");
                     status.setPaymentGateWay(selectedMNO);
-                    logEvent(false,currentGateWay,"Payment with "+getGateWayMNO()+" completed: status "+status.isPaidSuccessfully());
+                    logEvent(false,currentGateWay,"Payment with {} completed: status {}",getGateWayMNO(),status.isPaidSuccessfully());
                     mobileView.onPaymentCompleted(status);
                 }else{
-                    final String message="Checking status from "+selectedMNO+", processing..."+((currentRetryCount)*25)+"%";
-                    if(currentRetryCount > CALLBACK_CHECK_MAX_RETRY_COUNT && isExecuting()){
-                        logEvent(false,currentGateWay,"Terminate process after time-out");
-                        partialCheckStatus.setCallbackTimestamp(String.valueOf(new Date().getTime()/1000));
-                        partialCheckStatus.setRefuid(currentUID);
-                        partialCheckStatus.setStatus(TIMEOUT);
-                        partialCheckStatus.setCallback(STATE_RECEIVED);
-                        onReceived(true,partialCheckStatus);
-                    }else{
-                        if(isExecuting()){
-                            mobileView.showSnackView(message,true);
-                        }
-                        logEvent(false,currentGateWay,message);
+                    if(!isSuccess && paymentSession!=null && paymentSession.getFailedProbeCount()==1 && !isConnected(activity)){
+                        showNetworkErrorDialog(activity,currentGateWay);
+                    }
+                    final String message=getStatusCheckMessage();
+                    if(isExecuting()){
+                        mobileView.showSnackView(message,true);
                     }
+                    logEvent(false,currentGateWay,message);
                 }
             }
         }
@@ -0,0 +1,133 @@
+package com.furahitechstudio.furahitechpay.networks;
+
+import android.content.Context;
+
+import com.furahitechstudio.furahitechpay.FurahitechPay;
+import com.furahitechstudio.furahitechpay.listeners.CallBackListener;
+import com.furahitechstudio.furahitechpay.listeners.FurahitechBaseListener;
+import com.furahitechstudio.furahitechpay.listeners.PartialLogListener;
+import com.furahitechstudio.furahitechpay.listeners.PushMenuListener;
+import com.furahitechstudio.furahitechpay.listeners.RedirectionListener;
+import com.furahitechstudio.furahitechpay.listeners.TokenListener;
+import com.furahitechstudio.furahitechpay.models.ModelWazoHub;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_STRIPE;
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_TIGOPESA;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechAndroidUtils.isConnected;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechAndroidUtils.showNetworkErrorDialog;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechAndroidNetworkCall</h1>
+ * <p>
+ *     FurahitechAndroidNetworkCall runs network operations of the current payment request on behalf of the UI,
+ *     connectivity is checked first and network error dialog is shown when the device is offline.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechNetworkCall
+ */
+public class FurahitechAndroidNetworkCall {
+
+    /**
+     * Method responsible for paying with card (Visa, Mastercard, American Express etc)
+     * @param context Application context
+     * @param furahitechBaseListener FurahitechBaseListener object
+     */
+    public static void payWithCard(final Context context,final FurahitechBaseListener furahitechBaseListener){
+        if(isConnected(context)){
+            FurahitechNetworkCall.payWithCard(FurahitechPay.getInstance().getPaymentRequest(),furahitechBaseListener);
+        }else{
+            showNetworkErrorDialog(context,GATEWAY_STRIPE);
+        }
+    }
+
+    /**
+     * Responsible for checking callback status of the current payment request
+     * @param context Application context
+     * @param gateway Gateway as indicated on PaymentConstant
+     * @param uuid Payment UUID
+     * @param callBackListener Status check listener
+     */
+    public static void checkCallbackStatus(final Context context, final Enum gateway,final String uuid, final CallBackListener callBackListener){
+        if(isConnected(context)){
+            FurahitechNetworkCall.checkCallbackStatus(FurahitechPay.getInstance().getPaymentRequest(),gateway,uuid,callBackListener);
+        }else{
+            showNetworkErrorDialog(context,gateway);
+        }
+    }
+
+    /**
+     * Responsible for requesting TigoPesa secure redirection URL of the current payment request
+     * @param context Application context
+     * @param redirectionListener RedirectionListener listener
+     */
+    public static void payWithTigoPesa(final Context context,final RedirectionListener redirectionListener){
+        if(isConnected(context)){
+            FurahitechNetworkCall.payWithTigoPesa(FurahitechPay.getInstance().getPaymentRequest(),redirectionListener);
+        }else{
+            showNetworkErrorDialog(context,GATEWAY_TIGOPESA);
+        }
+    }
+
+    /**
+     * Responsible for initializing push message from MNO (Vodacom)
+     * @param context: Application Context
+     * @param gateWay:  Gateway type (GATEWAY_TYPE_MPESA)
+     * @param authToken: Authentication token
+     * @param pushListener PaymentPushListener listener
+     */
+    public static void payWithWazoHub(final Context context, final Enum gateWay, final String authToken, final PushMenuListener pushListener){
+        if(isConnected(context)){
+            FurahitechNetworkCall.payWithWazoHub(FurahitechPay.getInstance().getPaymentRequest(),gateWay,authToken,pushListener);
+        }else{
+            showNetworkErrorDialog(context,gateWay);
+        }
+    }
+
+    /**
+     * Responsible for logging partial payment to own server, log is queued on the outbox and delivered in background
+     * so that status check starts right away
+     * @param context Application Context
+     * @param gateway Gateway type (GATEWAY_TYPE_MPESA)
+     * @param response Transaction response from WazoHub
+     * @param partialLogListener Listener notified once the log is queued
+     * @see FurahitechOutbox
+     */
+    public static void logPartialPaymentForCallback(final Context context, final Enum gateway, final ModelWazoHub.TransactionResponse response, final PartialLogListener partialLogListener){
+        FurahitechNetworkCall.logPartialPaymentForCallback(FurahitechPay.getInstance().getPaymentRequest(),gateway,response,partialLogListener);
+    }
+
+    /**
+     * Responsible for requesting authentication token from WazoHUB, cached token is used when still valid
+     * @param context Application Context
+     * @param gateWay: Gateway type (GATEWAY_TYPE_MPESA)
+     * @param tokenListener PaymentTokenListener listener
+     */
+    public static void initiateWazoHubPayments(final Context context, final String wazoScope, final Enum gateWay, final TokenListener tokenListener){
+        if(isConnected(context)){
+            FurahitechNetworkCall.initiateWazoHubPayments(FurahitechPay.getInstance().getPaymentRequest(),wazoScope,gateWay,tokenListener);
+        }else{
+            showNetworkErrorDialog(context,gateWay);
+        }
+    }
+}
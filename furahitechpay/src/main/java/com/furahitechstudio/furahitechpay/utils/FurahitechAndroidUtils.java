@@ -0,0 +1,140 @@
+package com.furahitechstudio.furahitechpay.utils;
+
+import android.app.Activity;
+import android.app.AlertDialog;
+import android.content.Context;
+import android.content.DialogInterface;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.design.widget.Snackbar;
+import android.view.View;
+
+import com.furahitechstudio.furahitechpay.FurahitechPay;
+import com.furahitechstudio.furahitechpay.R;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.STATUS_CANCELLED;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+
+/**
+ * <h1>FurahitechAndroidUtils</h1>
+ * <p>
+ *     FurahitechAndroidUtils is helper class responsible for Android specific operations like connectivity check, dialogs and snack messages.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ *
+ * @see FurahitechUtils
+ */
+
+public class FurahitechAndroidUtils {
+
+    /**
+     * Show network dialog error
+     * @param context: Application context
+     * @param gateway: Gateway currently on operation
+     */
+    public static void showNetworkErrorDialog(final Context context,Enum gateway){
+        logEvent(true,gateway,"You are currently not connected to the network");
+        if(Looper.myLooper()!=Looper.getMainLooper()){
+            //Network calls may be triggered from worker threads, dialogs belong to the main thread
+            new Handler(Looper.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    showNetworkErrorDialog(context);
+                }
+            });
+        }else{
+            showNetworkErrorDialog(context);
+        }
+    }
+
+    private static void showNetworkErrorDialog(Context context){
+        try{
+            AlertDialog.Builder builder=new AlertDialog.Builder(context);
+            builder.setCancelable(false);
+            builder.setTitle("Connection problem");
+            builder.setMessage("You are currently not connected to the network, make sure you are connected before doing anything");
+            builder.setNegativeButton("OK", new DialogInterface.OnClickListener() {
+                @Override
+                public void onClick(DialogInterface dialogInterface, int i) {
+                    dialogInterface.dismiss();
+                }
+            });
+            builder.show();
+        }catch (Exception e){
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Check if there is internet connection
+     * @return boolean: TRUE if connected otherwise false
+     */
+    public static boolean isConnected(Context context) {
+        try {
+            ConnectivityManager cm = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+            NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
+            return activeNetwork != null
+                    && activeNetwork.isConnectedOrConnecting();
+        } catch (NullPointerException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Responsible for shoeing snack messages
+     * @param view: CoordinationLayout
+     * @param message: Message to be shown
+     * @param islong: True when is LENGTH_INDEFINITE else false
+     */
+    public static void showSnackMessage(View view, String message, boolean islong){
+        Snackbar.make(view, message, islong ? Snackbar.LENGTH_INDEFINITE: Snackbar.LENGTH_LONG).show();
+    }
+
+    /**
+     * Method to show dialog when use try to cancel payment getValue
+     * @param activity application context
+     */
+    public static void showTaskCancelDialogOnSecure(final Activity activity){
+        AlertDialog.Builder builder=new AlertDialog.Builder(activity);
+        builder.setTitle(activity.getString(R.string.cancel_task_title));
+        builder.setMessage(activity.getString(R.string.cancel_task_message));
+        builder.setCancelable(false);
+        builder.setNegativeButton(activity.getString(R.string.negative_button), new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialogInterface, int i) {
+                dialogInterface.dismiss();
+            }
+        });
+        builder.setPositiveButton(activity.getString(R.string.positive_button), new DialogInterface.OnClickListener() {
+            @Override
+            public void onClick(DialogInterface dialogInterface, int i) {
+                FurahitechPay.getInstance().notifyStateChanged(STATUS_CANCELLED);
+                activity.finish();
+            }
+        });
+        builder.show();
+    }
+}
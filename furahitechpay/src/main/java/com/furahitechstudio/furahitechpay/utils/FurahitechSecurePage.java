@@ -0,0 +1,264 @@
+package com.furahitechstudio.furahitechpay.utils;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.MutableContextWrapper;
+import android.net.Uri;
+import android.os.Build;
+import android.view.View;
+import android.webkit.CookieManager;
+import android.webkit.WebSettings;
+import android.webkit.WebStorage;
+import android.webkit.WebView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.furahitechstudio.furahitechpay.utils.Furahitech.PaymentConstant.GATEWAY_TIGOPESA;
+import static com.furahitechstudio.furahitechpay.utils.FurahitechUtils.logEvent;
+
+/*
+ * Copyright (c) 2018 Lukundo Kileha
+ *
+ * Licensed under The MIT License,
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://opensource.org/licenses/MIT
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ */
+
+/**
+ * <h1>FurahitechSecurePage</h1>
+ * <p>
+ *     FurahitechSecurePage prepares Tigo Pesa secure page before the redirection URL is known. When enabled, a WebView is
+ *     created while the customer is typing the phone number and the secure page origin is loaded in it, so that WebView
+ *     start up, DNS, TLS and static assets are ready when the secure page opens.
+ *     Secure page keeps HTTP cache between checkouts, cookies of the visited pages and web storage of their origins are removed
+ *     instead so that no session is carried to the next checkout. Cookies are expired on every parent domain and parent path
+ *     of the visited pages, cookies which only apply to URLs that were never loaded as a page (i.e sub-resources on other
+ *     hosts or paths) are not visible to the library and are left in place.
+ * </p>
+ *
+ * @author Lukundo Kileha (kileha3)
+ *         lkileha@furahitech.co.tz
+ */
+public final class FurahitechSecurePage {
+
+    private static final String EXPIRED_COOKIE ="=; Expires=Thu, 01 Jan 1970 00:00:00 GMT; Path=";
+
+    private static final FurahitechSecurePage securePage =new FurahitechSecurePage();
+
+    private volatile boolean enabled =false;
+
+    private volatile String origin;
+
+    private WebView prewarmedWebView;
+
+    private String prefetchedOrigin;
+
+    private FurahitechSecurePage(){}
+
+    public static FurahitechSecurePage getInstance(){
+        return securePage;
+    }
+
+    /**
+     * Responsible for enabling secure page pre-warming, pre-warmed WebView is released when disabled
+     * @param enabled TRUE to enable, disabled by default
+     * @return FurahitechSecurePage object
+     */
+    public FurahitechSecurePage setEnabled(boolean enabled){
+        this.enabled=enabled;
+        if(!enabled){
+            release();
+        }
+        return this;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Responsible for setting up secure page origin to prefetch, origin of the last redirection is used when not set
+     * @param origin Origin e.g https://secure.example.co.tz
+     * @return FurahitechSecurePage object
+     */
+    public FurahitechSecurePage setOrigin(String origin){
+        this.origin=getOrigin(origin);
+        return this;
+    }
+
+    /**
+     * Responsible for creating WebView and prefetching secure page origin, does nothing when disabled or already pre-warmed.
+     * Must be called on the main thread.
+     * @param context Context of the current screen
+     */
+    public void prewarm(Context context){
+        if(!enabled || prewarmedWebView!=null){
+            return;
+        }
+        prewarmedWebView=new WebView(new MutableContextWrapper(context.getApplicationContext()));
+        configure(prewarmedWebView);
+        prefetchedOrigin=origin;
+        prewarmedWebView.loadUrl(prefetchedOrigin==null ? "about:blank":prefetchedOrigin);
+        logEvent(false,GATEWAY_TIGOPESA,"Secure page pre-warmed, prefetching {}",prefetchedOrigin);
+    }
+
+    /**
+     * Get pre-warmed WebView attached to the activity, it is handed out once.
+     * Must be called on the main thread.
+     * @param activity Secure page activity
+     * @param redirectionURL Secure page URL
+     * @return WebView: pre-warmed WebView, null when there is none
+     */
+    public WebView obtain(Activity activity, String redirectionURL){
+        if(origin==null){
+            origin=getOrigin(redirectionURL);
+        }
+        WebView webView=prewarmedWebView;
+        prewarmedWebView=null;
+        if(webView!=null){
+            webView.stopLoading();
+            ((MutableContextWrapper)webView.getContext()).setBaseContext(activity);
+            if(prefetchedOrigin!=null){
+                //Prefetch isn't part of the checkout, its session is dropped
+                clearSession(Collections.singleton(prefetchedOrigin));
+            }
+        }
+        return webView;
+    }
+
+    /**
+     * Responsible for destroying pre-warmed WebView which wasn't used
+     */
+    public void release(){
+        if(prewarmedWebView!=null){
+            prewarmedWebView.destroy();
+            prewarmedWebView=null;
+        }
+    }
+
+    /**
+     * Responsible for removing cookies and web storage of the secure pages, HTTP cache is kept.
+     * Cookie attributes can't be read back from CookieManager, so every cookie name seen on a page is expired on the page host,
+     * on each of its parent domains and on each parent path of the page.
+     * @param pages URLs of the pages visited during the checkout
+     */
+    public void clearSession(Collection<String> pages){
+        CookieManager cookieManager=CookieManager.getInstance();
+        Set<String> origins=new HashSet<>();
+        for(String page:pages){
+            String origin=getOrigin(page);
+            if(origin==null){
+                continue;
+            }
+            origins.add(origin);
+            String cookies=cookieManager.getCookie(page);
+            if(cookies==null){
+                continue;
+            }
+            Uri uri=Uri.parse(page);
+            List<String> domains=getParentDomains(uri.getHost());
+            List<String> paths=getParentPaths(uri.getPath());
+            for(String cookie:cookies.split(";")){
+                int separator=cookie.indexOf('=');
+                String name=(separator<0 ? cookie:cookie.substring(0,separator)).trim();
+                for(String path:paths){
+                    //Host only cookie, then cookies shared with sub domains
+                    cookieManager.setCookie(page,name+EXPIRED_COOKIE+path);
+                    for(String domain:domains){
+                        cookieManager.setCookie(page,name+EXPIRED_COOKIE+path+"; Domain="+domain);
+                    }
+                }
+            }
+        }
+        for(String origin:origins){
+            WebStorage.getInstance().deleteOrigin(origin);
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            cookieManager.flush();
+        }
+    }
+
+    /**
+     * Responsible for setting up WebView the way secure page needs it
+     * @param webView Secure page WebView
+     */
+    @SuppressWarnings("deprecation")
+    public static void configure(WebView webView){
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            webView.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        } else {
+            webView.setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+        }
+        webView.getSettings().setJavaScriptEnabled(true);
+        webView.getSettings().setRenderPriority(WebSettings.RenderPriority.HIGH);
+        webView.getSettings().setJavaScriptCanOpenWindowsAutomatically(true);
+    }
+
+    /**
+     * Get domains a cookie of the host may be set on, i.e secure.tigo.co.tz, tigo.co.tz and co.tz
+     * @param host Page host
+     * @return List of domains, the host alone when it is an IP address
+     */
+    private static List<String> getParentDomains(String host){
+        List<String> domains=new ArrayList<>();
+        if(host==null){
+            return domains;
+        }
+        domains.add(host);
+        if(host.indexOf(':')>=0 || Character.isDigit(host.charAt(host.length()-1))){
+            return domains;
+        }
+        for(int dot=host.indexOf('.');dot>=0 && host.indexOf('.',dot+1)>=0;dot=host.indexOf('.',dot+1)){
+            domains.add(host.substring(dot+1));
+        }
+        return domains;
+    }
+
+    /**
+     * Get paths a cookie of the page may be set on, i.e /, /pay, /pay/ and /pay/confirm for /pay/confirm
+     * @param path Page path
+     * @return List of paths
+     */
+    private static List<String> getParentPaths(String path){
+        List<String> paths=new ArrayList<>();
+        paths.add("/");
+        if(path==null){
+            return paths;
+        }
+        for(int slash=path.indexOf('/',1);slash>0;slash=path.indexOf('/',slash+1)){
+            paths.add(path.substring(0,slash));
+            paths.add(path.substring(0,slash+1));
+        }
+        if(path.length()>1 && !path.endsWith("/")){
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Get origin of the URL
+     * @param url Page URL
+     * @return String: scheme://host[:port], null when URL has no host
+     */
+    public static String getOrigin(String url){
+        Uri uri=url==null ? null:Uri.parse(url);
+        if(uri==null || uri.getScheme()==null || uri.getHost()==null){
+            return null;
+        }
+        return uri.getScheme()+"://"+uri.getHost()+(uri.getPort()>0 ? ":"+uri.getPort():"");
+    }
+}